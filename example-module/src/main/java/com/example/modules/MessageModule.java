@@ -6,8 +6,6 @@ import eu.koboo.minestom.api.module.annotation.ModuleInfo;
 import eu.koboo.minestom.api.server.Server;
 import net.minestom.server.event.player.PlayerSpawnEvent;
 
-import java.util.logging.Logger;
-
 @ModuleInfo(
         name = "MessageModule",
         version = "1.0.0",
@@ -19,11 +17,8 @@ import java.util.logging.Logger;
 )
 public class MessageModule extends Module {
 
-    Logger logger;
-
     @Override
     public void onEnable() {
-        logger = Logger.getLogger("MessageModule");
         Server.getInstance().getModuleManager().registerListener(PlayerSpawnEvent.class, new MessageListener());
         logger.info("MessageModule has been enabled!");
     }
@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `view-distance.adaptive` section of the `server_config.yml` file.
+ * The chunk view-distance of a world is lowered while the average tick takes longer than `lowerAboveMs`
+ * and raised again after `raiseAfter` checks in a row below `raiseBelowMs`.
+ */
+public record AdaptiveViewConfig(boolean enabled, int minChunks, int lowerAboveMs, int raiseBelowMs, int raiseAfter) {
+
+}
@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Enum class set the action, if a module exceeds its resource budget
+ */
+public enum BudgetAction {
+
+    LOG, DISABLE
+
+}
@@ -0,0 +1,8 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `console` section of the `server_config.yml` file.
+ */
+public record ConsoleConfig(ConsoleExecutor executor, int queueCapacity, boolean timings) {
+
+}
@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Enum class to set the thread, which executes the commands of the console
+ */
+public enum ConsoleExecutor {
+
+    TICK, VIRTUAL
+
+}
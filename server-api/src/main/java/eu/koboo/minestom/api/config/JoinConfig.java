@@ -0,0 +1,11 @@
+package eu.koboo.minestom.api.config;
+
+import java.util.List;
+
+/**
+ * Config object to represent the `join` section of the `server_config.yml` file.
+ * The default world is always one of the join worlds.
+ */
+public record JoinConfig(SpawnPolicy policy, List<String> worlds) {
+
+}
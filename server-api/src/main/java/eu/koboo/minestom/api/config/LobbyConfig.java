@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `lobby` section of the `server_config.yml` file.
+ * The default world is the first replica, so one replica disables the replication.
+ */
+public record LobbyConfig(int minReplicas, int maxReplicas, int playersPerReplica,
+                          LobbyRouting routing, int scaleDownDelay) {
+
+}
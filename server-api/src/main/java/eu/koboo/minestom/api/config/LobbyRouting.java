@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Enum class to set the lobby replica, joining players spawn in
+ */
+public enum LobbyRouting {
+
+    LEAST_PLAYERS, CONSISTENT_HASH
+
+}
@@ -0,0 +1,9 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `metrics` section of the `server_config.yml` file.
+ * If enabled, the metrics are served in the Prometheus text format on `http://host:port/metrics`.
+ */
+public record MetricsConfig(boolean enabled, String host, int port) {
+
+}
@@ -0,0 +1,14 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `modules.budget` section of the `server_config.yml` file.
+ * All limits are per module and second, 0 disables the limit.
+ */
+public record ModuleBudget(long listenerMillis, long taskMillis, long allocatedMegabytes,
+                           BudgetAction action) {
+
+    public boolean isEnabled() {
+        return listenerMillis > 0 || taskMillis > 0 || allocatedMegabytes > 0;
+    }
+
+}
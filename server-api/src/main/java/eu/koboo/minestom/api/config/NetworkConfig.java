@@ -0,0 +1,17 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `network` settings of the `server_config.yml` file.
+ * All values are passed to Minestom on startup and require a restart to be changed.
+ *
+ * @param workers             amount of network worker threads
+ * @param socketSendBuffer    send buffer size of every connection in bytes
+ * @param socketReceiveBuffer receive buffer size of every connection in bytes
+ * @param tcpNoDelay          disables Nagle's algorithm, if true
+ * @param packetRateLimit     packets per second, which are processed per player (0 disables the limit)
+ * @param maxPacketSize       maximum size of packets from the clients in bytes
+ */
+public record NetworkConfig(int workers, int socketSendBuffer, int socketReceiveBuffer, boolean tcpNoDelay,
+                            int packetRateLimit, int maxPacketSize) {
+
+}
@@ -7,7 +7,15 @@ import net.minestom.server.world.Difficulty;
  */
 public record ServerConfig(String host, int port, boolean onlineMode, Difficulty difficulty,
                            ProxyMode proxyMode, String velocitySecret,
-                           int compressionThreshold,
-                           int chunkViewDistance, int entityViewDistance) {
+                           NetworkConfig network, int compressionThreshold,
+                           int chunkViewDistance, int entityViewDistance,
+                           ModuleBudget moduleBudget,
+                           ConsoleConfig console,
+                           ShutdownConfig shutdown,
+                           JoinConfig join,
+                           LobbyConfig lobby,
+                           int chunkPacketCache,
+                           AdaptiveViewConfig adaptiveView,
+                           MetricsConfig metrics) {
 
 }
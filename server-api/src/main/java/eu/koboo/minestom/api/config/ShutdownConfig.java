@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Config object to represent the `shutdown` section of the `server_config.yml` file.
+ * All timeouts are in seconds.
+ */
+public record ShutdownConfig(String transferServer, String kickMessage,
+                             int transferTimeout, int modulesTimeout, int saveTimeout, int logsTimeout) {
+
+}
@@ -0,0 +1,10 @@
+package eu.koboo.minestom.api.config;
+
+/**
+ * Enum class to set the world, joining players spawn in
+ */
+public enum SpawnPolicy {
+
+    DEFAULT, ROUND_ROBIN, LEAST_PLAYERS
+
+}
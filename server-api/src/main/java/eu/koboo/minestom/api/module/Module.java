@@ -1,5 +1,7 @@
 package eu.koboo.minestom.api.module;
 
+import eu.koboo.minestom.api.module.scheduler.ModuleScheduler;
+import eu.koboo.minestom.api.server.Server;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -24,6 +26,9 @@ public abstract class Module {
         return isEnabled;
     }
 
+    public ModuleScheduler getScheduler() {
+        return Server.getInstance().getModuleManager().getScheduler(this);
+    }
 
 
 }
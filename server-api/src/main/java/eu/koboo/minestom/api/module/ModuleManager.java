@@ -2,6 +2,10 @@ package eu.koboo.minestom.api.module;
 
 import eu.koboo.minestom.api.module.annotation.ModuleInfo;
 import eu.koboo.minestom.api.module.annotation.dependencies.LoadOption;
+import eu.koboo.minestom.api.module.scheduler.ModuleScheduler;
+import eu.koboo.minestom.api.module.scheduler.ModuleSchedulerStats;
+import eu.koboo.minestom.api.module.service.ServiceRegistry;
+import eu.koboo.minestom.api.module.stats.ModuleResourceStats;
 import net.minestom.server.event.Event;
 import org.jetbrains.annotations.ApiStatus;
 
@@ -40,7 +44,8 @@ public interface ModuleManager {
     Module getModule(String name);
 
     /**
-     * Get all modules.
+     * Get all enabled modules in the order they got enabled.
+     * The returned array is shared and must not be modified.
      * @return  the modules
      */
     Module[] getModules();
@@ -54,7 +59,7 @@ public interface ModuleManager {
 
     /**
      * Get all module infos.
-     * @return  the module infos
+     * @return  an immutable snapshot of the module infos
      */
     Map<String, ModuleInfo> getModuleInfos();
 
@@ -86,6 +91,53 @@ public interface ModuleManager {
      */
     <E extends Event> void registerListener(Class<E> eventClass, Consumer<E> listener);
 
+    /**
+     * Register a listener for the specified event class, owned by the specified module.
+     * The time spent in the listener is accounted to the module and the listener gets removed,
+     * once the module gets disabled.
+     * @param module        the owning module
+     * @param eventClass    the event class
+     * @param listener      the listener
+     * @param <E>           the event type
+     */
+    <E extends Event> void registerListener(Module module, Class<E> eventClass, Consumer<E> listener);
+
+    /**
+     * Get the resource usage of the specified module.
+     * @param name  the module name
+     * @return  the resource stats or null, if the module is not enabled
+     */
+    ModuleResourceStats getResourceStats(String name);
+
+    /**
+     * Get the resource usage of all enabled modules.
+     * @return  the resource stats by module name
+     */
+    Map<String, ModuleResourceStats> getResourceStats();
+
+    /**
+     * Get the task metrics of the specified module, without creating its scheduler.
+     * @param name  the module name
+     * @return  the scheduler stats or null, if the module never used its scheduler
+     */
+    ModuleSchedulerStats getSchedulerStats(String name);
+
+    /**
+     * Get the scheduler of the specified module.
+     * All tasks of the scheduler get cancelled, once the module gets disabled.
+     * @param module    the module
+     * @return  the scheduler of the module
+     * @throws IllegalStateException if the module isn't enabled
+     */
+    ModuleScheduler getScheduler(Module module);
+
+    /**
+     * Get the registry to share services between modules.
+     * Services of a module get unregistered, once the module gets disabled.
+     * @return  the service registry
+     */
+    ServiceRegistry getServiceRegistry();
+
     /**
      * Load all modules with the specified load option.
      */
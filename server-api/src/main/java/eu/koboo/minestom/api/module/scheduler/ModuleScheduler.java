@@ -0,0 +1,75 @@
+package eu.koboo.minestom.api.module.scheduler;
+
+import net.minestom.server.instance.Instance;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Scheduler which is bound to a single module.
+ * Every task scheduled through it gets cancelled, as soon as the module gets disabled.
+ */
+public interface ModuleScheduler {
+
+    /**
+     * Run the task on the next server tick.
+     * @param task  the task
+     * @return  the scheduled task
+     */
+    ModuleTask runSync(Runnable task);
+
+    /**
+     * Run the task on the server tick after the specified delay.
+     * @param task  the task
+     * @param delay the delay
+     * @return  the scheduled task
+     */
+    ModuleTask runSyncLater(Runnable task, Duration delay);
+
+    /**
+     * Run the task repeatedly on the server tick.
+     * @param task      the task
+     * @param delay     the delay before the first execution
+     * @param period    the period between two executions
+     * @return  the scheduled task
+     */
+    ModuleTask runRepeating(Runnable task, Duration delay, Duration period);
+
+    /**
+     * Run the task on a virtual thread. Use this for blocking work like database calls or http requests.
+     * @param task  the task
+     * @return  the scheduled task
+     */
+    ModuleTask runAsync(Runnable task);
+
+    /**
+     * Supply a value on a virtual thread.
+     * The returned future gets cancelled, if the module gets disabled before completion.
+     * @param supplier  the supplier
+     * @param <T>       the value type
+     * @return  the future of the supplied value
+     */
+    <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier);
+
+    /**
+     * Run the task on the tick thread of the specified instance.
+     * Use this to hop back from an async task, before touching blocks or entities of the instance.
+     * @param instance  the instance
+     * @param task      the task
+     * @return  the scheduled task
+     */
+    ModuleTask runOnInstance(Instance instance, Runnable task);
+
+    /**
+     * Cancel all pending and running tasks of the module.
+     */
+    void cancelAll();
+
+    /**
+     * Get the queue and latency metrics of the module.
+     * @return  the current stats
+     */
+    ModuleSchedulerStats getStats();
+
+}
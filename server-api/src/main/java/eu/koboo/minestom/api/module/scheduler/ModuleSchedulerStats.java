@@ -0,0 +1,12 @@
+package eu.koboo.minestom.api.module.scheduler;
+
+/**
+ * Snapshot of the metrics of a {@link ModuleScheduler}.
+ * The latency is the time between scheduling a task and the start of its (first) execution.
+ */
+public record ModuleSchedulerStats(String moduleName,
+                                   long scheduled, int pending,
+                                   long completed, long failed, long cancelled,
+                                   double averageLatencyMillis, double maxLatencyMillis) {
+
+}
@@ -0,0 +1,31 @@
+package eu.koboo.minestom.api.module.scheduler;
+
+/**
+ * Handle of a task, which got scheduled by a {@link ModuleScheduler}.
+ */
+public interface ModuleTask {
+
+    /**
+     * Get the id of the task, unique per module.
+     * @return  the task id
+     */
+    int getId();
+
+    /**
+     * Cancel the task. Running async tasks get interrupted.
+     */
+    void cancel();
+
+    /**
+     * Check if the task got cancelled.
+     * @return  true if the task got cancelled, false otherwise
+     */
+    boolean isCancelled();
+
+    /**
+     * Check if the task is finished, either by completion or cancellation.
+     * @return  true if the task is finished, false otherwise
+     */
+    boolean isDone();
+
+}
@@ -0,0 +1,54 @@
+package eu.koboo.minestom.api.module.service;
+
+import eu.koboo.minestom.api.module.Module;
+
+/**
+ * Cached reference to a service of the {@link ServiceRegistry}.
+ * The handle gets updated, whenever a provider registers or unregisters the service.
+ */
+public interface ServiceHandle<S> {
+
+    /**
+     * Get the service interface of this handle.
+     * @return  the service interface
+     */
+    Class<S> getServiceClass();
+
+    /**
+     * Get the current implementation of the service.
+     * @return  the service implementation or null, if no module provides it
+     */
+    S get();
+
+    /**
+     * Get the current implementation of the service.
+     * @return  the service implementation
+     * @throws IllegalStateException if no module provides the service
+     */
+    S require();
+
+    /**
+     * Check if a module currently provides the service.
+     * @return  true if the service is present, false otherwise
+     */
+    boolean isPresent();
+
+    /**
+     * Get the module, which currently provides the service.
+     * @return  the providing module or null, if the service is not present
+     */
+    Module getProvider();
+
+    /**
+     * Add a listener, which gets notified on registration and removal of the service.
+     * @param listener  the listener
+     */
+    void addListener(ServiceListener<S> listener);
+
+    /**
+     * Remove a previously added listener.
+     * @param listener  the listener
+     */
+    void removeListener(ServiceListener<S> listener);
+
+}
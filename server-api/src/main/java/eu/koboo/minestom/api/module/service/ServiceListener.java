@@ -0,0 +1,22 @@
+package eu.koboo.minestom.api.module.service;
+
+/**
+ * Listener of a {@link ServiceHandle}.
+ */
+public interface ServiceListener<S> {
+
+    /**
+     * Called after a module registered the service.
+     * @param service   the registered service
+     */
+    default void onRegister(S service) {
+    }
+
+    /**
+     * Called after the service got unregistered, e.g. because the providing module got disabled.
+     * @param service   the unregistered service
+     */
+    default void onUnregister(S service) {
+    }
+
+}
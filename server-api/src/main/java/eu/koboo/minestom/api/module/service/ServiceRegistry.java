@@ -0,0 +1,50 @@
+package eu.koboo.minestom.api.module.service;
+
+import eu.koboo.minestom.api.module.Module;
+
+/**
+ * Registry to share services between modules by their interface,
+ * without depending on the implementing module class.
+ */
+public interface ServiceRegistry {
+
+    /**
+     * Publish a service implementation for the specified service interface.
+     * @param provider      the module, which provides the service
+     * @param serviceClass  the service interface
+     * @param service       the service implementation
+     * @param <S>           the service type
+     */
+    <S> void register(Module provider, Class<S> serviceClass, S service);
+
+    /**
+     * Remove the published implementation of the specified service interface.
+     * @param serviceClass  the service interface
+     */
+    void unregister(Class<?> serviceClass);
+
+    /**
+     * Remove all services, which are provided by the specified module.
+     * @param provider  the module
+     */
+    void unregisterAll(Module provider);
+
+    /**
+     * Get the handle of the specified service interface.
+     * The handle is created once per service interface and stays valid,
+     * so it should be stored in a field and used in per-tick or per-packet code.
+     * @param serviceClass  the service interface
+     * @param <S>           the service type
+     * @return  the handle of the service
+     */
+    <S> ServiceHandle<S> getHandle(Class<S> serviceClass);
+
+    /**
+     * Get the current implementation of the specified service interface.
+     * @param serviceClass  the service interface
+     * @param <S>           the service type
+     * @return  the service implementation or null, if no module provides it
+     */
+    <S> S getService(Class<S> serviceClass);
+
+}
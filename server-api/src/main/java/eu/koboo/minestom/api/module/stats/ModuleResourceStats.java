@@ -0,0 +1,12 @@
+package eu.koboo.minestom.api.module.stats;
+
+/**
+ * Snapshot of the resources a module used since it got enabled.
+ * The allocated bytes are only counted if the JVM supports thread allocation accounting, otherwise they are -1.
+ */
+public record ModuleResourceStats(String moduleName,
+                                  long listenerInvocations, long listenerTimeNanos, long maxListenerTimeNanos,
+                                  long taskExecutions, long taskCpuTimeNanos,
+                                  long allocatedBytes) {
+
+}
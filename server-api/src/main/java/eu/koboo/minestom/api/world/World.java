@@ -8,6 +8,8 @@ import net.minestom.server.instance.InstanceContainer;
 import net.minestom.server.world.DimensionType;
 import org.simpleyaml.configuration.file.YamlFile;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -15,12 +17,28 @@ import org.simpleyaml.configuration.file.YamlFile;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class World {
 
+    // Incremented whenever the spawn point of any world changes, so resolved spawn points can be cached
+    static final AtomicInteger SPAWN_POINTS_VERSION = new AtomicInteger();
+
     String name;
     InstanceContainer instanceContainer;
     DimensionType dimensionType;
 
-    Pos spawnPoint;
+    @Setter(AccessLevel.NONE)
+    volatile Pos spawnPoint;
 
     YamlFile worldConfig;
 
+    public void setSpawnPoint(Pos spawnPoint) {
+        this.spawnPoint = spawnPoint;
+        SPAWN_POINTS_VERSION.incrementAndGet();
+    }
+
+    /**
+     * @return a number, which changes whenever the spawn point of a world got set
+     */
+    public static int getSpawnPointsVersion() {
+        return SPAWN_POINTS_VERSION.get();
+    }
+
 }
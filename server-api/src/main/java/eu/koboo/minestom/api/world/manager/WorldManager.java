@@ -6,18 +6,24 @@ import net.minestom.server.coordinate.Pos;
 import net.minestom.server.world.DimensionType;
 import org.simpleyaml.configuration.file.YamlFile;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface WorldManager {
 
     World createWorld(String name, Dimension dimensionType);
 
     void deleteWorld(World world);
 
+    CompletableFuture<Void> deleteWorldAsync(World world);
+
     World getWorld(String name);
 
     World[] getWorlds();
 
     void unloadWorld(World world);
 
+    CompletableFuture<Void> unloadWorldAsync(World world);
+
     void loadWorld(String name);
 
     void saveWorld(String name);
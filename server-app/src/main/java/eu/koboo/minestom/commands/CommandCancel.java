@@ -0,0 +1,24 @@
+package eu.koboo.minestom.commands;
+
+import eu.koboo.minestom.server.ServerImpl;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.arguments.ArgumentType;
+import net.minestom.server.entity.Player;
+
+public class CommandCancel extends Command {
+
+    public CommandCancel() {
+        super("cancel");
+        setCondition((sender, command) -> !(sender instanceof Player));
+        setDefaultExecutor((sender, context) -> sender.sendMessage("Usage: cancel <id>"));
+        addSyntax((sender, context) -> {
+            int id = context.get("id");
+            if (!ServerImpl.getInstance().getConsole().getCommandQueue().cancel(id)) {
+                sender.sendMessage("There is no running job #" + id + ".");
+                return;
+            }
+            sender.sendMessage("Job #" + id + " cancelled.");
+        }, ArgumentType.Integer("id"));
+    }
+
+}
@@ -0,0 +1,24 @@
+package eu.koboo.minestom.commands;
+
+import eu.koboo.minestom.console.CommandQueue;
+import eu.koboo.minestom.server.ServerImpl;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.entity.Player;
+
+public class CommandJobs extends Command {
+
+    public CommandJobs() {
+        super("jobs");
+        setCondition((sender, command) -> !(sender instanceof Player));
+        setDefaultExecutor((sender, context) -> {
+            CommandQueue commandQueue = ServerImpl.getInstance().getConsole().getCommandQueue();
+            sender.sendMessage("Running jobs (" + commandQueue.getJobs().size() + "), queued commands: " + commandQueue.getPending());
+            for (CommandQueue.ConsoleJob job : commandQueue.getJobs()) {
+                sender.sendMessage(String.format(" - #%d: %s (%.2fs)", job.id(), job.command(), job.getRuntimeMillis() / 1000.0));
+            }
+            sender.sendMessage("Append & to a command to run it as job, like: world save-all &");
+            sender.sendMessage("Use cancel <id> to cancel a job.");
+        });
+    }
+
+}
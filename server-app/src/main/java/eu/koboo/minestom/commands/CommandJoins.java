@@ -0,0 +1,47 @@
+package eu.koboo.minestom.commands;
+
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.join.JoinRouter;
+import eu.koboo.minestom.server.join.SpawnTarget;
+import eu.koboo.minestom.stats.LatencyHistogram;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.entity.Player;
+
+import java.util.List;
+
+public class CommandJoins extends Command {
+
+    public CommandJoins() {
+        super("joins");
+        setCondition((sender, command) -> !(sender instanceof Player));
+        setDefaultExecutor((sender, context) -> {
+            JoinRouter joinRouter = ServerImpl.getInstance().getJoinRouter();
+            LatencyHistogram latency = joinRouter.getJoinLatency();
+            sender.sendMessage("Spawn policy: " + joinRouter.getConfig().policy());
+            for (SpawnTarget target : joinRouter.getTargets()) {
+                sender.sendMessage(" - " + target.world().getName() + ": " + target.instance().getPlayers().size()
+                        + " players, " + target.pending().get() + " joining");
+            }
+            List<SpawnTarget> replicas = ServerImpl.getInstance().getWorldManager().getLobbyReplicas().getReplicas();
+            if (replicas.size() > 1) {
+                sender.sendMessage("Lobby replicas (" + replicas.size() + "):");
+                for (int i = 0; i < replicas.size(); i++) {
+                    SpawnTarget replica = replicas.get(i);
+                    sender.sendMessage(" - #" + i + ": " + replica.instance().getPlayers().size() + " players, "
+                            + replica.pending().get() + " joining");
+                }
+            }
+            if (latency.getCount() == 0) {
+                sender.sendMessage("No joins recorded yet.");
+                return;
+            }
+            sender.sendMessage(String.format("Join latency of %d joins: p50 %.2fms, p90 %.2fms, p99 %.2fms, max %.2fms",
+                    latency.getCount(),
+                    latency.getQuantileNanos(0.5) / 1_000_000.0,
+                    latency.getQuantileNanos(0.9) / 1_000_000.0,
+                    latency.getQuantileNanos(0.99) / 1_000_000.0,
+                    latency.getMaxNanos() / 1_000_000.0));
+        });
+    }
+
+}
@@ -0,0 +1,91 @@
+package eu.koboo.minestom.commands;
+
+import eu.koboo.minestom.api.module.Module;
+import eu.koboo.minestom.api.module.ModuleManager;
+import eu.koboo.minestom.api.module.annotation.ModuleInfo;
+import eu.koboo.minestom.api.module.scheduler.ModuleSchedulerStats;
+import eu.koboo.minestom.api.module.stats.ModuleResourceStats;
+import eu.koboo.minestom.api.server.Server;
+import net.minestom.server.command.CommandSender;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.arguments.ArgumentType;
+import net.minestom.server.entity.Player;
+
+public class CommandModules extends Command {
+
+    public CommandModules() {
+        super("modules", "module");
+        setCondition((sender, command) ->
+                !(sender instanceof Player) || sender.hasPermission("command.modules"));
+        setDefaultExecutor((sender, context) -> {
+            ModuleManager moduleManager = Server.getInstance().getModuleManager();
+            sender.sendMessage("Current enabled modules (" + moduleManager.getModules().length + "):");
+            for (Module module : moduleManager.getModules()) {
+                ModuleInfo moduleInfo = module.getClass().getAnnotation(ModuleInfo.class);
+                sender.sendMessage(" - " + moduleInfo.name() + " v" + moduleInfo.version() + " by " + String.join(", ", moduleInfo.authors()));
+            }
+            sender.sendMessage("Use /modules stats to view the resource usage of all modules.");
+            sender.sendMessage("Use /modules stats <name> to view the resource usage of a module.");
+        });
+
+        addSubcommand(new CommandModulesStats());
+    }
+
+    private static class CommandModulesStats extends Command {
+
+        public CommandModulesStats() {
+            super("stats");
+            setDefaultExecutor((sender, context) -> {
+                ModuleManager moduleManager = Server.getInstance().getModuleManager();
+                sender.sendMessage("Resource usage of modules (listener calls, listener time, task time, allocated):");
+                for (ModuleResourceStats stats : moduleManager.getResourceStats().values()) {
+                    sender.sendMessage(String.format(" - %s: %d calls, %.2fms, %.2fms, %s",
+                            stats.moduleName(), stats.listenerInvocations(), toMillis(stats.listenerTimeNanos()),
+                            toMillis(stats.taskCpuTimeNanos()), formatBytes(stats.allocatedBytes())));
+                }
+            });
+            addSyntax((sender, context) -> {
+                String name = context.get("name");
+                ModuleManager moduleManager = Server.getInstance().getModuleManager();
+                ModuleResourceStats stats = moduleManager.getResourceStats(name);
+                if (moduleManager.getModule(name) == null || stats == null) {
+                    sender.sendMessage("Module with name " + name + " is not enabled.");
+                    return;
+                }
+                // Read only, a module without tasks doesn't get a scheduler
+                sendStats(sender, stats, moduleManager.getSchedulerStats(name));
+            }, ArgumentType.String("name"));
+        }
+
+        private void sendStats(CommandSender sender, ModuleResourceStats stats, ModuleSchedulerStats schedulerStats) {
+            sender.sendMessage("Module " + stats.moduleName() + " resource usage:");
+            sender.sendMessage(" - Listener calls: " + stats.listenerInvocations());
+            sender.sendMessage(String.format(" - Listener time: %.2fms (max %.2fms)",
+                    toMillis(stats.listenerTimeNanos()), toMillis(stats.maxListenerTimeNanos())));
+            sender.sendMessage(String.format(" - Task time: %.2fms in %d executions",
+                    toMillis(stats.taskCpuTimeNanos()), stats.taskExecutions()));
+            sender.sendMessage(" - Allocated: " + formatBytes(stats.allocatedBytes()));
+            if (schedulerStats == null) {
+                sender.sendMessage(" - Tasks: none scheduled");
+                return;
+            }
+            sender.sendMessage(String.format(" - Tasks: %d scheduled, %d pending, %d completed, %d failed, %d cancelled",
+                    schedulerStats.scheduled(), schedulerStats.pending(), schedulerStats.completed(),
+                    schedulerStats.failed(), schedulerStats.cancelled()));
+            sender.sendMessage(String.format(" - Task latency: %.2fms average, %.2fms max",
+                    schedulerStats.averageLatencyMillis(), schedulerStats.maxLatencyMillis()));
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+
+        private static String formatBytes(long bytes) {
+            if (bytes < 0) {
+                return "n/a";
+            }
+            return String.format("%.2fMB", bytes / (1024.0 * 1024.0));
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package eu.koboo.minestom.commands;
+
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.profiler.TickProfiler;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.arguments.Argument;
+import net.minestom.server.command.builder.arguments.ArgumentType;
+import net.minestom.server.entity.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class CommandProfiler extends Command {
+
+    private static final int DEFAULT_INTERVAL_MILLIS = 5;
+    private static final int DEFAULT_THRESHOLD_MILLIS = 50;
+
+    public CommandProfiler() {
+        super("profiler");
+        setCondition((sender, command) -> !(sender instanceof Player));
+        setDefaultExecutor((sender, context) -> {
+            String status = ServerImpl.getInstance().getTickProfiler().getStatus();
+            sender.sendMessage(status == null ? "The tick profiler is not running." : status);
+            sender.sendMessage("Use profiler start [interval-ms] to sample all ticks.");
+            sender.sendMessage("Use profiler slow <ticks> [threshold-ms] [interval-ms] to capture the next slow ticks.");
+            sender.sendMessage("Use profiler stop to stop and write the profile to logs/.");
+        });
+
+        addSubcommand(new CommandProfilerStart());
+        addSubcommand(new CommandProfilerSlow());
+        addSubcommand(new CommandProfilerStop());
+    }
+
+    private static Argument<Integer> intervalArgument() {
+        Argument<Integer> argument = ArgumentType.Integer("interval-ms").min(1).max(1000);
+        argument.setDefaultValue(DEFAULT_INTERVAL_MILLIS);
+        return argument;
+    }
+
+    private static class CommandProfilerStart extends Command {
+
+        public CommandProfilerStart() {
+            super("start");
+            addSyntax((sender, context) -> {
+                int interval = context.get("interval-ms");
+                if (!ServerImpl.getInstance().getTickProfiler().profile(interval)) {
+                    sender.sendMessage("The tick profiler is already running, stop it first.");
+                    return;
+                }
+                sender.sendMessage("Sampling the tick threads every " + interval + "ms, use profiler stop to write the profile.");
+            }, intervalArgument());
+        }
+    }
+
+    private static class CommandProfilerSlow extends Command {
+
+        public CommandProfilerSlow() {
+            super("slow");
+            setDefaultExecutor((sender, context) -> sender.sendMessage("Usage: profiler slow <ticks> [threshold-ms] [interval-ms]"));
+            Argument<Integer> threshold = ArgumentType.Integer("threshold-ms").min(1);
+            threshold.setDefaultValue(DEFAULT_THRESHOLD_MILLIS);
+            addSyntax((sender, context) -> {
+                int ticks = context.get("ticks");
+                int thresholdMillis = context.get("threshold-ms");
+                int interval = context.get("interval-ms");
+                TickProfiler tickProfiler = ServerImpl.getInstance().getTickProfiler();
+                if (!tickProfiler.captureSlowTicks(interval, ticks, thresholdMillis)) {
+                    sender.sendMessage("The tick profiler is already running, stop it first.");
+                    return;
+                }
+                sender.sendMessage("Capturing the next " + ticks + " ticks above " + thresholdMillis + "ms, "
+                        + "the profile is written to logs/ when they are captured.");
+            }, ArgumentType.Integer("ticks").min(1), threshold, intervalArgument());
+        }
+    }
+
+    private static class CommandProfilerStop extends Command {
+
+        public CommandProfilerStop() {
+            super("stop");
+            setDefaultExecutor((sender, context) -> {
+                TickProfiler tickProfiler = ServerImpl.getInstance().getTickProfiler();
+                if (tickProfiler.getStatus() == null) {
+                    sender.sendMessage("The tick profiler is not running.");
+                    return;
+                }
+                try {
+                    Path file = tickProfiler.stop();
+                    sender.sendMessage(file == null ? "Nothing got sampled." : "Profile written to " + file);
+                } catch (IOException e) {
+                    sender.sendMessage("Couldn't write the profile: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+}
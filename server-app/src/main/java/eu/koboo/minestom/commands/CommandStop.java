@@ -1,6 +1,6 @@
 package eu.koboo.minestom.commands;
 
-import net.minestom.server.MinecraftServer;
+import eu.koboo.minestom.server.ServerImpl;
 import net.minestom.server.command.builder.Command;
 import net.minestom.server.entity.Player;
 
@@ -10,7 +10,7 @@ public class CommandStop extends Command {
         super("stop");
         setCondition((sender, command) ->
             !(sender instanceof Player) || sender.hasPermission("command.stop"));
-        setDefaultExecutor((sender, context) -> MinecraftServer.stopCleanly());
+        setDefaultExecutor((sender, context) -> ServerImpl.getInstance().shutdown());
     }
 
 }
\ No newline at end of file
@@ -4,11 +4,14 @@ import eu.koboo.minestom.api.server.Server;
 import eu.koboo.minestom.api.world.World;
 import eu.koboo.minestom.api.world.dimension.Dimension;
 import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.arguments.Argument;
 import net.minestom.server.command.builder.arguments.ArgumentType;
+import net.minestom.server.command.builder.suggestion.SuggestionEntry;
 import net.minestom.server.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.util.concurrent.CompletableFuture;
 
 public class CommandWorld extends Command {
@@ -44,6 +47,36 @@ public class CommandWorld extends Command {
 
     }
 
+    private static Argument<String> loadedWorldArgument() {
+        return ArgumentType.String("name").setSuggestionCallback((sender, context, suggestion) -> {
+            for (World world : Server.getInstance().getWorldManager().getWorlds()) {
+                suggestion.addEntry(new SuggestionEntry(world.getName()));
+            }
+        });
+    }
+
+    private static Argument<String> unloadedWorldArgument() {
+        return ArgumentType.String("name").setSuggestionCallback((sender, context, suggestion) -> {
+            File[] directories = new File("worlds").listFiles(File::isDirectory);
+            if (directories == null) {
+                return;
+            }
+            for (File directory : directories) {
+                if (Server.getInstance().getWorldManager().getWorld(directory.getName()) == null) {
+                    suggestion.addEntry(new SuggestionEntry(directory.getName()));
+                }
+            }
+        });
+    }
+
+    private static Argument<String> dimensionArgument() {
+        return ArgumentType.String("dimension").setSuggestionCallback((sender, context, suggestion) -> {
+            for (Dimension dimension : Dimension.values()) {
+                suggestion.addEntry(new SuggestionEntry(dimension.name().toLowerCase()));
+            }
+        });
+    }
+
     private static class CommandWorldCreate extends Command {
 
         public CommandWorldCreate() {
@@ -61,7 +94,7 @@ public class CommandWorld extends Command {
                 Dimension dimensionType = Dimension.valueOf(dimension.toUpperCase());
                 World world = Server.getInstance().getWorldManager().createWorld(name, dimensionType);
                 sender.sendMessage("World " + world.getName() + " created.");
-            }, ArgumentType.String("name"), ArgumentType.String("dimension"));
+            }, ArgumentType.String("name"), dimensionArgument());
         }
     }
 
@@ -79,9 +112,11 @@ public class CommandWorld extends Command {
                     sender.sendMessage("World with name " + name + " does not exist.");
                     return;
                 }
-                Server.getInstance().getWorldManager().deleteWorld(world);
-                sender.sendMessage("World " + world.getName() + " deleted.");
-            }, ArgumentType.String("name"));
+                sender.sendMessage("Deleting world " + world.getName() + "...");
+                Server.getInstance().getWorldManager().deleteWorldAsync(world).thenRun(() -> {
+                    sender.sendMessage("World " + world.getName() + " deleted.");
+                });
+            }, loadedWorldArgument());
         }
     }
 
@@ -101,7 +136,7 @@ public class CommandWorld extends Command {
                 }).thenAccept((result) -> {
                     sender.sendMessage("World " + name + " loaded.");
                 });
-            }, ArgumentType.String("name"));
+            }, unloadedWorldArgument());
         }
     }
 
@@ -120,13 +155,10 @@ public class CommandWorld extends Command {
                     return;
                 }
                 sender.sendMessage("Unloading world " + world.getName() + "...");
-                CompletableFuture.supplyAsync(() -> {
-                    Server.getInstance().getWorldManager().unloadWorld(world);
-                    return null;
-                }).thenAccept((result) -> {
+                Server.getInstance().getWorldManager().unloadWorldAsync(world).thenRun(() -> {
                     sender.sendMessage("World " + world.getName() + " unloaded.");
                 });
-            }, ArgumentType.String("name"));
+            }, loadedWorldArgument());
         }
     }
 
@@ -146,7 +178,7 @@ public class CommandWorld extends Command {
                 }).thenAccept((result) -> {
                     sender.sendMessage("World " + name + " saved.");
                 });
-            }, ArgumentType.String("name"));
+            }, loadedWorldArgument());
         }
     }
 
@@ -194,7 +226,7 @@ public class CommandWorld extends Command {
                 }
                 ((Player) sender).setInstance(world.getInstanceContainer(), world.getSpawnPoint());
                 sender.sendMessage("Teleported to world " + world.getName() + "'s spawn.");
-            }, ArgumentType.String("name"));
+            }, loadedWorldArgument());
         }
     }
 
@@ -216,7 +248,7 @@ public class CommandWorld extends Command {
                 for (String key : world.getWorldConfig().getKeys(false)) {
                     sender.sendMessage(" - " + key + ": " + world.getWorldConfig().get(key));
                 }
-            }, ArgumentType.String("name"));
+            }, loadedWorldArgument());
         }
     }
 
@@ -238,7 +270,7 @@ public class CommandWorld extends Command {
                 }
                 world.getWorldConfig().set(key, value);
                 sender.sendMessage("World " + world.getName() + " configuration updated.");
-            }, ArgumentType.String("name"), ArgumentType.String("key"), ArgumentType.String("value"));
+            }, loadedWorldArgument(), ArgumentType.String("key"), ArgumentType.String("value"));
         }
     }
 
@@ -1,8 +1,21 @@
 package eu.koboo.minestom.config;
 
+import eu.koboo.minestom.api.config.BudgetAction;
+import eu.koboo.minestom.api.config.ConsoleConfig;
+import eu.koboo.minestom.api.config.ConsoleExecutor;
+import eu.koboo.minestom.api.config.JoinConfig;
+import eu.koboo.minestom.api.config.AdaptiveViewConfig;
+import eu.koboo.minestom.api.config.LobbyConfig;
+import eu.koboo.minestom.api.config.LobbyRouting;
+import eu.koboo.minestom.api.config.MetricsConfig;
+import eu.koboo.minestom.api.config.ModuleBudget;
+import eu.koboo.minestom.api.config.NetworkConfig;
 import eu.koboo.minestom.api.config.ProxyMode;
 import eu.koboo.minestom.api.config.ServerConfig;
+import eu.koboo.minestom.api.config.ShutdownConfig;
+import eu.koboo.minestom.api.config.SpawnPolicy;
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import net.minestom.server.MinecraftServer;
 import net.minestom.server.entity.GameMode;
@@ -11,8 +24,13 @@ import org.simpleyaml.configuration.file.YamlFile;
 
 public class ConfigLoader {
 
+  public static final String CONFIG_FILE = "server_config.yml";
+
+  private static final int MAX_PACKET_SIZE = 2_097_151;
+  private static final int DEFAULT_COMPRESSION_THRESHOLD = 256;
+
   public static ServerConfig loadConfig() {
-    YamlFile cfg = new YamlFile("server_config.yml");
+    YamlFile cfg = new YamlFile(CONFIG_FILE);
 
     cfg.options().copyDefaults(true);
 
@@ -30,10 +48,56 @@ public class ConfigLoader {
       defaultValue(cfg, "proxy.proxy-mode", ProxyMode.NONE.name(), "Toggle proxy-mode (options: NONE, BUNGEECORD, VELOCITY)");
       defaultValue(cfg, "proxy.velocity-secret", "", "Set your velocity-secret (Do not share that!)");
 
-      defaultValue(cfg, "packets.compression-threshold", "", "Set the compression-threshold of packets (0 disables compression)");
+      defaultValue(cfg, "network.workers", 0, "Set the amount of network worker threads (0 uses the amount of processors)");
+      defaultValue(cfg, "network.socket-send-buffer", 262_143, "Set the send buffer size of every connection in bytes");
+      defaultValue(cfg, "network.socket-receive-buffer", 32_767, "Set the receive buffer size of every connection in bytes");
+      defaultValue(cfg, "network.tcp-no-delay", true, "Toggle TCP_NODELAY, sends packets without waiting to fill up a segment");
+
+      defaultValue(cfg, "packets.rate-limit", 450, "Set the rate-limit of packets/second for the clients (0 disables rate-limit)");
+      defaultValue(cfg, "packets.max-size", MAX_PACKET_SIZE, "Set the max-size of packets from the clients (maximum is 2097151 bytes)");
+      defaultValue(cfg, "packets.compression-threshold", DEFAULT_COMPRESSION_THRESHOLD, "Set the compression-threshold of packets (0 disables compression)");
+      // Older configs were created with an empty threshold, which disabled compression by accident
+      if (cfg.getString("packets.compression-threshold", "").isBlank()) {
+        cfg.set("packets.compression-threshold", DEFAULT_COMPRESSION_THRESHOLD);
+      }
 
       defaultValue(cfg, "view-distance.chunks", 10, "Set the view-distance of chunks (range between 2 and 32)");
       defaultValue(cfg, "view-distance.entities", 10, "Set the view-distance of entities (range between 2 and 32)");
+      defaultValue(cfg, "view-distance.adaptive.enabled", false, "Toggle lowering the view-distance of chunks in crowded worlds, while the ticks take too long");
+      defaultValue(cfg, "view-distance.adaptive.min-chunks", 4, "Set the lowest view-distance of chunks (range between 2 and view-distance.chunks)");
+      defaultValue(cfg, "view-distance.adaptive.lower-above-ms", 40, "Set the average tick time, above which the view-distance gets lowered");
+      defaultValue(cfg, "view-distance.adaptive.raise-below-ms", 25, "Set the average tick time, below which the view-distance gets raised again");
+      defaultValue(cfg, "view-distance.adaptive.raise-after", 3, "Set the checks in a row below raise-below-ms, before the view-distance gets raised");
+
+      defaultValue(cfg, "modules.budget.listener-ms", 0, "Set the listener time per second a module may use (0 disables the limit)");
+      defaultValue(cfg, "modules.budget.task-ms", 0, "Set the task cpu time per second a module may use (0 disables the limit)");
+      defaultValue(cfg, "modules.budget.allocation-mb", 0, "Set the megabytes per second a module may allocate (0 disables the limit)");
+      defaultValue(cfg, "modules.budget.action", BudgetAction.LOG.name(), "Toggle the action if a module exceeds its budget (options: LOG, DISABLE)");
+
+      defaultValue(cfg, "console.executor", ConsoleExecutor.VIRTUAL.name(), "Toggle the thread of console commands (options: VIRTUAL, TICK)");
+      defaultValue(cfg, "console.queue-capacity", 64, "Set the amount of console commands, which can wait for execution");
+      defaultValue(cfg, "console.timings", true, "Toggle the execution time output of console commands");
+
+      defaultValue(cfg, "shutdown.transfer-server", "", "Set the proxy server, players are sent to on shutdown (empty kicks them)");
+      defaultValue(cfg, "shutdown.kick-message", "The server is restarting.", "Set the message for players, who are still online on shutdown");
+      defaultValue(cfg, "shutdown.transfer-timeout", 10, "Set the seconds to wait for players to leave, before they get kicked");
+      defaultValue(cfg, "shutdown.modules-timeout", 10, "Set the seconds to wait for modules to disable");
+      defaultValue(cfg, "shutdown.save-timeout", 60, "Set the seconds to wait for the worlds to be saved");
+      defaultValue(cfg, "shutdown.logs-timeout", 5, "Set the seconds to wait for the log files to be written");
+
+      defaultValue(cfg, "join.policy", SpawnPolicy.DEFAULT.name(), "Toggle the world of joining players (options: DEFAULT, ROUND_ROBIN, LEAST_PLAYERS)");
+      defaultValue(cfg, "join.worlds", List.of(), "Set the worlds, joining players are spread across (the default world is always included)");
+
+      defaultValue(cfg, "lobby.replicas", 1, "Set the amount of replicas of the default world, which always exist (1 disables replicas)");
+      defaultValue(cfg, "lobby.max-replicas", 1, "Set the maximum amount of replicas, which are added while all replicas are full");
+      defaultValue(cfg, "lobby.players-per-replica", 100, "Set the amount of players, after which a replica is full");
+      defaultValue(cfg, "lobby.routing", LobbyRouting.LEAST_PLAYERS.name(), "Toggle the replica of joining players (options: LEAST_PLAYERS, CONSISTENT_HASH)");
+      defaultValue(cfg, "lobby.scale-down-delay", 60, "Set the seconds a replica has to be empty, before it gets removed");
+      defaultValue(cfg, "worlds.chunk-packet-cache", 64, "Set the megabytes of chunk packets, which are shared between worlds of the same template (0 disables the cache)");
+
+      defaultValue(cfg, "metrics.enabled", false, "Toggle the Prometheus metrics endpoint on http://host:port/metrics");
+      defaultValue(cfg, "metrics.host", "127.0.0.1", "Set the host address of the metrics endpoint (keep it local or behind a firewall)");
+      defaultValue(cfg, "metrics.port", 9225, "Set the port of the metrics endpoint");
 
       cfg.save();
 
@@ -46,24 +110,99 @@ public class ConfigLoader {
       ProxyMode proxyMode = ProxyMode.valueOf(cfg.getString("proxy.proxy-mode").toUpperCase(Locale.ROOT));
       String velocitySecret = cfg.getString("proxy.velocity-secret");
 
-      int rateLimit = cfg.getInt("packets.rate-limit");
-      int maxPacketSize = cfg.getInt("packets.max-size");
-      int compressionThreshold = cfg.getInt("packets.compression-threshold");
+      int workers = range(cfg, "network.workers", 0, 1024);
+      NetworkConfig network = new NetworkConfig(
+          workers == 0 ? Runtime.getRuntime().availableProcessors() : workers,
+          range(cfg, "network.socket-send-buffer", 1024, Integer.MAX_VALUE),
+          range(cfg, "network.socket-receive-buffer", 1024, Integer.MAX_VALUE),
+          cfg.getBoolean("network.tcp-no-delay"),
+          range(cfg, "packets.rate-limit", 0, Integer.MAX_VALUE),
+          range(cfg, "packets.max-size", 1, MAX_PACKET_SIZE)
+      );
+      int compressionThreshold = range(cfg, "packets.compression-threshold", 0, MAX_PACKET_SIZE);
+
+      int viewDistanceChunks = range(cfg, "view-distance.chunks", 2, 32);
+      int viewDistanceEntities = range(cfg, "view-distance.entities", 2, 32);
+      int lowerAboveMs = range(cfg, "view-distance.adaptive.lower-above-ms", 2, 1_000);
+      AdaptiveViewConfig adaptiveView = new AdaptiveViewConfig(
+          cfg.getBoolean("view-distance.adaptive.enabled"),
+          range(cfg, "view-distance.adaptive.min-chunks", 2, viewDistanceChunks),
+          lowerAboveMs,
+          range(cfg, "view-distance.adaptive.raise-below-ms", 1, lowerAboveMs - 1),
+          range(cfg, "view-distance.adaptive.raise-after", 1, 100)
+      );
+
+      ModuleBudget moduleBudget = new ModuleBudget(
+          cfg.getLong("modules.budget.listener-ms"),
+          cfg.getLong("modules.budget.task-ms"),
+          cfg.getLong("modules.budget.allocation-mb"),
+          BudgetAction.valueOf(cfg.getString("modules.budget.action").toUpperCase(Locale.ROOT))
+      );
+
+      ConsoleConfig console = new ConsoleConfig(
+          ConsoleExecutor.valueOf(cfg.getString("console.executor").toUpperCase(Locale.ROOT)),
+          Math.max(1, cfg.getInt("console.queue-capacity")),
+          cfg.getBoolean("console.timings")
+      );
+
+      ShutdownConfig shutdown = new ShutdownConfig(
+          cfg.getString("shutdown.transfer-server", "").trim(),
+          cfg.getString("shutdown.kick-message"),
+          range(cfg, "shutdown.transfer-timeout", 0, 600),
+          range(cfg, "shutdown.modules-timeout", 1, 600),
+          range(cfg, "shutdown.save-timeout", 1, 3600),
+          range(cfg, "shutdown.logs-timeout", 0, 600)
+      );
+
+      JoinConfig join = new JoinConfig(
+          SpawnPolicy.valueOf(cfg.getString("join.policy").toUpperCase(Locale.ROOT)),
+          List.copyOf(cfg.getStringList("join.worlds"))
+      );
+
+      int minReplicas = range(cfg, "lobby.replicas", 1, 256);
+      LobbyConfig lobby = new LobbyConfig(
+          minReplicas,
+          range(cfg, "lobby.max-replicas", minReplicas, 256),
+          range(cfg, "lobby.players-per-replica", 1, Integer.MAX_VALUE),
+          LobbyRouting.valueOf(cfg.getString("lobby.routing").toUpperCase(Locale.ROOT)),
+          range(cfg, "lobby.scale-down-delay", 0, 86_400)
+      );
 
-      int viewDistanceChunks = cfg.getInt("view-distance.chunks");
-      int viewDistanceEntities = cfg.getInt("view-distance.entities");
+      int chunkPacketCache = range(cfg, "worlds.chunk-packet-cache", 0, 65_536);
+
+      MetricsConfig metrics = new MetricsConfig(
+          cfg.getBoolean("metrics.enabled"),
+          cfg.getString("metrics.host"),
+          range(cfg, "metrics.port", 1, 65_535)
+      );
 
       return new ServerConfig(
           host, port, onlineMode, difficulty,
           proxyMode, velocitySecret,
-          compressionThreshold,
-          viewDistanceChunks, viewDistanceEntities
+          network, compressionThreshold,
+          viewDistanceChunks, viewDistanceEntities,
+          moduleBudget,
+          console,
+          shutdown,
+          join,
+          lobby,
+          chunkPacketCache,
+          adaptiveView,
+          metrics
       );
     } catch (IOException e) {
       throw new IllegalStateException("Something went wrong, while loading server_config.yml: ", e);
     }
   }
 
+  private static int range(YamlFile yamlFile, String key, int min, int max) {
+    int value = yamlFile.getInt(key);
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(key + " must be between " + min + " and " + max + ", but is " + value);
+    }
+    return value;
+  }
+
   private static void defaultValue(YamlFile yamlFile, String key, Object value, String comment) {
     if(!yamlFile.contains(key)) {
       yamlFile.set(key, value);
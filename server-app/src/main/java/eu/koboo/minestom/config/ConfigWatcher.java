@@ -0,0 +1,219 @@
+package eu.koboo.minestom.config;
+
+import eu.koboo.minestom.api.config.ConsoleConfig;
+import eu.koboo.minestom.api.config.ServerConfig;
+import eu.koboo.minestom.server.ServerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Watches the `server_config.yml` file and applies changed settings while the server is running.
+ * Settings, which are only read on startup, are kept and reported as requiring a restart.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConfigWatcher {
+
+    // Editors often write a file in several steps, so wait until it's settled
+    private static final long SETTLE_MILLIS = 500;
+
+    Path configFile;
+    Thread thread;
+
+    @NonFinal
+    volatile boolean running = true;
+    // Content of the last loaded file, as loading the config saves it again and triggers another event
+    @NonFinal
+    byte[] lastContent;
+
+    public ConfigWatcher() {
+        this.configFile = Path.of(ConfigLoader.CONFIG_FILE).toAbsolutePath();
+        this.thread = Thread.ofVirtual().name("ConfigWatcher").unstarted(this::watch);
+    }
+
+    public void start() {
+        lastContent = readContent();
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            configFile.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (running) {
+                WatchKey key = watchService.take();
+                boolean changed = isConfigEvent(key);
+                if (!key.reset()) {
+                    Logger.warn("Stopped watching " + ConfigLoader.CONFIG_FILE + ", the directory is gone.");
+                    return;
+                }
+                if (!changed) {
+                    continue;
+                }
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                byte[] content = readContent();
+                if (content == null || Arrays.equals(content, lastContent)) {
+                    continue;
+                }
+                reload();
+                lastContent = readContent();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Stopped
+        } catch (IOException e) {
+            Logger.error("Couldn't watch " + ConfigLoader.CONFIG_FILE, e);
+        }
+    }
+
+    private boolean isConfigEvent(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && path.equals(configFile.getFileName())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private byte[] readContent() {
+        try {
+            return Files.readAllBytes(configFile);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            Logger.error("Couldn't read " + ConfigLoader.CONFIG_FILE, e);
+            return null;
+        }
+    }
+
+    /**
+     * Load the file again, apply all live settings and keep the current value of all others.
+     */
+    public void reload() {
+        ServerImpl server = ServerImpl.getInstance();
+        ServerConfig current = server.getServerConfig();
+        ServerConfig loaded;
+        try {
+            loaded = ConfigLoader.loadConfig();
+        } catch (RuntimeException e) {
+            Logger.error("Couldn't reload " + ConfigLoader.CONFIG_FILE + ", keeping the current settings: " + e.getMessage());
+            return;
+        }
+
+        List<String> applied = new ArrayList<>();
+        boolean difficultyChanged = compare(applied, "server.difficulty", current.difficulty(), loaded.difficulty());
+        boolean budgetChanged = compare(applied, "modules.budget", current.moduleBudget(), loaded.moduleBudget());
+        boolean consoleChanged = compare(applied, "console.executor", current.console().executor(), loaded.console().executor());
+        consoleChanged |= compare(applied, "console.timings", current.console().timings(), loaded.console().timings());
+        // The shutdown settings are read when the server stops, so replacing them is enough
+        compare(applied, "shutdown", current.shutdown(), loaded.shutdown());
+        boolean joinChanged = compare(applied, "join", current.join(), loaded.join());
+        boolean lobbyChanged = compare(applied, "lobby", current.lobby(), loaded.lobby());
+        boolean adaptiveViewChanged = compare(applied, "view-distance.adaptive", current.adaptiveView(), loaded.adaptiveView());
+
+        List<String> restartRequired = new ArrayList<>();
+        compare(restartRequired, "server.host", current.host(), loaded.host());
+        compare(restartRequired, "server.port", current.port(), loaded.port());
+        compare(restartRequired, "server.online-mode", current.onlineMode(), loaded.onlineMode());
+        compare(restartRequired, "proxy.proxy-mode", current.proxyMode(), loaded.proxyMode());
+        if (!Objects.equals(current.velocitySecret(), loaded.velocitySecret())) {
+            restartRequired.add("proxy.velocity-secret");
+        }
+        compare(restartRequired, "network.workers", current.network().workers(), loaded.network().workers());
+        compare(restartRequired, "network.socket-send-buffer", current.network().socketSendBuffer(), loaded.network().socketSendBuffer());
+        compare(restartRequired, "network.socket-receive-buffer", current.network().socketReceiveBuffer(), loaded.network().socketReceiveBuffer());
+        compare(restartRequired, "network.tcp-no-delay", current.network().tcpNoDelay(), loaded.network().tcpNoDelay());
+        compare(restartRequired, "packets.rate-limit", current.network().packetRateLimit(), loaded.network().packetRateLimit());
+        compare(restartRequired, "packets.max-size", current.network().maxPacketSize(), loaded.network().maxPacketSize());
+        // Minestom only accepts the compression threshold before the server is started
+        compare(restartRequired, "packets.compression-threshold", current.compressionThreshold(), loaded.compressionThreshold());
+        // View distances are read by Minestom once from system properties
+        compare(restartRequired, "view-distance.chunks", current.chunkViewDistance(), loaded.chunkViewDistance());
+        compare(restartRequired, "view-distance.entities", current.entityViewDistance(), loaded.entityViewDistance());
+        compare(restartRequired, "console.queue-capacity", current.console().queueCapacity(), loaded.console().queueCapacity());
+        compare(restartRequired, "worlds.chunk-packet-cache", current.chunkPacketCache(), loaded.chunkPacketCache());
+        compare(restartRequired, "metrics", current.metrics(), loaded.metrics());
+
+        if (applied.isEmpty() && restartRequired.isEmpty()) {
+            if (ServerImpl.DEBUG) Logger.info(ConfigLoader.CONFIG_FILE + " changed, but no setting differs");
+            return;
+        }
+
+        ServerConfig effective = new ServerConfig(
+                current.host(), current.port(), current.onlineMode(), loaded.difficulty(),
+                current.proxyMode(), current.velocitySecret(),
+                current.network(), current.compressionThreshold(),
+                current.chunkViewDistance(), current.entityViewDistance(),
+                loaded.moduleBudget(),
+                new ConsoleConfig(loaded.console().executor(), current.console().queueCapacity(), loaded.console().timings()),
+                loaded.shutdown(),
+                loaded.join(),
+                loaded.lobby(),
+                current.chunkPacketCache(),
+                loaded.adaptiveView(),
+                current.metrics()
+        );
+        server.setServerConfig(effective);
+
+        if (difficultyChanged) {
+            MinecraftServer.getSchedulerManager().scheduleNextTick(() -> MinecraftServer.setDifficulty(effective.difficulty()));
+        }
+        if (budgetChanged) {
+            server.getResourceWatchdog().setBudget(effective.moduleBudget());
+        }
+        if (consoleChanged) {
+            server.getConsole().getCommandQueue().setConfig(effective.console());
+        }
+        if (joinChanged) {
+            server.getJoinRouter().setConfig(effective.join());
+        }
+        if (lobbyChanged) {
+            server.getWorldManager().getLobbyReplicas().setConfig(effective.lobby());
+        }
+        if (adaptiveViewChanged) {
+            server.getViewDistanceController().setConfig(effective.adaptiveView());
+        }
+
+        for (String change : applied) {
+            Logger.info("Applied config change " + change);
+        }
+        for (String change : restartRequired) {
+            Logger.warn("Config change " + change + " requires a restart");
+        }
+    }
+
+    private static boolean compare(List<String> changes, String key, Object currentValue, Object loadedValue) {
+        if (Objects.equals(currentValue, loadedValue)) {
+            return false;
+        }
+        changes.add(key + ": " + currentValue + " -> " + loadedValue);
+        return true;
+    }
+}
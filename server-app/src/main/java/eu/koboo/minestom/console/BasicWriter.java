@@ -1,22 +1,77 @@
 package eu.koboo.minestom.console;
 
 import eu.koboo.minestom.server.ServerImpl;
-import java.text.SimpleDateFormat;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Map;
-import org.fusesource.jansi.Ansi;
+import java.util.concurrent.ConcurrentHashMap;
 import org.tinylog.Level;
 import org.tinylog.core.LogEntry;
 import org.tinylog.core.LogEntryValue;
 import org.tinylog.writers.Writer;
 
+/**
+ * Console writer with colored output.
+ * Lines are built in thread-local buffers and written to a buffered channel, which gets flushed
+ * by the writing thread after every batch. Set `autoflush = true` if the writing thread is disabled.
+ */
 public class BasicWriter implements Writer {
 
-    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm:ss");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final String RESET = "\u001B[m";
+    private static final String CYAN = "\u001B[36m";
+    private static final String MAGENTA = "\u001B[35m";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final int OUTPUT_BUFFER_SIZE = 16 * 1024;
+
+    // Level prefix and message color, both indexed by the ordinal of the level
+    private static final String[] LEVEL_PREFIXES = new String[Level.values().length];
+    private static final String[] MESSAGE_COLORS = new String[Level.values().length];
+
+    static {
+        for (Level level : Level.values()) {
+            LEVEL_PREFIXES[level.ordinal()] = "\u001B[33m[" + level.name() + "] " + RESET;
+            MESSAGE_COLORS[level.ordinal()] = switch (level) {
+                case WARN -> "\u001B[93m";
+                case ERROR -> "\u001B[31m";
+                case DEBUG -> "\u001B[96m";
+                case TRACE -> "\u001B[94m";
+                default -> "";
+            };
+        }
+    }
+
+    private final Map<String, String> simpleClassNames = new ConcurrentHashMap<>();
+    private final ThreadLocal<LineBuffer> lineBuffers = ThreadLocal.withInitial(LineBuffer::new);
+    private final boolean autoFlush;
+
+    private final OutputStream outputStream;
+    private final WritableByteChannel channel;
+
+    private volatile CachedTime cachedTime = new CachedTime(Long.MIN_VALUE, "");
 
     @SuppressWarnings("unused")
-    public BasicWriter(Map<String, String> properties) { }
+    public BasicWriter(Map<String, String> properties) {
+        this.autoFlush = Boolean.parseBoolean(properties.getOrDefault("autoflush", "false"));
+        this.outputStream = new BufferedOutputStream(System.out, OUTPUT_BUFFER_SIZE);
+        this.channel = Channels.newChannel(outputStream);
+    }
 
     @Override
     public Collection<LogEntryValue> getRequiredLogEntryValues() {
@@ -27,45 +82,110 @@ public class BasicWriter implements Writer {
     }
 
     @Override
-    public void write(LogEntry logEntry) {
-        if (logEntry.getLevel().ordinal() < Level.INFO.ordinal()) {
+    public void write(LogEntry logEntry) throws IOException {
+        Level level = logEntry.getLevel();
+        if (level.ordinal() < Level.INFO.ordinal()) {
             return;
         }
-        String time = TIME_FORMAT.format(logEntry.getTimestamp().toDate());
-        String[] packagePath = logEntry.getClassName().split("\\.");
-        String clazz = packagePath[packagePath.length - 1];
-
-        String message = ConvertColor.parseColor(logEntry.getMessage());
-
-        Ansi ansi = Ansi.ansi();
+        LineBuffer buffer = lineBuffers.get();
+        StringBuilder line = buffer.line;
+        line.setLength(0);
 
-        ansi = ansi.fgCyan().a("[" + time + "] ").reset();
-        ansi = ansi.a("[" + logEntry.getThread().getName() + "] ").reset();
-        ansi = ansi.fgYellow().a("[" + logEntry.getLevel().name() + "] ").reset();
-        ansi = ansi.fgMagenta().a("[" + clazz + "] ").reset();
+        line.append(CYAN).append('[').append(formatTime(logEntry.getTimestamp().toInstant())).append("] ").append(RESET);
+        line.append('[').append(logEntry.getThread().getName()).append("] ").append(RESET);
+        line.append(LEVEL_PREFIXES[level.ordinal()]);
+        line.append(MAGENTA).append('[').append(simpleClassName(logEntry.getClassName())).append("] ").append(RESET);
+        line.append(MESSAGE_COLORS[level.ordinal()]);
+        ConvertColor.appendColored(line, logEntry.getMessage());
+        line.append(RESET).append(LINE_SEPARATOR);
 
-        switch (logEntry.getLevel()) {
-            case INFO, OFF -> ansi = ansi.a(message).reset();
-            case WARN -> ansi = ansi.fgBrightYellow().a(message).reset();
-            case ERROR -> ansi = ansi.fgRed().a(message).reset();
-            case DEBUG -> ansi = ansi.fgBrightCyan().a(message).reset();
-            case TRACE -> ansi = ansi.fgBrightBlue().a(message).reset();
+        ByteBuffer bytes = buffer.encode();
+        synchronized (outputStream) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (autoFlush) {
+                outputStream.flush();
+            }
         }
-
-        System.out.println(ansi);
     }
 
     @Override
-    public void flush() {
-        System.out.flush();
+    public void flush() throws IOException {
+        synchronized (outputStream) {
+            outputStream.flush();
+        }
     }
 
     @Override
-    public void close() {
+    public void close() throws IOException {
+        flush();
         if(ServerImpl.getInstance().getConsole() == null) {
             return;
         }
         ServerImpl.getInstance().getConsole().stop();
     }
 
+    private String formatTime(Instant instant) {
+        long epochSecond = instant.getEpochSecond();
+        CachedTime current = cachedTime;
+        if (current.epochSecond() != epochSecond) {
+            current = new CachedTime(epochSecond, TIME_FORMAT.format(instant));
+            cachedTime = current;
+        }
+        return current.formatted();
+    }
+
+    private String simpleClassName(String className) {
+        if (className == null) {
+            return "";
+        }
+        String simpleName = simpleClassNames.get(className);
+        if (simpleName == null) {
+            simpleName = className.substring(className.lastIndexOf('.') + 1);
+            simpleClassNames.put(className, simpleName);
+        }
+        return simpleName;
+    }
+
+    private record CachedTime(long epochSecond, String formatted) {
+    }
+
+    private static class LineBuffer {
+
+        private final StringBuilder line = new StringBuilder(INITIAL_BUFFER_SIZE);
+        private final CharsetEncoder encoder = System.out.charset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BUFFER_SIZE * 2);
+
+        private ByteBuffer encode() {
+            CharBuffer chars = CharBuffer.wrap(line);
+            bytes.clear();
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, true);
+                if (result.isOverflow()) {
+                    grow();
+                    continue;
+                }
+                result = encoder.flush(bytes);
+                if (result.isOverflow()) {
+                    grow();
+                    continue;
+                }
+                break;
+            }
+            bytes.flip();
+            return bytes;
+        }
+
+        private void grow() {
+            ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+            bytes.flip();
+            larger.put(bytes);
+            bytes = larger;
+        }
+    }
+
 }
@@ -0,0 +1,254 @@
+package eu.koboo.minestom.console;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.CommandContext;
+import net.minestom.server.command.builder.CommandSyntax;
+import net.minestom.server.command.builder.arguments.Argument;
+import net.minestom.server.command.builder.arguments.ArgumentEnum;
+import net.minestom.server.command.builder.arguments.ArgumentLiteral;
+import net.minestom.server.command.builder.arguments.ArgumentWord;
+import net.minestom.server.command.builder.suggestion.Suggestion;
+import net.minestom.server.command.builder.suggestion.SuggestionCallback;
+import net.minestom.server.command.builder.suggestion.SuggestionEntry;
+import org.jline.reader.Candidate;
+import org.jline.reader.Completer;
+import org.jline.reader.LineReader;
+import org.jline.reader.ParsedLine;
+import org.tinylog.Logger;
+
+/**
+ * Tab-completion of the console, built from the command graph of Minestom.
+ * Every command becomes a tree of nodes, where subcommands, literals and enum entries are stored in prefix tries
+ * and all other arguments ask their suggestion callback.
+ * Commands get added and removed one by one, as soon as they show up in or disappear from the dispatcher.
+ * <p>
+ * The dispatcher is only compared with the built commands after {@link #commandsChanged()} got called,
+ * e.g. after the commands were registered or a module got enabled or disabled, or if a typed command is unknown.
+ * Tab presses otherwise neither read the dispatcher nor rebuild anything.
+ */
+public class CommandCompleter implements Completer {
+
+    private final PrefixTrie<CompletionNode> rootCommands = new PrefixTrie<>();
+    private final Map<Command, CompletionNode> builtCommands = new IdentityHashMap<>();
+
+    // Set when commands might have been registered or unregistered, shared by all consoles
+    private static volatile boolean dirty = true;
+
+    /**
+     * Let the next completion compare the registered commands with the built ones.
+     */
+    public static void commandsChanged() {
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void complete(LineReader reader, ParsedLine line, List<Candidate> candidates) {
+        if (dirty) {
+            refresh();
+        }
+        String current = line.word().substring(0, line.wordCursor());
+        if (line.wordIndex() == 0) {
+            int found = candidates.size();
+            rootCommands.collect(current, (name, node) -> candidates.add(new Candidate(name)));
+            if (candidates.size() == found && refresh()) {
+                // Registered without a notification
+                rootCommands.collect(current, (name, node) -> candidates.add(new Candidate(name)));
+            }
+            return;
+        }
+        List<String> words = line.words();
+        CompletionNode node = rootCommands.get(words.get(0));
+        if (node == null && refresh()) {
+            node = rootCommands.get(words.get(0));
+        }
+        for (int i = 1; i < line.wordIndex() && node != null; i++) {
+            node = node.next(words.get(i));
+        }
+        if (node == null) {
+            return;
+        }
+        node.complete(line.line().substring(0, line.cursor()), current, candidates);
+    }
+
+    /**
+     * Drop the tree of the command, so it gets built again on the next completion.
+     * Needed if subcommands or syntaxes are added after the command was registered.
+     */
+    public synchronized void invalidate(Command command) {
+        CompletionNode node = builtCommands.remove(command);
+        if (node != null) {
+            removeNames(command, node);
+        }
+    }
+
+    /**
+     * @return true if commands got added or removed
+     */
+    private boolean refresh() {
+        dirty = false;
+        Set<Command> commands = MinecraftServer.getCommandManager().getDispatcher().getCommands();
+        if (commands.size() == builtCommands.size() && builtCommands.keySet().containsAll(commands)) {
+            return false;
+        }
+        List<Command> removed = new ArrayList<>();
+        for (Command command : builtCommands.keySet()) {
+            if (!commands.contains(command)) {
+                removed.add(command);
+            }
+        }
+        for (Command command : removed) {
+            invalidate(command);
+        }
+        for (Command command : commands) {
+            if (builtCommands.containsKey(command)) {
+                continue;
+            }
+            CompletionNode node = build(command);
+            builtCommands.put(command, node);
+            for (String name : names(command)) {
+                rootCommands.put(name, node);
+            }
+        }
+        return true;
+    }
+
+    private void removeNames(Command command, CompletionNode node) {
+        for (String name : names(command)) {
+            // Another command might have taken over the alias
+            if (rootCommands.get(name) == node) {
+                rootCommands.remove(name);
+            }
+        }
+    }
+
+    private static CompletionNode build(Command command) {
+        CompletionNode node = new CompletionNode();
+        for (Command subcommand : command.getSubcommands()) {
+            CompletionNode subNode = build(subcommand);
+            for (String name : names(subcommand)) {
+                node.literals.put(name, subNode);
+            }
+        }
+        for (CommandSyntax syntax : command.getSyntaxes()) {
+            CompletionNode current = node;
+            for (Argument<?> argument : syntax.getArguments()) {
+                current = current.child(argument);
+            }
+        }
+        return node;
+    }
+
+    private static List<String> names(Command command) {
+        List<String> names = new ArrayList<>();
+        names.add(command.getName());
+        String[] aliases = command.getAliases();
+        if (aliases != null) {
+            for (String alias : aliases) {
+                if (alias != null) {
+                    names.add(alias);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return the fixed values of the argument or null, if the argument takes any input
+     */
+    private static Collection<String> literals(Argument<?> argument) {
+        if (argument instanceof ArgumentLiteral) {
+            return List.of(argument.getId());
+        }
+        if (argument instanceof ArgumentEnum<?> argumentEnum) {
+            return argumentEnum.entries();
+        }
+        if (argument instanceof ArgumentWord argumentWord && argumentWord.hasRestrictions()) {
+            return List.of(argumentWord.getRestrictions());
+        }
+        return null;
+    }
+
+    private static class CompletionNode {
+
+        private final PrefixTrie<CompletionNode> literals = new PrefixTrie<>();
+        private final List<ArgumentEdge> arguments = new ArrayList<>();
+
+        private CompletionNode next(String word) {
+            CompletionNode node = literals.get(word);
+            if (node != null) {
+                return node;
+            }
+            return arguments.isEmpty() ? null : arguments.get(0).node();
+        }
+
+        /**
+         * Get the node after the argument and merge it with the nodes of other syntaxes, which share this argument.
+         */
+        private CompletionNode child(Argument<?> argument) {
+            Collection<String> values = literals(argument);
+            if (values != null) {
+                CompletionNode shared = null;
+                for (String value : values) {
+                    shared = literals.get(value);
+                    if (shared != null) {
+                        break;
+                    }
+                }
+                if (shared == null) {
+                    shared = new CompletionNode();
+                }
+                for (String value : values) {
+                    literals.put(value, shared);
+                }
+                return shared;
+            }
+            for (ArgumentEdge edge : arguments) {
+                if (edge.argument().getId().equals(argument.getId())) {
+                    return edge.node();
+                }
+            }
+            ArgumentEdge edge = new ArgumentEdge(argument, new CompletionNode());
+            arguments.add(edge);
+            return edge.node();
+        }
+
+        private void complete(String input, String prefix, List<Candidate> candidates) {
+            literals.collect(prefix, (name, node) -> candidates.add(new Candidate(name)));
+            for (ArgumentEdge edge : arguments) {
+                edge.suggest(input, prefix, candidates);
+            }
+        }
+    }
+
+    private record ArgumentEdge(Argument<?> argument, CompletionNode node) {
+
+        private void suggest(String input, String prefix, List<Candidate> candidates) {
+            SuggestionCallback callback = argument.getSuggestionCallback();
+            if (callback == null) {
+                return;
+            }
+            Suggestion suggestion = new Suggestion(input, input.length() - prefix.length() + 1, prefix.length());
+            try {
+                callback.apply(MinecraftServer.getCommandManager().getConsoleSender(), new CommandContext(input), suggestion);
+            } catch (Exception e) {
+                Logger.warn("Suggestions of argument " + argument.getId() + " failed: " + e.getMessage());
+                return;
+            }
+            String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+            for (SuggestionEntry entry : suggestion.getEntries()) {
+                String value = entry.getEntry();
+                if (value.toLowerCase(Locale.ROOT).startsWith(lowerPrefix)) {
+                    candidates.add(new Candidate(value));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package eu.koboo.minestom.console;
+
+import eu.koboo.minestom.api.config.ConsoleConfig;
+import eu.koboo.minestom.api.config.ConsoleExecutor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.kyori.adventure.text.Component;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.adventure.audience.Audiences;
+import net.minestom.server.command.builder.CommandResult;
+import org.tinylog.Logger;
+
+/**
+ * Executes the commands of the console, so the reader thread never waits for a command.
+ * Commands are queued and executed one after another, either on the tick thread or on a virtual thread.
+ * A command ending with `&` runs as background job instead, next to the queue.
+ */
+public class CommandQueue {
+
+    private static final String BACKGROUND_SUFFIX = "&";
+
+    private volatile ConsoleConfig config;
+    private final BlockingQueue<String> queue;
+    private final Thread dispatcher;
+    private final ExecutorService jobExecutor;
+    private final Map<Integer, ConsoleJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger jobIds = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    public CommandQueue(ConsoleConfig config) {
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.queueCapacity());
+        this.dispatcher = Thread.ofVirtual().name("ConsoleCommands").unstarted(this::dispatchLoop);
+        this.jobExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ConsoleJob-", 1).factory());
+    }
+
+    public void start() {
+        dispatcher.start();
+    }
+
+    /**
+     * Replace the executor and timings setting, the capacity of the queue can't be changed at runtime.
+     */
+    public void setConfig(ConsoleConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Queue the command or start it as background job, if it ends with `&`.
+     * @param line  the command without leading slash
+     * @return false if the queue is full and the command got rejected
+     */
+    public boolean submit(String line) {
+        String command = line.trim();
+        if (command.isEmpty()) {
+            return true;
+        }
+        if (command.endsWith(BACKGROUND_SUFFIX)) {
+            command = command.substring(0, command.length() - BACKGROUND_SUFFIX.length()).trim();
+            if (!command.isEmpty()) {
+                ConsoleJob job = startJob(command);
+                Logger.info("Started job #" + job.id() + ": " + command);
+            }
+            return true;
+        }
+        if (!queue.offer(command)) {
+            Logger.warn("Console command queue is full (" + config.queueCapacity() + "), rejected: " + command);
+            return false;
+        }
+        return true;
+    }
+
+    public ConsoleJob startJob(String command) {
+        int id = jobIds.incrementAndGet();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                execute(command);
+            } finally {
+                jobs.remove(id);
+            }
+        }, null);
+        ConsoleJob job = new ConsoleJob(id, command, System.nanoTime(), task);
+        // Registered before it's started, so a fast job can't finish before it's known
+        jobs.put(id, job);
+        jobExecutor.execute(task);
+        return job;
+    }
+
+    /**
+     * @return all running jobs, ordered by id
+     */
+    public List<ConsoleJob> getJobs() {
+        List<ConsoleJob> running = new ArrayList<>(jobs.values());
+        running.sort(Comparator.comparingInt(ConsoleJob::id));
+        return running;
+    }
+
+    /**
+     * Interrupt the job. Commands, which don't react to interrupts, keep running until they are finished.
+     * @return false if there is no running job with this id
+     */
+    public boolean cancel(int id) {
+        ConsoleJob job = jobs.remove(id);
+        if (job == null) {
+            return false;
+        }
+        job.future().cancel(true);
+        return true;
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        for (ConsoleJob job : jobs.values()) {
+            job.future().cancel(true);
+        }
+        jobExecutor.shutdownNow();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            String command;
+            try {
+                command = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (config.executor() == ConsoleExecutor.TICK) {
+                    executeOnTick(command);
+                } else {
+                    execute(command);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                Logger.error("Console command '" + command + "' failed", e);
+            }
+        }
+    }
+
+    private void executeOnTick(String command) throws InterruptedException, ExecutionException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        MinecraftServer.getSchedulerManager().scheduleNextTick(() -> {
+            try {
+                execute(command);
+                done.complete(null);
+            } catch (Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+        });
+        // Keeps the order of the queue, the next command starts after this one is finished
+        done.get();
+    }
+
+    private void execute(String command) {
+        long startTime = System.nanoTime();
+        CommandResult result = MinecraftServer.getCommandManager()
+                .execute(MinecraftServer.getCommandManager().getConsoleSender(), command);
+        double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+        switch (result.getType()) {
+            case CANCELLED -> Audiences.console().sendMessage(Component.text("The command '" + command + "' got cancelled."));
+            case UNKNOWN -> Audiences.console().sendMessage(Component.text("The command '" + command + "' is unknown."));
+            default -> {
+                if (config.timings()) {
+                    Logger.info("Executed '" + command + "' in " + String.format("%.2fms", timeInMillis) + " on " + Thread.currentThread().getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param id         id to cancel the job
+     * @param command    the executed command
+     * @param startNanos start of the job in {@link System#nanoTime()}
+     * @param future     future of the running command
+     */
+    public record ConsoleJob(int id, String command, long startNanos, Future<?> future) {
+
+        public double getRuntimeMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000.0;
+        }
+    }
+}
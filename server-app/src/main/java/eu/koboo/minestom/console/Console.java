@@ -1,17 +1,8 @@
 package eu.koboo.minestom.console;
 
+import eu.koboo.minestom.api.config.ConsoleConfig;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-import net.kyori.adventure.text.Component;
 import net.minestom.server.MinecraftServer;
-import net.minestom.server.adventure.audience.Audiences;
-import net.minestom.server.command.builder.Command;
-import net.minestom.server.command.builder.CommandResult;
-import net.minestom.server.command.builder.CommandResult.Type;
-import org.jline.reader.Candidate;
 import org.jline.reader.EndOfFileException;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReader.Option;
@@ -27,8 +18,11 @@ public class Console {
     private final Thread consoleThread;
     private final Terminal terminal;
     private final LineReader lineReader;
+    private final CommandQueue commandQueue;
+
+    public Console(ConsoleConfig config) {
+        commandQueue = new CommandQueue(config);
 
-    public Console() {
         try {
             terminal = TerminalBuilder.builder()
                     .system(true)
@@ -41,26 +35,7 @@ public class Console {
         lineReader = LineReaderBuilder.builder()
                 .terminal(terminal)
                 .appName(CONSOLE_NAME)
-                .completer((reader, line, candidates) -> {
-                    Set<Command> commands = new HashSet<>(
-                            MinecraftServer.getCommandManager().getDispatcher().getCommands());
-
-                    commands.removeIf(command -> !line.line().contains(command.getName()) || Arrays.stream(
-                                    command.getAliases()).filter(Objects::nonNull)
-                            .noneMatch(alias -> line.line().contains(alias)));
-
-                    for (Command command : commands) {
-                        candidates.add(new Candidate(command.getName()));
-                        for (String alias : command.getAliases()) {
-                            if (alias == null) {
-                                continue;
-                            }
-                            if (line.line().contains(alias)) {
-                                candidates.add(new Candidate(alias));
-                            }
-                        }
-                    }
-                })
+                .completer(new CommandCompleter())
                 .build();
         lineReader.setOpt(Option.DISABLE_EVENT_EXPANSION);
         lineReader.unsetOpt(Option.INSERT_TAB);
@@ -74,19 +49,7 @@ public class Console {
                     } catch (EndOfFileException eofe) {
                         continue;
                     }
-                    String cmd = line.trim();
-                    if (!cmd.isEmpty()) {
-                        CommandResult result = MinecraftServer.getCommandManager()
-                                .execute(MinecraftServer.getCommandManager().getConsoleSender(), cmd);
-                        if(result.getType() != Type.SUCCESS || result.getType() != Type.INVALID_SYNTAX) {
-                            if(result.getType() == Type.CANCELLED) {
-                                Audiences.console().sendMessage(Component.text("The command '" + cmd + "' got cancelled."));
-                            }
-                            if(result.getType() == Type.UNKNOWN) {
-                                Audiences.console().sendMessage(Component.text("The command '" + cmd + "' is unknown."));
-                            }
-                        }
-                    }
+                    commandQueue.submit(line);
                 }
             } catch (UserInterruptException e) {
                 System.exit(99);
@@ -103,14 +66,20 @@ public class Console {
     }
 
     public void start() {
+        commandQueue.start();
         consoleThread.start();
     }
 
+    public CommandQueue getCommandQueue() {
+        return commandQueue;
+    }
+
     public void stop() {
         if(consoleThread.isInterrupted()) {
             return;
         }
         consoleThread.interrupt();
+        commandQueue.stop();
     }
 
 }
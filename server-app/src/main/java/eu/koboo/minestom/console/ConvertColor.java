@@ -20,6 +20,15 @@ public enum ConvertColor {
     LIGHT_YELLOW("\u001B[93m", "e"),
     WHITE("\u001B[37m", "f");
 
+    // Color by code character, so a message gets translated in a single pass
+    private static final String[] ANSI_BY_CODE = new String[128];
+
+    static {
+        for (ConvertColor convertColor : values()) {
+            ANSI_BY_CODE[convertColor.code.charAt(0)] = convertColor.ansiColor;
+        }
+    }
+
     private final String ansiColor;
     private final String code;
 
@@ -40,16 +49,47 @@ public enum ConvertColor {
         return "§" + code;
     }
 
-    private static String replaceColor(ConvertColor color, String message, String replacement) {
-        message = message.contains(color.getWithAmp()) ? message.replaceAll(color.getWithAmp(), replacement) : message;
-        return message.contains(color.getWithParagraph()) ? message.replaceAll(color.getWithParagraph(), replacement) : message;
+    public static String parseColor(String message) {
+        if (message == null || indexOfColor(message, 0) < 0) {
+            return message;
+        }
+        StringBuilder builder = new StringBuilder(message.length() + 16);
+        appendColored(builder, message);
+        return builder.toString();
     }
 
-    public static String parseColor(String message) {
-        for(ConvertColor convertColor : values()) {
-            message = replaceColor(convertColor, message, convertColor.getAnsiColor());
+    /**
+     * Append the message to the builder and translate all `&x` and `§x` color codes on the way.
+     */
+    public static void appendColored(StringBuilder builder, String message) {
+        if (message == null) {
+            builder.append((String) null);
+            return;
+        }
+        int start = 0;
+        int index = indexOfColor(message, 0);
+        while (index >= 0) {
+            builder.append(message, start, index);
+            builder.append(ANSI_BY_CODE[message.charAt(index + 1)]);
+            start = index + 2;
+            index = indexOfColor(message, start);
+        }
+        builder.append(message, start, message.length());
+    }
+
+    private static int indexOfColor(String message, int from) {
+        int last = message.length() - 1;
+        for (int i = from; i < last; i++) {
+            char c = message.charAt(i);
+            if (c != '&' && c != '§') {
+                continue;
+            }
+            char code = message.charAt(i + 1);
+            if (code < ANSI_BY_CODE.length && ANSI_BY_CODE[code] != null) {
+                return i;
+            }
         }
-        return message;
+        return -1;
     }
 
 }
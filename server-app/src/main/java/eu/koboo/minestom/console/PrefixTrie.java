@@ -0,0 +1,127 @@
+package eu.koboo.minestom.console;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Case-insensitive prefix tree, which keeps the original spelling of every key.
+ * Lookups and prefix walks only touch the characters of the given key,
+ * independent of how many keys are stored.
+ */
+public class PrefixTrie<V> {
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * @return the previous value of the key or null
+     */
+    public V put(String key, V value) {
+        Node<V> node = root;
+        String lowerKey = key.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lowerKey.length(); i++) {
+            node = node.childOrCreate(lowerKey.charAt(i));
+        }
+        V previous = node.value;
+        if (node.key == null) {
+            size++;
+        }
+        node.key = key;
+        node.value = value;
+        return previous;
+    }
+
+    public V get(String key) {
+        Node<V> node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @return the removed value of the key or null
+     */
+    public V remove(String key) {
+        V removed = remove(root, key.toLowerCase(Locale.ROOT), 0);
+        if (removed != null) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Pass every key starting with the prefix to the consumer, in alphabetical order.
+     */
+    public void collect(String prefix, BiConsumer<String, V> consumer) {
+        Node<V> node = find(prefix);
+        if (node != null) {
+            collect(node, consumer);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Node<V> find(String key) {
+        Node<V> node = root;
+        String lowerKey = key.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lowerKey.length() && node != null; i++) {
+            node = node.child(lowerKey.charAt(i));
+        }
+        return node;
+    }
+
+    private V remove(Node<V> node, String key, int index) {
+        if (index == key.length()) {
+            if (node.key == null) {
+                return null;
+            }
+            V removed = node.value;
+            node.key = null;
+            node.value = null;
+            return removed;
+        }
+        char c = key.charAt(index);
+        Node<V> child = node.child(c);
+        if (child == null) {
+            return null;
+        }
+        V removed = remove(child, key, index + 1);
+        // Prune branches without any keys left
+        if (child.key == null && (child.children == null || child.children.isEmpty())) {
+            node.children.remove(c);
+        }
+        return removed;
+    }
+
+    private void collect(Node<V> node, BiConsumer<String, V> consumer) {
+        if (node.key != null) {
+            consumer.accept(node.key, node.value);
+        }
+        if (node.children == null) {
+            return;
+        }
+        for (Node<V> child : node.children.values()) {
+            collect(child, consumer);
+        }
+    }
+
+    private static class Node<V> {
+
+        private Map<Character, Node<V>> children;
+        private String key;
+        private V value;
+
+        private Node<V> child(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        private Node<V> childOrCreate(char c) {
+            if (children == null) {
+                children = new TreeMap<>();
+            }
+            return children.computeIfAbsent(c, ignored -> new Node<>());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package eu.koboo.minestom.console;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.tinylog.Level;
+import org.tinylog.configuration.ServiceLoader;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.writers.Writer;
+
+/**
+ * Asynchronous writer, which puts log entries into a lock-free ring buffer and hands them
+ * to its target writers on a single background thread in batches.
+ * Logging threads never take a lock and, unless the overflow policy is `block`, never wait.
+ * <p>
+ * Properties:
+ * <ul>
+ *     <li>`capacity` - size of the ring buffer, rounded up to a power of two (default 8192)</li>
+ *     <li>`batch` - maximum entries written before the targets get flushed (default 256)</li>
+ *     <li>`overflow` - `block`, `drop-debug` or `sample` (default drop-debug)</li>
+ *     <li>`sample` - keep every n-th entry below WARN while the buffer is above the high watermark (default 10)</li>
+ *     <li>`targets` - comma separated names of the target writers</li>
+ *     <li>`[target].type` - writer name of the target, like `basic` or `rolling file`</li>
+ *     <li>`[target].level` - minimum level of the target</li>
+ *     <li>`[target].*` - all other properties are passed to the target writer</li>
+ * </ul>
+ * The writing thread of tinylog should be disabled, this writer already has its own.
+ */
+public class RingBufferWriter implements Writer {
+
+    private static final List<RingBufferWriter> WRITERS = new CopyOnWriteArrayList<>();
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final MpscRingBuffer<LogEntry> buffer;
+    private final int batchSize;
+    private final int highWatermark;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final List<Target> targets;
+    private final Thread consumer;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    @SuppressWarnings("unused")
+    public RingBufferWriter(Map<String, String> properties) {
+        this.buffer = new MpscRingBuffer<>(parseInt(properties, "capacity", 8192));
+        this.batchSize = Math.max(1, parseInt(properties, "batch", 256));
+        this.highWatermark = buffer.capacity() - buffer.capacity() / 4;
+        this.overflowPolicy = OverflowPolicy.parse(properties.getOrDefault("overflow", "drop-debug"));
+        this.sampleRate = Math.max(1, parseInt(properties, "sample", 10));
+        this.targets = createTargets(properties);
+
+        this.consumer = new Thread(this::drainLoop, "LogWriter");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+        WRITERS.add(this);
+    }
+
+    /**
+     * @return the summed counters of all ring buffer writers
+     */
+    public static Stats getStats() {
+        long queued = 0;
+        long written = 0;
+        long dropped = 0;
+        int pending = 0;
+        int capacity = 0;
+        for (RingBufferWriter writer : WRITERS) {
+            queued += writer.queued.sum();
+            written += writer.written.sum();
+            dropped += writer.dropped.sum();
+            pending += writer.buffer.size();
+            capacity += writer.buffer.capacity();
+        }
+        return new Stats(queued, written, dropped, pending, capacity);
+    }
+
+    /**
+     * Wait until all ring buffer writers have written and flushed the queued entries.
+     * @param timeoutMillis  maximum time to wait
+     * @return false if entries are still pending after the timeout
+     */
+    public static boolean awaitDrained(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            boolean drained = true;
+            for (RingBufferWriter writer : WRITERS) {
+                // Written is counted after the batch got flushed
+                if (writer.written.sum() < writer.queued.sum()) {
+                    drained = false;
+                    LockSupport.unpark(writer.consumer);
+                }
+            }
+            if (drained) {
+                return true;
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public Collection<LogEntryValue> getRequiredLogEntryValues() {
+        EnumSet<LogEntryValue> values = EnumSet.of(LogEntryValue.LEVEL);
+        for (Target target : targets) {
+            values.addAll(target.writer().getRequiredLogEntryValues());
+        }
+        return values;
+    }
+
+    @Override
+    public void write(LogEntry logEntry) {
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        if (!accept(logEntry.getLevel()) || !enqueue(logEntry)) {
+            dropped.increment();
+            return;
+        }
+        queued.increment();
+        if (idle) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @Override
+    public void flush() {
+        // The consumer flushes the targets after every batch
+    }
+
+    @Override
+    public void close() throws Exception {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(CLOSE_TIMEOUT_MILLIS);
+        WRITERS.remove(this);
+        for (Target target : targets) {
+            target.writer().close();
+        }
+    }
+
+    private boolean accept(Level level) {
+        if (overflowPolicy == OverflowPolicy.BLOCK || level.ordinal() >= Level.WARN.ordinal()) {
+            return true;
+        }
+        if (buffer.size() < highWatermark) {
+            return true;
+        }
+        return switch (overflowPolicy) {
+            case DROP_DEBUG -> level.ordinal() >= Level.INFO.ordinal();
+            case SAMPLE -> sampleCounter.incrementAndGet() % sampleRate == 0;
+            default -> true;
+        };
+    }
+
+    private boolean enqueue(LogEntry logEntry) {
+        if (buffer.offer(logEntry)) {
+            return true;
+        }
+        if (overflowPolicy != OverflowPolicy.BLOCK) {
+            return false;
+        }
+        while (running) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(logEntry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drainBatch() > 0) {
+                continue;
+            }
+            idle = true;
+            // Re-check after publishing the idle flag, so no wake-up gets lost
+            if (buffer.size() == 0 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+        while (drainBatch() > 0) {
+            // Write everything that was queued before closing
+        }
+    }
+
+    private int drainBatch() {
+        int count = 0;
+        LogEntry logEntry;
+        while (count < batchSize && (logEntry = buffer.poll()) != null) {
+            for (Target target : targets) {
+                target.write(logEntry);
+            }
+            count++;
+        }
+        if (count > 0) {
+            written.add(count);
+            for (Target target : targets) {
+                target.flush();
+            }
+        }
+        return count;
+    }
+
+    private static List<Target> createTargets(Map<String, String> properties) {
+        String names = properties.get("targets");
+        if (names == null || names.isBlank()) {
+            throw new IllegalArgumentException("No targets defined for ring buffer writer");
+        }
+        List<Target> targets = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String prefix = name + ".";
+            Map<String, String> targetProperties = new HashMap<>();
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    targetProperties.put(entry.getKey().substring(prefix.length()), entry.getValue());
+                }
+            }
+            String type = targetProperties.remove("type");
+            if (type == null) {
+                throw new IllegalArgumentException("No type defined for ring buffer target \"" + name + "\"");
+            }
+            String levelName = targetProperties.remove("level");
+            Level level = levelName == null ? Level.TRACE : Level.valueOf(levelName.trim().toUpperCase(Locale.ROOT));
+            // Only the consumer thread calls the target, so it doesn't need to synchronize itself
+            targetProperties.put("writingthread", "true");
+            targets.add(new Target(name, level, createWriter(type.trim(), targetProperties)));
+        }
+        return List.copyOf(targets);
+    }
+
+    private static Writer createWriter(String type, Map<String, String> properties) {
+        // Same lookup tinylog uses for "writer = ...", so every registered writer can be a target
+        Writer writer = new ServiceLoader<Writer>(Writer.class, Map.class).create(type, properties);
+        if (writer == null || writer instanceof RingBufferWriter) {
+            throw new IllegalArgumentException("Unknown writer \"" + type + "\"");
+        }
+        return writer;
+    }
+
+    private static int parseInt(Map<String, String> properties, String key, int defaultValue) {
+        String value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for \"" + key + "\": " + value, e);
+        }
+    }
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP_DEBUG,
+        SAMPLE;
+
+        private static OverflowPolicy parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /**
+     * @param queued  entries put into the ring buffer
+     * @param written entries handed to the targets
+     * @param dropped entries lost to the overflow policy or after closing
+     * @param pending entries waiting in the ring buffer
+     * @param capacity capacity of the ring buffer
+     */
+    public record Stats(long queued, long written, long dropped, int pending, int capacity) {
+    }
+
+    private record Target(String name, Level level, Writer writer) {
+
+        private void write(LogEntry logEntry) {
+            if (logEntry.getLevel().ordinal() < level.ordinal()) {
+                return;
+            }
+            try {
+                writer.write(logEntry);
+            } catch (Exception e) {
+                System.err.println("Couldn't write log entry to \"" + name + "\": " + e);
+            }
+        }
+
+        private void flush() {
+            try {
+                writer.flush();
+            } catch (Exception e) {
+                System.err.println("Couldn't flush \"" + name + "\": " + e);
+            }
+        }
+    }
+}
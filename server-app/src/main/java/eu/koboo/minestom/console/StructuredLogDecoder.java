@@ -0,0 +1,141 @@
+package eu.koboo.minestom.console;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.tinylog.Level;
+
+/**
+ * Converts binary logs of the {@link StructuredWriter} into JSON lines.
+ * <p>
+ * Usage: {@code java -cp server.jar eu.koboo.minestom.console.StructuredLogDecoder <input.bin> [output.jsonl]}
+ * <br>Without an output file, the lines are printed to stdout.
+ */
+public class StructuredLogDecoder {
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final DataInputStream input;
+    private final List<String> dictionary = new ArrayList<>();
+    private long timestamp;
+
+    public StructuredLogDecoder(InputStream inputStream) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(inputStream, 64 * 1024));
+        if (input.readInt() != StructuredWriter.BINARY_MAGIC) {
+            throw new IOException("Not a structured binary log");
+        }
+        int version = input.readUnsignedByte();
+        if (version != StructuredWriter.BINARY_VERSION) {
+            throw new IOException("Unsupported structured log version " + version);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: StructuredLogDecoder <input.bin> [output.jsonl]");
+            System.exit(1);
+            return;
+        }
+        try (InputStream inputStream = Files.newInputStream(Path.of(args[0]));
+             Writer writer = args.length == 2
+                     ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            long entries = new StructuredLogDecoder(inputStream).decodeTo(writer);
+            if (args.length == 2) {
+                System.out.println("Decoded " + entries + " entries into " + args[1]);
+            }
+        }
+    }
+
+    /**
+     * Write every entry as a JSON line.
+     * A truncated last entry, like after a crash, ends the decoding without an error.
+     * @param writer  target of the JSON lines
+     * @return the amount of decoded entries
+     */
+    public long decodeTo(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder(512);
+        long entries = 0;
+        try {
+            while (true) {
+                int record = input.read();
+                if (record < 0) {
+                    break;
+                }
+                if (record == StructuredWriter.RECORD_STRING) {
+                    int id = (int) readVarLong();
+                    String value = readString();
+                    int index = id - StructuredWriter.STRING_DICTIONARY_OFFSET;
+                    while (dictionary.size() <= index) {
+                        dictionary.add(null);
+                    }
+                    dictionary.set(index, value);
+                    continue;
+                }
+                if (record != StructuredWriter.RECORD_ENTRY) {
+                    throw new IOException("Unknown record type " + record);
+                }
+                long zigzag = readVarLong();
+                timestamp += (zigzag >>> 1) ^ -(zigzag & 1);
+                Level level = LEVELS[input.readUnsignedByte()];
+                String thread = readReference();
+                String className = readReference();
+                String tag = readReference();
+                String world = readReference();
+                String message = readString();
+                String exception = readString();
+
+                line.setLength(0);
+                StructuredWriter.appendJson(line, timestamp, thread, level, className, tag, world, message, exception);
+                line.append('\n');
+                writer.append(line);
+                entries++;
+            }
+        } catch (EOFException ignored) {
+            // Log was cut off in the middle of an entry
+        }
+        writer.flush();
+        return entries;
+    }
+
+    private String readReference() throws IOException {
+        int id = (int) readVarLong();
+        if (id == 0) {
+            return null;
+        }
+        if (id == StructuredWriter.STRING_INLINE) {
+            return readString();
+        }
+        return dictionary.get(id - StructuredWriter.STRING_DICTIONARY_OFFSET);
+    }
+
+    private String readString() throws IOException {
+        int length = (int) readVarLong();
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
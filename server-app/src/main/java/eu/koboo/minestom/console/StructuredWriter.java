@@ -0,0 +1,328 @@
+package eu.koboo.minestom.console;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.tinylog.Level;
+import org.tinylog.core.LogEntry;
+import org.tinylog.core.LogEntryValue;
+import org.tinylog.writers.Writer;
+
+/**
+ * Writer for machine-readable logs, either as JSON lines or in a compact binary format.
+ * Every field gets appended on its own into a reused buffer, no line is formatted as a whole.
+ * Binary logs can be converted to JSON lines with {@link StructuredLogDecoder}.
+ * <p>
+ * Properties:
+ * <ul>
+ *     <li>`format` - `json` or `binary` (default json)</li>
+ *     <li>`file` - path of the log file, `{date}` gets replaced by the start time (default logs/structured_{date}.jsonl)</li>
+ *     <li>`buffer` - size of the output buffer in bytes (default 65536)</li>
+ * </ul>
+ * Fields are the epoch millis, thread, level, class, the tag of the logger (the module name for module loggers),
+ * the `world` of the thread context, the message and the stack trace of an exception.
+ */
+public class StructuredWriter implements Writer {
+
+    /**
+     * Magic number at the start of every binary log file ("TSLG").
+     */
+    static final int BINARY_MAGIC = 0x54534C47;
+    static final int BINARY_VERSION = 1;
+
+    static final int RECORD_STRING = 0;
+    static final int RECORD_ENTRY = 1;
+
+    /**
+     * Reference to a string, which is written inline and isn't part of the dictionary.
+     * Ids of the dictionary start after this, 0 stands for null.
+     */
+    static final int STRING_INLINE = 1;
+    static final int STRING_DICTIONARY_OFFSET = 2;
+
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final boolean binary;
+    private final OutputBuffer output;
+    private final StringBuilder line = new StringBuilder(512);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private long lastTimestamp;
+
+    @SuppressWarnings("unused")
+    public StructuredWriter(Map<String, String> properties) throws IOException {
+        String format = properties.getOrDefault("format", "json").trim().toLowerCase(Locale.ROOT);
+        if (!format.equals("json") && !format.equals("binary")) {
+            throw new IllegalArgumentException("Unknown structured log format \"" + format + "\"");
+        }
+        this.binary = format.equals("binary");
+        String defaultFile = "logs/structured_{date}." + (binary ? "bin" : "jsonl");
+        Path path = Path.of(properties.getOrDefault("file", defaultFile)
+                .replace("{date}", FILE_DATE_FORMAT.format(LocalDateTime.now())));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.output = new OutputBuffer(channel, Integer.parseInt(properties.getOrDefault("buffer", "65536").trim()));
+        if (binary) {
+            output.putInt(BINARY_MAGIC);
+            output.putByte(BINARY_VERSION);
+        }
+    }
+
+    @Override
+    public Collection<LogEntryValue> getRequiredLogEntryValues() {
+        return EnumSet.of(
+                LogEntryValue.DATE, LogEntryValue.THREAD, LogEntryValue.CONTEXT, LogEntryValue.CLASS,
+                LogEntryValue.LEVEL, LogEntryValue.MESSAGE, LogEntryValue.EXCEPTION
+        );
+    }
+
+    @Override
+    public synchronized void write(LogEntry logEntry) throws IOException {
+        long timestamp = logEntry.getTimestamp().toInstant().toEpochMilli();
+        String thread = logEntry.getThread() == null ? null : logEntry.getThread().getName();
+        Map<String, String> context = logEntry.getContext();
+        String world = context == null ? null : context.get("world");
+        String exception = stackTrace(logEntry.getException());
+        if (binary) {
+            writeBinary(timestamp, thread, logEntry.getLevel(), logEntry.getClassName(), logEntry.getTag(), world,
+                    logEntry.getMessage(), exception);
+            return;
+        }
+        line.setLength(0);
+        appendJson(line, timestamp, thread, logEntry.getLevel(), logEntry.getClassName(), logEntry.getTag(), world,
+                logEntry.getMessage(), exception);
+        line.append('\n');
+        output.putChars(line);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        output.drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.drain();
+        output.channel.close();
+    }
+
+    private void writeBinary(long timestamp, String thread, Level level, String className, String tag, String world,
+                             String message, String exception) throws IOException {
+        int threadId = reference(thread);
+        int classId = reference(className);
+        int tagId = reference(tag);
+        int worldId = reference(world);
+
+        output.putByte(RECORD_ENTRY);
+        // Timestamps are mostly increasing, so the zigzag encoded delta usually fits into one or two bytes
+        long delta = timestamp - lastTimestamp;
+        lastTimestamp = timestamp;
+        output.putVarLong((delta << 1) ^ (delta >> 63));
+        output.putByte(level.ordinal());
+        putReference(threadId, thread);
+        putReference(classId, className);
+        putReference(tagId, tag);
+        putReference(worldId, world);
+        output.putString(message == null ? "" : message);
+        output.putString(exception == null ? "" : exception);
+    }
+
+    /**
+     * Get the dictionary reference of the value and define it first, if it's new.
+     */
+    private int reference(String value) throws IOException {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+            return STRING_INLINE;
+        }
+        id = dictionary.size() + STRING_DICTIONARY_OFFSET;
+        dictionary.put(value, id);
+        output.putByte(RECORD_STRING);
+        output.putVarLong(id);
+        output.putString(value);
+        return id;
+    }
+
+    private void putReference(int id, String value) throws IOException {
+        output.putVarLong(id);
+        if (id == STRING_INLINE) {
+            output.putString(value);
+        }
+    }
+
+    /**
+     * Append a single log entry as JSON object, shared with the decoder of the binary format.
+     */
+    static void appendJson(StringBuilder builder, long timestamp, String thread, Level level, String className,
+                           String tag, String world, String message, String exception) {
+        builder.append("{\"time\":").append(timestamp);
+        appendField(builder, "thread", thread);
+        appendField(builder, "level", level.name());
+        appendField(builder, "class", className);
+        appendField(builder, "tag", tag);
+        appendField(builder, "world", world);
+        appendField(builder, "message", message);
+        if (exception != null && !exception.isEmpty()) {
+            appendField(builder, "exception", exception);
+        }
+        builder.append('}');
+    }
+
+    private static void appendField(StringBuilder builder, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        builder.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append("\\u00");
+                        builder.append(Character.forDigit(c >> 4, 16));
+                        builder.append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        if (throwable == null) {
+            return null;
+        }
+        StringWriter writer = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+
+    /**
+     * Byte buffer in front of the file channel, which only writes to the channel if it's full or drained.
+     */
+    private static class OutputBuffer {
+
+        private final FileChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer buffer;
+        private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+        private OutputBuffer(FileChannel channel, int size) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(Math.max(1024, size));
+        }
+
+        private void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Write the UTF-8 bytes of the value with its length in front.
+         */
+        private void putString(CharSequence value) throws IOException {
+            scratch = encode(value, scratch);
+            putVarLong(scratch.remaining());
+            ensure(scratch.remaining());
+            buffer.put(scratch);
+        }
+
+        /**
+         * Write the UTF-8 bytes of the value without any length.
+         */
+        private void putChars(CharSequence value) throws IOException {
+            scratch = encode(value, scratch);
+            ensure(scratch.remaining());
+            buffer.put(scratch);
+        }
+
+        private ByteBuffer encode(CharSequence value, ByteBuffer target) {
+            CharBuffer chars = CharBuffer.wrap(value);
+            target.clear();
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, target, true);
+                if (!result.isOverflow()) {
+                    result = encoder.flush(target);
+                }
+                if (!result.isOverflow()) {
+                    break;
+                }
+                ByteBuffer larger = ByteBuffer.allocate(target.capacity() * 2);
+                target.flip();
+                larger.put(target);
+                target = larger;
+            }
+            target.flip();
+            return target;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            drain();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
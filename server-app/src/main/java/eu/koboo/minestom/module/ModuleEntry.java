@@ -0,0 +1,36 @@
+package eu.koboo.minestom.module;
+
+import eu.koboo.minestom.api.module.Module;
+import eu.koboo.minestom.api.module.annotation.ModuleInfo;
+import eu.koboo.minestom.api.module.annotation.dependencies.LoadOption;
+import eu.koboo.minestom.api.module.annotation.dependencies.ModuleDependency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Metadata of a module, read once from its {@link ModuleInfo} annotation.
+ */
+public record ModuleEntry(String name, Module module, ModuleInfo moduleInfo, LoadOption loadOption,
+                          List<String> dependencies) {
+
+    public static ModuleEntry of(Module module) {
+        ModuleInfo moduleInfo = module.getClass().getAnnotation(ModuleInfo.class);
+        if (moduleInfo == null) {
+            return null;
+        }
+        List<String> dependencies = new ArrayList<>();
+        for (ModuleDependency moduleDependency : moduleInfo.moduleDependencies()) {
+            dependencies.add(moduleDependency.name());
+        }
+        return new ModuleEntry(moduleInfo.name(), module, moduleInfo, moduleInfo.loadOption(), List.copyOf(dependencies));
+    }
+
+    public ClassLoader classLoader() {
+        return module.getClass().getClassLoader();
+    }
+
+    public String describe() {
+        return name + " v" + moduleInfo.version() + " by " + String.join(", ", moduleInfo.authors());
+    }
+}
@@ -4,11 +4,23 @@ import eu.koboo.minestom.api.module.Module;
 import eu.koboo.minestom.api.module.ModuleManager;
 import eu.koboo.minestom.api.module.annotation.ModuleInfo;
 import eu.koboo.minestom.api.module.annotation.dependencies.LoadOption;
-import eu.koboo.minestom.api.module.annotation.dependencies.ModuleDependency;
+import eu.koboo.minestom.api.module.scheduler.ModuleScheduler;
+import eu.koboo.minestom.api.module.scheduler.ModuleSchedulerStats;
+import eu.koboo.minestom.api.module.stats.ModuleResourceStats;
+import eu.koboo.minestom.console.CommandCompleter;
+import eu.koboo.minestom.module.scheduler.ModuleSchedulerImpl;
+import eu.koboo.minestom.module.service.ServiceRegistryImpl;
+import eu.koboo.minestom.module.stats.ModuleResourceTracker;
 import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.boot.BootProfiler;
+import eu.koboo.minestom.server.profiler.TickProfiler;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import net.minestom.server.MinecraftServer;
 import net.minestom.server.event.Event;
+import net.minestom.server.event.EventNode;
 import org.tinylog.Logger;
 
 import java.io.File;
@@ -19,25 +31,66 @@ import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.jar.JarFile;
 
-@Getter
+/**
+ * All mutations of the module registry are serialized on the manager.
+ * Readers only see immutable snapshots, which get published after every mutation,
+ * so the accessors neither lock nor allocate.
+ * The onEnable and onDisable callbacks run after the snapshot got published, outside the lock.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ModuleManagerImpl implements ModuleManager {
 
-    Map<String, Module> modules;
-    Map<String, ModuleInfo> moduleInfos;
+    // Guarded by this, in enable order. As a module can only be enabled after its dependencies,
+    // the enable order is a valid topological order of the dependency graph.
+    Map<String, ModuleEntry> enabledEntries;
+    // Guarded by this, module name -> names of the enabled modules, which depend on it
+    Map<String, Set<String>> dependents;
+    // Guarded by this, load options of all known modules, including the pending post-world modules
+    Map<String, LoadOption> loadOptions;
 
-    Map<Module, LoadOption> moduleLoadOptions;
     List<Module> toLoadPostWorld;
+    List<URLClassLoader> moduleClassLoaders;
 
-    public ModuleManagerImpl() {
-        this.modules = new HashMap<>();
-        this.moduleInfos = new HashMap<>();
-        this.moduleLoadOptions = new HashMap<>();
-        this.toLoadPostWorld = new ArrayList<>();
+    Map<String, ModuleSchedulerImpl> schedulers;
+    @Getter
+    ServiceRegistryImpl serviceRegistry;
+
+    @Getter
+    Map<String, ModuleResourceTracker> resourceTrackers;
+    Map<String, EventNode<Event>> eventNodes;
+    BootProfiler bootProfiler;
+
+    @NonFinal
+    volatile Snapshot snapshot;
+    @NonFinal
+    volatile boolean postWorldLoaded;
+    // Module classes found by scanModules, in jar order
+    @NonFinal
+    volatile List<ScannedModule> scannedModules;
+
+    public ModuleManagerImpl(BootProfiler bootProfiler) {
+        this.bootProfiler = bootProfiler;
+        this.enabledEntries = new LinkedHashMap<>();
+        this.dependents = new HashMap<>();
+        this.loadOptions = new HashMap<>();
+        this.toLoadPostWorld = new CopyOnWriteArrayList<>();
+        this.moduleClassLoaders = new CopyOnWriteArrayList<>();
+        this.schedulers = new ConcurrentHashMap<>();
+        this.serviceRegistry = new ServiceRegistryImpl();
+        this.resourceTrackers = new ConcurrentHashMap<>();
+        this.eventNodes = new ConcurrentHashMap<>();
+        this.snapshot = Snapshot.EMPTY;
 
         Path moduleFolder = Path.of("modules");
         if (!moduleFolder.toFile().exists()) {
@@ -64,30 +117,57 @@ public class ModuleManagerImpl implements ModuleManager {
             if (ServerImpl.DEBUG) Logger.error("Module is null");
             return;
         }
-        ModuleInfo moduleInfo = module.getClass().getAnnotation(ModuleInfo.class);
-        if (moduleInfo == null) {
+        ModuleEntry entry = ModuleEntry.of(module);
+        if (entry == null) {
             if (ServerImpl.DEBUG) Logger.error("ModuleInfo is null");
             return;
         }
-        if (moduleInfos.containsKey(moduleInfo.name())) {
-            if (ServerImpl.DEBUG) Logger.error("Module with name " + moduleInfo.name() + " is already enabled");
+        if (!register(entry)) {
             return;
         }
-        moduleLoadOptions.put(module, moduleInfo.loadOption());
-        if (moduleInfo.loadOption() == LoadOption.POSTWORLD) {
+        // Outside the lock, so the module can use the manager and other threads aren't blocked by it
+        try (BootProfiler.Timer ignored = bootProfiler.start(BootProfiler.CATEGORY_MODULE, entry.name() + "/enable")) {
+            module.onEnable();
+        }
+        // Modules register their commands in onEnable
+        CommandCompleter.commandsChanged();
+    }
+
+    /**
+     * Add the module to the registry and publish the new snapshot.
+     * @return true if the module got enabled and its onEnable has to be called
+     */
+    private synchronized boolean register(ModuleEntry entry) {
+        Module module = entry.module();
+        String name = entry.name();
+        if (enabledEntries.containsKey(name)) {
+            if (ServerImpl.DEBUG) Logger.error("Module with name " + name + " is already enabled");
+            return false;
+        }
+        loadOptions.put(name, entry.loadOption());
+        if (entry.loadOption() == LoadOption.POSTWORLD && !postWorldLoaded) {
             toLoadPostWorld.add(module);
-            return;
+            publish();
+            return false;
         }
-        Logger.info("Enabling module " + moduleInfo.name() + " v" + moduleInfo.version() + " by " + String.join(", ", moduleInfo.authors()));
-        for (ModuleDependency moduleDependency : moduleInfo.moduleDependencies()) {
-            if (!moduleInfos.containsKey(moduleDependency.name())) {
-                if (ServerImpl.DEBUG) Logger.error("Module " + moduleInfo.name() + " requires module " + moduleDependency.name() + " to be enabled. Please enable it first.");
-                return;
+        Logger.info("Enabling module " + entry.describe());
+        for (String dependency : entry.dependencies()) {
+            if (!enabledEntries.containsKey(dependency)) {
+                if (ServerImpl.DEBUG) Logger.error("Module " + name + " requires module " + dependency + " to be enabled. Please enable it first.");
+                publish();
+                return false;
             }
         }
-        modules.put(moduleInfo.name(), module);
-        moduleInfos.put(moduleInfo.name(), moduleInfo);
-        module.onEnable();
+        enabledEntries.put(name, entry);
+        for (String dependency : entry.dependencies()) {
+            dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(name);
+        }
+        resourceTrackers.computeIfAbsent(name, ModuleResourceTracker::new);
+        // Tagged with the module name, so structured logs can tell the modules apart
+        module.setLogger(Logger.tag(name));
+        module.setEnabled(true);
+        publish();
+        return true;
     }
 
     @Override
@@ -96,47 +176,91 @@ public class ModuleManagerImpl implements ModuleManager {
             if (ServerImpl.DEBUG) Logger.error("Module is null");
             return;
         }
-        ModuleInfo moduleInfo = module.getClass().getAnnotation(ModuleInfo.class);
-        if (moduleInfo == null) {
-            if (ServerImpl.DEBUG) Logger.error("ModuleInfo is null");
+        ModuleEntry entry = unregister(module);
+        if (entry == null) {
             return;
         }
-        if (!moduleInfos.containsKey(moduleInfo.name())) {
-            if (ServerImpl.DEBUG) Logger.error("Module with name " + moduleInfo.name() + " is not enabled");
-            return;
+        String name = entry.name();
+        // Outside the lock, so the module can use the manager and other threads aren't blocked by it
+        serviceRegistry.unregisterAll(module);
+        module.onDisable();
+        ModuleSchedulerImpl scheduler = schedulers.remove(name);
+        if (scheduler != null) {
+            scheduler.shutdown();
+            if (ServerImpl.DEBUG) Logger.info("Cancelled all tasks of module " + name);
         }
-        for (ModuleInfo moduleInfo1 : moduleInfos.values()) {
-            for (ModuleDependency moduleDependency : moduleInfo1.moduleDependencies()) {
-                if (moduleDependency.name().equals(moduleInfo.name())) {
-                    if (ServerImpl.DEBUG) Logger.error("Module " + moduleInfo1.name() + " requires module " + moduleInfo.name() + " to be enabled. Please disable it first.");
-                    return;
-                }
+        EventNode<Event> eventNode = eventNodes.remove(name);
+        if (eventNode != null) {
+            MinecraftServer.getGlobalEventHandler().removeChild(eventNode);
+            if (ServerImpl.DEBUG) Logger.info("Removed all listeners of module " + name);
+        }
+        resourceTrackers.remove(name);
+        CommandCompleter.commandsChanged();
+    }
+
+    /**
+     * Remove the module from the registry and publish the new snapshot.
+     * @return the entry of the module, or null if it can't be disabled and its onDisable mustn't be called
+     */
+    private synchronized ModuleEntry unregister(Module module) {
+        ModuleEntry entry = snapshot.byModule().get(module);
+        if (entry == null) {
+            if (ServerImpl.DEBUG) Logger.error("Module " + module.getClass().getName() + " is not enabled");
+            return null;
+        }
+        String name = entry.name();
+        Set<String> dependentNames = dependents.get(name);
+        if (dependentNames != null && !dependentNames.isEmpty()) {
+            if (ServerImpl.DEBUG) Logger.error("Module " + String.join(", ", dependentNames) + " requires module " + name + " to be enabled. Please disable it first.");
+            return null;
+        }
+        Logger.info("Disabling module " + entry.describe());
+        enabledEntries.remove(name);
+        loadOptions.remove(name);
+        dependents.remove(name);
+        for (String dependency : entry.dependencies()) {
+            Set<String> dependencyDependents = dependents.get(dependency);
+            if (dependencyDependents != null) {
+                dependencyDependents.remove(name);
             }
         }
-        Logger.info("Disabling module " + moduleInfo.name() + " v" + moduleInfo.version() + " by " + String.join(", ", moduleInfo.authors()));
-        modules.remove(moduleInfo.name());
-        moduleInfos.remove(moduleInfo.name());
-        moduleLoadOptions.remove(module);
-        module.onDisable();
+        module.setEnabled(false);
+        publish();
+        return entry;
     }
 
-    @Override
-    public void enableAllModules() {
-        List<JarFile> moduleJars = getModuleJars();
+    /**
+     * Open all module jars and load their classes, without initializing or constructing anything.
+     * Doesn't need Minestom, so it can run while the server is initialized.
+     */
+    public void scanModules() {
+        List<JarFile> moduleJars;
+        try (BootProfiler.Timer ignored = bootProfiler.start(BootProfiler.CATEGORY_MODULE, "scan")) {
+            moduleJars = getModuleJars();
+        }
+        List<ScannedModule> scanned = new ArrayList<>();
         for (JarFile jarFile : moduleJars) {
-            try (URLClassLoader classLoader = new URLClassLoader(new URL[]{new File(jarFile.getName()).toURI().toURL()})) {
+            String jarName = new File(jarFile.getName()).getName();
+            long[] classLoadNanos = new long[1];
+            long classLoadStart = System.nanoTime();
+            // The class loader stays open, as modules load further classes lazily after being enabled
+            try (jarFile) {
+                // Named after the jar, so the tick profiler can attribute stack frames to the module
+                URLClassLoader classLoader = new URLClassLoader(TickProfiler.MODULE_CLASS_LOADER_PREFIX + jarName.replaceFirst("\\.jar$", ""),
+                        new URL[]{new File(jarFile.getName()).toURI().toURL()}, ClassLoader.getSystemClassLoader());
+                moduleClassLoaders.add(classLoader);
                 jarFile.stream()
                         .filter(entry -> entry.getName().endsWith(".class"))
                         .forEach(entry -> {
                             String className = entry.getName().replace("/", ".").replace(".class", "");
                             try {
+                                long loadStart = System.nanoTime();
                                 Class<?> clazz = classLoader.loadClass(className);
+                                classLoadNanos[0] += System.nanoTime() - loadStart;
                                 if (Module.class.isAssignableFrom(clazz)) {
-                                    Module module = (Module) clazz.getDeclaredConstructor().newInstance();
-                                    enableModule(module);
+                                    scanned.add(new ScannedModule(jarName, clazz.asSubclass(Module.class)));
                                 }
-                            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | NoSuchMethodException |
-                                     InvocationTargetException e) {
+                            } catch (ClassNotFoundException | LinkageError e) {
                                 Logger.error("Failed to load module class " + className, e);
                             }
                         });
@@ -147,64 +271,174 @@ public class ModuleManagerImpl implements ModuleManager {
                 Logger.error("Malformed JAR file: " + jarFile.getName(), e);
                 e.printStackTrace();
             }
+            bootProfiler.record(BootProfiler.CATEGORY_MODULE, jarName + "/class-load", classLoadStart, classLoadNanos[0]);
         }
+        scannedModules = List.copyOf(scanned);
+    }
+
+    @Override
+    public void enableAllModules() {
+        if (scannedModules == null) {
+            scanModules();
+        }
+        for (ScannedModule scannedModule : scannedModules) {
+            Class<? extends Module> clazz = scannedModule.moduleClass();
+            try {
+                Module module;
+                try (BootProfiler.Timer ignored = bootProfiler.start(BootProfiler.CATEGORY_MODULE, scannedModule.jarName() + "/" + clazz.getSimpleName() + "/construct")) {
+                    module = clazz.getDeclaredConstructor().newInstance();
+                }
+                enableModule(module);
+            } catch (InstantiationException | IllegalAccessException | NoSuchMethodException |
+                     InvocationTargetException e) {
+                Logger.error("Failed to load module class " + clazz.getName(), e);
+            }
+        }
+        scannedModules = List.of();
     }
 
     @Override
     public void disableAllModules() {
-        for (Module module : modules.values()) {
-            disableModule(module);
+        List<ModuleEntry> enableOrder = snapshot.enableOrder();
+        for (int i = enableOrder.size() - 1; i >= 0; i--) {
+            disableModule(enableOrder.get(i).module());
         }
+        for (URLClassLoader classLoader : moduleClassLoaders) {
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                Logger.error("Failed to close module class loader", e);
+            }
+        }
+        moduleClassLoaders.clear();
     }
 
     @Override
     public Module getModule(String name) {
-        return modules.getOrDefault(name, null);
+        ModuleEntry entry = snapshot.byName().get(name);
+        return entry == null ? null : entry.module();
     }
 
+    /**
+     * @return the enabled modules. The returned array is a shared snapshot and must not be modified.
+     */
     @Override
     public Module[] getModules() {
-        return modules.values().toArray(new Module[0]);
+        return snapshot.modules();
     }
 
     @Override
     public ModuleInfo getModuleInfo(String name) {
-        return moduleInfos.getOrDefault(name, null);
+        return snapshot.moduleInfos().get(name);
     }
 
     @Override
     public Map<String, ModuleInfo> getModuleInfos() {
-        return moduleInfos;
+        return snapshot.moduleInfos();
     }
 
     @Override
     public boolean isModuleEnabled(String name) {
-        return modules.containsKey(name) && modules.get(name) != null && modules.get(name).isEnabled();
+        ModuleEntry entry = snapshot.byName().get(name);
+        return entry != null && entry.module().isEnabled();
     }
 
     @Override
     public LoadOption getModuleLoadOption(Module module) {
-        return moduleLoadOptions.getOrDefault(module, LoadOption.PREWORLD);
+        ModuleEntry entry = snapshot.byModule().get(module);
+        if (entry != null) {
+            return entry.loadOption();
+        }
+        ModuleInfo moduleInfo = module.getClass().getAnnotation(ModuleInfo.class);
+        return moduleInfo == null ? LoadOption.PREWORLD : snapshot.loadOptions().getOrDefault(moduleInfo.name(), LoadOption.PREWORLD);
     }
 
     @Override
     public Map<String, LoadOption> getModuleLoadOptions() {
-        Map<String, LoadOption> moduleLoadOptions = new HashMap<>();
-        for (Map.Entry<Module, LoadOption> entry : this.moduleLoadOptions.entrySet()) {
-            moduleLoadOptions.put(entry.getKey().getClass().getAnnotation(ModuleInfo.class).name(), entry.getValue());
-        }
-        return moduleLoadOptions;
+        return snapshot.loadOptions();
     }
 
     @Override
     public <E extends Event> void registerListener(Class<E> eventClass, Consumer<E> listener) {
-        MinecraftServer.getGlobalEventHandler().addListener(eventClass, listener); //Hopefully this works, lmfaooo
+        Module owner = findOwner(listener);
+        if (owner == null) {
+            if (ServerImpl.DEBUG) Logger.warn("Could not find the module of listener " + listener.getClass().getName() + ", its time is not accounted");
+            MinecraftServer.getGlobalEventHandler().addListener(eventClass, listener);
+            return;
+        }
+        registerListener(owner, eventClass, listener);
+    }
+
+    @Override
+    public <E extends Event> void registerListener(Module module, Class<E> eventClass, Consumer<E> listener) {
+        ModuleEntry entry = snapshot.byModule().get(module);
+        if (entry == null) {
+            if (ServerImpl.DEBUG) Logger.error("Module " + module.getClass().getName() + " is not enabled, cannot register listener");
+            return;
+        }
+        String name = entry.name();
+        EventNode<Event> eventNode = eventNodes.computeIfAbsent(name, key -> {
+            EventNode<Event> node = EventNode.all("module-" + key);
+            MinecraftServer.getGlobalEventHandler().addChild(node);
+            return node;
+        });
+        eventNode.addListener(eventClass, resourceTrackers.computeIfAbsent(name, ModuleResourceTracker::new).wrapListener(listener));
+    }
+
+    @Override
+    public ModuleResourceStats getResourceStats(String name) {
+        ModuleResourceTracker tracker = resourceTrackers.get(name);
+        if (tracker == null) {
+            return null;
+        }
+        return tracker.getStats();
+    }
+
+    @Override
+    public Map<String, ModuleResourceStats> getResourceStats() {
+        Map<String, ModuleResourceStats> stats = new HashMap<>();
+        for (ModuleResourceTracker tracker : resourceTrackers.values()) {
+            stats.put(tracker.getModuleName(), tracker.getStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public ModuleSchedulerStats getSchedulerStats(String name) {
+        ModuleSchedulerImpl scheduler = schedulers.get(name);
+        return scheduler == null ? null : scheduler.getStats();
+    }
+
+    @Override
+    public ModuleScheduler getScheduler(Module module) {
+        ModuleEntry entry = snapshot.byModule().get(module);
+        if (entry == null) {
+            throw new IllegalStateException("Module " + module.getClass().getName() + " is not enabled, it has no scheduler");
+        }
+        String moduleName = entry.name();
+        ModuleSchedulerImpl scheduler = schedulers.computeIfAbsent(moduleName, name ->
+                new ModuleSchedulerImpl(name, resourceTrackers.computeIfAbsent(name, ModuleResourceTracker::new)));
+        if (snapshot.byModule().get(module) != entry) {
+            // Disabled meanwhile, after its schedulers got shut down
+            if (schedulers.remove(moduleName, scheduler)) {
+                scheduler.shutdown();
+            }
+            throw new IllegalStateException("Module " + moduleName + " got disabled, it has no scheduler");
+        }
+        return scheduler;
     }
 
     @Override
     public void loadModulesPostWorld() {
         Logger.info("Loading modules that are set to load post-world. (" + toLoadPostWorld.size() + ")");
-        for (Module module : toLoadPostWorld) {
+        List<Module> pending;
+        // Under the lock, so a module can't be queued after the pending ones got taken
+        synchronized (this) {
+            postWorldLoaded = true;
+            pending = List.copyOf(toLoadPostWorld);
+            toLoadPostWorld.clear();
+        }
+        for (Module module : pending) {
             enableModule(module);
         }
     }
@@ -251,7 +485,54 @@ public class ModuleManagerImpl implements ModuleManager {
         return jarFiles;
     }
 
+    /**
+     * Lambdas and listener classes share the class loader of the module jar they got defined in.
+     */
+    private Module findOwner(Object listener) {
+        ClassLoader classLoader = listener.getClass().getClassLoader();
+        for (ModuleEntry entry : snapshot.enableOrder()) {
+            if (entry.classLoader() == classLoader) {
+                return entry.module();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Publish a new snapshot of the registry. Must be called while holding the lock.
+     */
+    private void publish() {
+        List<ModuleEntry> enableOrder = List.copyOf(enabledEntries.values());
+        Module[] modules = new Module[enableOrder.size()];
+        Map<String, ModuleEntry> byName = new HashMap<>();
+        Map<Module, ModuleEntry> byModule = new IdentityHashMap<>();
+        Map<String, ModuleInfo> moduleInfos = new HashMap<>();
+        for (int i = 0; i < enableOrder.size(); i++) {
+            ModuleEntry entry = enableOrder.get(i);
+            modules[i] = entry.module();
+            byName.put(entry.name(), entry);
+            byModule.put(entry.module(), entry);
+            moduleInfos.put(entry.name(), entry.moduleInfo());
+        }
+        snapshot = new Snapshot(enableOrder, modules, Map.copyOf(byName), byModule,
+                Map.copyOf(moduleInfos), Map.copyOf(loadOptions));
+    }
+
     public List<Module> getModulesToLoadPostWorld() {
         return toLoadPostWorld;
     }
+
+    private record ScannedModule(String jarName, Class<? extends Module> moduleClass) {
+    }
+
+    /**
+     * Immutable view of the registry. The identity map is never modified after publishing.
+     */
+    private record Snapshot(List<ModuleEntry> enableOrder, Module[] modules,
+                            Map<String, ModuleEntry> byName, Map<Module, ModuleEntry> byModule,
+                            Map<String, ModuleInfo> moduleInfos, Map<String, LoadOption> loadOptions) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), new Module[0], Map.of(), Map.of(), Map.of(), Map.of());
+
+    }
 }
@@ -0,0 +1,237 @@
+package eu.koboo.minestom.module.scheduler;
+
+import eu.koboo.minestom.api.module.scheduler.ModuleScheduler;
+import eu.koboo.minestom.api.module.scheduler.ModuleSchedulerStats;
+import eu.koboo.minestom.api.module.scheduler.ModuleTask;
+import eu.koboo.minestom.api.world.World;
+import eu.koboo.minestom.module.stats.ModuleResourceTracker;
+import eu.koboo.minestom.server.ServerImpl;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.timer.TaskSchedule;
+import org.tinylog.Logger;
+import org.tinylog.ThreadContext;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ModuleSchedulerImpl implements ModuleScheduler {
+
+    @Getter
+    String moduleName;
+    ModuleResourceTracker resourceTracker;
+    ExecutorService asyncExecutor;
+    Set<ModuleTaskImpl> pendingTasks;
+    AtomicInteger taskIdCounter;
+
+    LongAdder scheduled;
+    LongAdder completed;
+    LongAdder failed;
+    LongAdder cancelled;
+    LongAdder latencyNanos;
+    LongAdder latencySamples;
+    AtomicLong maxLatencyNanos;
+
+    @NonFinal
+    volatile boolean shutdown;
+
+    public ModuleSchedulerImpl(String moduleName, ModuleResourceTracker resourceTracker) {
+        this.moduleName = moduleName;
+        this.resourceTracker = resourceTracker;
+        this.asyncExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Module-" + moduleName + "-", 0).factory());
+        this.pendingTasks = ConcurrentHashMap.newKeySet();
+        this.taskIdCounter = new AtomicInteger();
+        this.scheduled = new LongAdder();
+        this.completed = new LongAdder();
+        this.failed = new LongAdder();
+        this.cancelled = new LongAdder();
+        this.latencyNanos = new LongAdder();
+        this.latencySamples = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong();
+    }
+
+    @Override
+    public ModuleTask runSync(Runnable task) {
+        ModuleTaskImpl moduleTask = newTask(false);
+        if (moduleTask.isCancelled()) {
+            return moduleTask;
+        }
+        moduleTask.attach(MinecraftServer.getSchedulerManager().scheduleNextTick(() -> execute(moduleTask, task)));
+        return moduleTask;
+    }
+
+    @Override
+    public ModuleTask runSyncLater(Runnable task, Duration delay) {
+        ModuleTaskImpl moduleTask = newTask(false);
+        if (moduleTask.isCancelled()) {
+            return moduleTask;
+        }
+        moduleTask.attach(MinecraftServer.getSchedulerManager().buildTask(() -> execute(moduleTask, task))
+                .delay(TaskSchedule.duration(delay))
+                .schedule());
+        return moduleTask;
+    }
+
+    @Override
+    public ModuleTask runRepeating(Runnable task, Duration delay, Duration period) {
+        ModuleTaskImpl moduleTask = newTask(true);
+        if (moduleTask.isCancelled()) {
+            return moduleTask;
+        }
+        moduleTask.attach(MinecraftServer.getSchedulerManager().buildTask(() -> execute(moduleTask, task))
+                .delay(TaskSchedule.duration(delay))
+                .repeat(TaskSchedule.duration(period))
+                .schedule());
+        return moduleTask;
+    }
+
+    @Override
+    public ModuleTask runAsync(Runnable task) {
+        ModuleTaskImpl moduleTask = newTask(false);
+        if (moduleTask.isCancelled()) {
+            return moduleTask;
+        }
+        moduleTask.attach(asyncExecutor.submit(() -> execute(moduleTask, task)));
+        return moduleTask;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ModuleTaskImpl moduleTask = newTask(false);
+        moduleTask.attach(result);
+        if (moduleTask.isCancelled()) {
+            return result;
+        }
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                moduleTask.cancel();
+            }
+        });
+        moduleTask.attach(asyncExecutor.submit(() -> execute(moduleTask, () -> {
+            try {
+                result.complete(supplier.get());
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+                throw throwable;
+            }
+        })));
+        return result;
+    }
+
+    @Override
+    public ModuleTask runOnInstance(Instance instance, Runnable task) {
+        ModuleTaskImpl moduleTask = newTask(false);
+        if (moduleTask.isCancelled()) {
+            return moduleTask;
+        }
+        String worldName = worldName(instance);
+        if (worldName == null) {
+            instance.scheduleNextTick(ignored -> execute(moduleTask, task));
+            return moduleTask;
+        }
+        instance.scheduleNextTick(ignored -> {
+            // Logs of the task get the world in their context, see StructuredWriter
+            ThreadContext.put("world", worldName);
+            try {
+                execute(moduleTask, task);
+            } finally {
+                ThreadContext.remove("world");
+            }
+        });
+        return moduleTask;
+    }
+
+    private static String worldName(Instance instance) {
+        ServerImpl server = ServerImpl.getInstance();
+        if (server == null || server.getWorldManager() == null) {
+            return null;
+        }
+        for (World world : server.getWorldManager().getWorlds()) {
+            if (world.getInstanceContainer() == instance) {
+                return world.getName();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void cancelAll() {
+        for (ModuleTaskImpl moduleTask : pendingTasks) {
+            moduleTask.cancel();
+        }
+    }
+
+    @Override
+    public ModuleSchedulerStats getStats() {
+        long samples = latencySamples.sum();
+        double averageLatency = samples == 0 ? 0.0 : (latencyNanos.sum() / (double) samples) / 1_000_000.0;
+        return new ModuleSchedulerStats(moduleName,
+                scheduled.sum(), pendingTasks.size(),
+                completed.sum(), failed.sum(), cancelled.sum(),
+                averageLatency, maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Cancel all tasks and reject every further task. Called once the module got disabled.
+     */
+    public void shutdown() {
+        shutdown = true;
+        cancelAll();
+        asyncExecutor.shutdownNow();
+    }
+
+    void onCancelled(ModuleTaskImpl moduleTask) {
+        if (pendingTasks.remove(moduleTask)) {
+            cancelled.increment();
+        }
+    }
+
+    private ModuleTaskImpl newTask(boolean repeating) {
+        ModuleTaskImpl moduleTask = new ModuleTaskImpl(this, taskIdCounter.incrementAndGet(), repeating);
+        if (shutdown) {
+            Logger.warn("Module " + moduleName + " is disabled, rejected task #" + moduleTask.getId());
+            moduleTask.cancel();
+            return moduleTask;
+        }
+        pendingTasks.add(moduleTask);
+        scheduled.increment();
+        return moduleTask;
+    }
+
+    private void execute(ModuleTaskImpl moduleTask, Runnable task) {
+        if (!moduleTask.begin()) {
+            return;
+        }
+        if (moduleTask.markFirstExecution()) {
+            long latency = System.nanoTime() - moduleTask.getScheduledAt();
+            latencyNanos.add(latency);
+            latencySamples.increment();
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+        try {
+            resourceTracker.measureTask(task);
+            completed.increment();
+        } catch (Throwable throwable) {
+            failed.increment();
+            Logger.error("Task #" + moduleTask.getId() + " of module " + moduleName + " failed", throwable);
+        } finally {
+            if (moduleTask.finish()) {
+                pendingTasks.remove(moduleTask);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package eu.koboo.minestom.module.scheduler;
+
+import eu.koboo.minestom.api.module.scheduler.ModuleTask;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import net.minestom.server.timer.Task;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ModuleTaskImpl implements ModuleTask {
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+
+    final ModuleSchedulerImpl scheduler;
+    @Getter
+    final int id;
+    final boolean repeating;
+    @Getter
+    final long scheduledAt;
+    final AtomicInteger state;
+
+    volatile Task task;
+    volatile Future<?> future;
+    volatile CompletableFuture<?> completion;
+
+    // Only touched by the executing thread, repeating tasks never run concurrently
+    boolean executedOnce;
+
+    ModuleTaskImpl(ModuleSchedulerImpl scheduler, int id, boolean repeating) {
+        this.scheduler = scheduler;
+        this.id = id;
+        this.repeating = repeating;
+        this.scheduledAt = System.nanoTime();
+        this.state = new AtomicInteger(PENDING);
+    }
+
+    void attach(Task task) {
+        this.task = task;
+        if (isCancelled()) {
+            task.cancel();
+        }
+    }
+
+    void attach(Future<?> future) {
+        this.future = future;
+        if (isCancelled()) {
+            future.cancel(true);
+        }
+    }
+
+    void attach(CompletableFuture<?> completion) {
+        this.completion = completion;
+        if (isCancelled()) {
+            completion.cancel(false);
+        }
+    }
+
+    boolean begin() {
+        return state.compareAndSet(PENDING, RUNNING);
+    }
+
+    /**
+     * @return true if this was the last execution of the task.
+     * Repeating tasks only end by cancellation, which already releases them.
+     */
+    boolean finish() {
+        if (repeating) {
+            state.compareAndSet(RUNNING, PENDING);
+            return false;
+        }
+        return state.compareAndSet(RUNNING, DONE);
+    }
+
+    boolean markFirstExecution() {
+        if (executedOnce) {
+            return false;
+        }
+        executedOnce = true;
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        int current;
+        do {
+            current = state.get();
+            if (current == DONE || current == CANCELLED) {
+                return;
+            }
+        } while (!state.compareAndSet(current, CANCELLED));
+
+        Task task = this.task;
+        if (task != null) {
+            task.cancel();
+        }
+        Future<?> future = this.future;
+        if (future != null) {
+            future.cancel(true);
+        }
+        CompletableFuture<?> completion = this.completion;
+        if (completion != null) {
+            completion.cancel(false);
+        }
+        scheduler.onCancelled(this);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        int current = state.get();
+        return current == DONE || current == CANCELLED;
+    }
+}
@@ -0,0 +1,99 @@
+package eu.koboo.minestom.module.service;
+
+import eu.koboo.minestom.api.module.Module;
+import eu.koboo.minestom.api.module.service.ServiceHandle;
+import eu.koboo.minestom.api.module.service.ServiceListener;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.tinylog.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ServiceHandleImpl<S> implements ServiceHandle<S> {
+
+    @Getter
+    Class<S> serviceClass;
+    List<ServiceListener<S>> listeners;
+
+    // Written under the handle lock, read lock-free by the consumers
+    @NonFinal
+    volatile S service;
+    @NonFinal
+    volatile Module provider;
+
+    public ServiceHandleImpl(Class<S> serviceClass) {
+        this.serviceClass = serviceClass;
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public S get() {
+        return service;
+    }
+
+    @Override
+    public S require() {
+        S current = service;
+        if (current == null) {
+            throw new IllegalStateException("Service " + serviceClass.getName() + " is not provided by any module");
+        }
+        return current;
+    }
+
+    @Override
+    public boolean isPresent() {
+        return service != null;
+    }
+
+    @Override
+    public Module getProvider() {
+        return provider;
+    }
+
+    @Override
+    public void addListener(ServiceListener<S> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(ServiceListener<S> listener) {
+        listeners.remove(listener);
+    }
+
+    synchronized boolean bind(Module provider, S service) {
+        if (this.service != null) {
+            return false;
+        }
+        this.provider = provider;
+        this.service = service;
+        for (ServiceListener<S> listener : listeners) {
+            try {
+                listener.onRegister(service);
+            } catch (Exception e) {
+                Logger.error("Listener of service " + serviceClass.getName() + " failed on register", e);
+            }
+        }
+        return true;
+    }
+
+    synchronized S unbind() {
+        S previous = this.service;
+        if (previous == null) {
+            return null;
+        }
+        this.service = null;
+        this.provider = null;
+        for (ServiceListener<S> listener : listeners) {
+            try {
+                listener.onUnregister(previous);
+            } catch (Exception e) {
+                Logger.error("Listener of service " + serviceClass.getName() + " failed on unregister", e);
+            }
+        }
+        return previous;
+    }
+}
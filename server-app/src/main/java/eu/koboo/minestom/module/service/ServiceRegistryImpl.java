@@ -0,0 +1,84 @@
+package eu.koboo.minestom.module.service;
+
+import eu.koboo.minestom.api.module.Module;
+import eu.koboo.minestom.api.module.service.ServiceHandle;
+import eu.koboo.minestom.api.module.service.ServiceRegistry;
+import eu.koboo.minestom.server.ServerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.tinylog.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ServiceRegistryImpl implements ServiceRegistry {
+
+    Map<Class<?>, ServiceHandleImpl<?>> handles;
+
+    public ServiceRegistryImpl() {
+        this.handles = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public <S> void register(Module provider, Class<S> serviceClass, S service) {
+        if (provider == null || serviceClass == null || service == null) {
+            if (ServerImpl.DEBUG) Logger.error("Provider, service class and service must not be null");
+            return;
+        }
+        if (!serviceClass.isInstance(service)) {
+            Logger.error("Service " + service.getClass().getName() + " does not implement " + serviceClass.getName());
+            return;
+        }
+        ServiceHandleImpl<S> handle = handleOf(serviceClass);
+        if (!handle.bind(provider, service)) {
+            Logger.error("Service " + serviceClass.getName() + " is already provided by " + nameOf(handle.getProvider()));
+            return;
+        }
+        if (ServerImpl.DEBUG) Logger.info("Registered service " + serviceClass.getName() + " by " + nameOf(provider));
+    }
+
+    @Override
+    public void unregister(Class<?> serviceClass) {
+        ServiceHandleImpl<?> handle = handles.get(serviceClass);
+        if (handle == null) {
+            return;
+        }
+        if (handle.unbind() != null && ServerImpl.DEBUG) {
+            Logger.info("Unregistered service " + serviceClass.getName());
+        }
+    }
+
+    @Override
+    public void unregisterAll(Module provider) {
+        for (ServiceHandleImpl<?> handle : handles.values()) {
+            if (handle.getProvider() != provider) {
+                continue;
+            }
+            unregister(handle.getServiceClass());
+        }
+    }
+
+    @Override
+    public <S> ServiceHandle<S> getHandle(Class<S> serviceClass) {
+        return handleOf(serviceClass);
+    }
+
+    @Override
+    public <S> S getService(Class<S> serviceClass) {
+        ServiceHandleImpl<?> handle = handles.get(serviceClass);
+        if (handle == null) {
+            return null;
+        }
+        return serviceClass.cast(handle.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> ServiceHandleImpl<S> handleOf(Class<S> serviceClass) {
+        return (ServiceHandleImpl<S>) handles.computeIfAbsent(serviceClass, ServiceHandleImpl::new);
+    }
+
+    private String nameOf(Module module) {
+        return module == null ? "unknown" : module.getClass().getSimpleName();
+    }
+}
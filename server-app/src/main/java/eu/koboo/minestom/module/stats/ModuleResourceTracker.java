@@ -0,0 +1,112 @@
+package eu.koboo.minestom.module.stats;
+
+import eu.koboo.minestom.api.module.stats.ModuleResourceStats;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Accounts listener time, task cpu time and allocations of a single module.
+ * Listener time is measured as wall time, because reading the thread cpu time costs a system call per event.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ModuleResourceTracker {
+
+    @Getter
+    String moduleName;
+
+    LongAdder listenerInvocations;
+    LongAdder listenerNanos;
+    AtomicLong maxListenerNanos;
+    LongAdder taskExecutions;
+    LongAdder taskCpuNanos;
+    LongAdder allocatedBytes;
+
+    // Totals at the end of the last budget window, only touched by the watchdog
+    @NonFinal
+    long lastListenerNanos;
+    @NonFinal
+    long lastTaskCpuNanos;
+    @NonFinal
+    long lastAllocatedBytes;
+
+    public ModuleResourceTracker(String moduleName) {
+        this.moduleName = moduleName;
+        this.listenerInvocations = new LongAdder();
+        this.listenerNanos = new LongAdder();
+        this.maxListenerNanos = new AtomicLong();
+        this.taskExecutions = new LongAdder();
+        this.taskCpuNanos = new LongAdder();
+        this.allocatedBytes = new LongAdder();
+    }
+
+    public <E> Consumer<E> wrapListener(Consumer<E> listener) {
+        return event -> {
+            long allocatedStart = ThreadClock.allocatedBytes();
+            long start = System.nanoTime();
+            try {
+                listener.accept(event);
+            } finally {
+                long duration = System.nanoTime() - start;
+                listenerInvocations.increment();
+                listenerNanos.add(duration);
+                if (duration > maxListenerNanos.get()) {
+                    maxListenerNanos.accumulateAndGet(duration, Math::max);
+                }
+                addAllocated(allocatedStart);
+            }
+        };
+    }
+
+    public void measureTask(Runnable task) {
+        long allocatedStart = ThreadClock.allocatedBytes();
+        long cpuStart = ThreadClock.cpuTime();
+        long wallStart = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            long cpuEnd = cpuStart < 0 ? -1 : ThreadClock.cpuTime();
+            // Virtual threads don't expose their cpu time, fall back to the wall time
+            taskCpuNanos.add(cpuEnd < 0 ? System.nanoTime() - wallStart : cpuEnd - cpuStart);
+            taskExecutions.increment();
+            addAllocated(allocatedStart);
+        }
+    }
+
+    public ModuleResourceStats getStats() {
+        return new ModuleResourceStats(moduleName,
+                listenerInvocations.sum(), listenerNanos.sum(), maxListenerNanos.get(),
+                taskExecutions.sum(), taskCpuNanos.sum(),
+                ThreadClock.isAllocationSupported() ? allocatedBytes.sum() : -1);
+    }
+
+    /**
+     * Close the current budget window.
+     * @return the usage since the last call as {listenerNanos, taskCpuNanos, allocatedBytes}
+     */
+    long[] nextWindow() {
+        long listener = listenerNanos.sum();
+        long task = taskCpuNanos.sum();
+        long allocated = allocatedBytes.sum();
+        long[] usage = {listener - lastListenerNanos, task - lastTaskCpuNanos, allocated - lastAllocatedBytes};
+        lastListenerNanos = listener;
+        lastTaskCpuNanos = task;
+        lastAllocatedBytes = allocated;
+        return usage;
+    }
+
+    private void addAllocated(long allocatedStart) {
+        if (allocatedStart < 0) {
+            return;
+        }
+        long allocatedEnd = ThreadClock.allocatedBytes();
+        if (allocatedEnd >= allocatedStart) {
+            allocatedBytes.add(allocatedEnd - allocatedStart);
+        }
+    }
+}
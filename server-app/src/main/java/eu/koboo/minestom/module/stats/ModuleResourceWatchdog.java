@@ -0,0 +1,88 @@
+package eu.koboo.minestom.module.stats;
+
+import eu.koboo.minestom.api.config.BudgetAction;
+import eu.koboo.minestom.api.config.ModuleBudget;
+import eu.koboo.minestom.api.module.Module;
+import eu.koboo.minestom.module.ModuleManagerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.timer.Task;
+import net.minestom.server.timer.TaskSchedule;
+import org.tinylog.Logger;
+
+import java.util.List;
+
+/**
+ * Checks the resource usage of every module once per second against the configured {@link ModuleBudget}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ModuleResourceWatchdog {
+
+    ModuleManagerImpl moduleManager;
+    @NonFinal
+    volatile ModuleBudget budget;
+    @NonFinal
+    Task task;
+
+    public ModuleResourceWatchdog(ModuleManagerImpl moduleManager, ModuleBudget budget) {
+        this.moduleManager = moduleManager;
+        this.budget = budget;
+    }
+
+    public void start() {
+        setBudget(budget);
+    }
+
+    /**
+     * Replace the budget, starts or stops the checks if the budget got enabled or disabled.
+     */
+    public synchronized void setBudget(ModuleBudget budget) {
+        this.budget = budget;
+        if (!budget.isEnabled()) {
+            if (task != null) {
+                task.cancel();
+                task = null;
+                Logger.info("Module budget disabled");
+            }
+            return;
+        }
+        if (task == null) {
+            task = MinecraftServer.getSchedulerManager().buildTask(this::check)
+                    .delay(TaskSchedule.seconds(1))
+                    .repeat(TaskSchedule.seconds(1))
+                    .schedule();
+        }
+        Logger.info("Module budget enabled (listener: " + budget.listenerMillis() + "ms/s, tasks: " + budget.taskMillis()
+                + "ms/s, allocations: " + budget.allocatedMegabytes() + "MB/s, action: " + budget.action() + ")");
+    }
+
+    private void check() {
+        ModuleBudget budget = this.budget;
+        // Copy, as disabling a module removes its tracker
+        for (ModuleResourceTracker tracker : List.copyOf(moduleManager.getResourceTrackers().values())) {
+            long[] usage = tracker.nextWindow();
+            String violation = null;
+            if (budget.listenerMillis() > 0 && usage[0] > budget.listenerMillis() * 1_000_000L) {
+                violation = "listener time " + usage[0] / 1_000_000L + "ms/s > " + budget.listenerMillis() + "ms/s";
+            } else if (budget.taskMillis() > 0 && usage[1] > budget.taskMillis() * 1_000_000L) {
+                violation = "task time " + usage[1] / 1_000_000L + "ms/s > " + budget.taskMillis() + "ms/s";
+            } else if (budget.allocatedMegabytes() > 0 && usage[2] > budget.allocatedMegabytes() * 1024L * 1024L) {
+                violation = "allocations " + usage[2] / (1024L * 1024L) + "MB/s > " + budget.allocatedMegabytes() + "MB/s";
+            }
+            if (violation == null) {
+                continue;
+            }
+            Logger.warn("Module " + tracker.getModuleName() + " exceeded its budget: " + violation);
+            if (budget.action() != BudgetAction.DISABLE) {
+                continue;
+            }
+            Module module = moduleManager.getModule(tracker.getModuleName());
+            if (module != null) {
+                Logger.warn("Disabling module " + tracker.getModuleName() + " because it exceeded its budget.");
+                moduleManager.disableModule(module);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package eu.koboo.minestom.module.stats;
+
+import org.tinylog.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Access to the cpu time and allocation counters of the current thread.
+ * Both return -1 if the JVM or the current thread (e.g. a virtual thread) does not support them.
+ */
+public class ThreadClock {
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean SUN_THREAD_BEAN;
+    private static final boolean CPU_TIME_SUPPORTED;
+    private static final boolean ALLOCATION_SUPPORTED;
+
+    static {
+        boolean cpuTimeSupported = false;
+        try {
+            if (THREAD_BEAN.isCurrentThreadCpuTimeSupported()) {
+                if (!THREAD_BEAN.isThreadCpuTimeEnabled()) {
+                    THREAD_BEAN.setThreadCpuTimeEnabled(true);
+                }
+                cpuTimeSupported = true;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            Logger.warn("Thread cpu time accounting is not available: " + e.getMessage());
+        }
+        CPU_TIME_SUPPORTED = cpuTimeSupported;
+
+        com.sun.management.ThreadMXBean sunThreadBean = null;
+        if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            try {
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                sunThreadBean = bean;
+            } catch (UnsupportedOperationException | SecurityException e) {
+                Logger.warn("Thread allocation accounting is not available: " + e.getMessage());
+            }
+        }
+        SUN_THREAD_BEAN = sunThreadBean;
+        ALLOCATION_SUPPORTED = sunThreadBean != null;
+    }
+
+    public static boolean isAllocationSupported() {
+        return ALLOCATION_SUPPORTED;
+    }
+
+    public static long cpuTime() {
+        if (!CPU_TIME_SUPPORTED) {
+            return -1;
+        }
+        return THREAD_BEAN.getCurrentThreadCpuTime();
+    }
+
+    public static long allocatedBytes() {
+        if (!ALLOCATION_SUPPORTED) {
+            return -1;
+        }
+        return SUN_THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+}
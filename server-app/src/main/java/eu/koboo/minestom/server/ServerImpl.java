@@ -1,38 +1,58 @@
 package eu.koboo.minestom.server;
 
+import eu.koboo.minestom.api.config.NetworkConfig;
 import eu.koboo.minestom.api.config.ServerConfig;
 import eu.koboo.minestom.api.module.ModuleManager;
 import eu.koboo.minestom.api.server.Server;
 import eu.koboo.minestom.api.world.World;
 import eu.koboo.minestom.api.world.dimension.Dimension;
-import eu.koboo.minestom.api.world.manager.WorldManager;
+import eu.koboo.minestom.commands.CommandCancel;
+import eu.koboo.minestom.commands.CommandJobs;
+import eu.koboo.minestom.commands.CommandJoins;
+import eu.koboo.minestom.commands.CommandProfiler;
+import eu.koboo.minestom.commands.CommandModules;
 import eu.koboo.minestom.commands.CommandStop;
 import eu.koboo.minestom.commands.CommandVersion;
 import eu.koboo.minestom.commands.CommandWorld;
 import eu.koboo.minestom.config.ConfigLoader;
+import eu.koboo.minestom.config.ConfigWatcher;
+import eu.koboo.minestom.console.CommandCompleter;
 import eu.koboo.minestom.console.Console;
 import eu.koboo.minestom.module.ModuleManagerImpl;
+import eu.koboo.minestom.module.stats.ModuleResourceWatchdog;
+import eu.koboo.minestom.server.boot.BootOrchestrator;
+import eu.koboo.minestom.server.boot.BootProfiler;
+import eu.koboo.minestom.server.join.JoinRouter;
+import eu.koboo.minestom.server.metrics.MetricsRegistry;
+import eu.koboo.minestom.server.metrics.MetricsServer;
+import eu.koboo.minestom.server.metrics.ServerMetrics;
+import eu.koboo.minestom.server.profiler.TickProfiler;
+import eu.koboo.minestom.server.shutdown.ShutdownSequence;
+import eu.koboo.minestom.server.world.ViewDistanceController;
 import eu.koboo.minestom.server.world.WorldManagerImpl;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
+import net.kyori.adventure.text.Component;
 import net.minestom.server.MinecraftServer;
-import net.minestom.server.coordinate.Pos;
 import net.minestom.server.event.GlobalEventHandler;
 import net.minestom.server.event.player.AsyncPlayerConfigurationEvent;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.event.player.PlayerSpawnEvent;
 import net.minestom.server.extras.MojangAuth;
 import net.minestom.server.extras.bungee.BungeeCordProxy;
 import net.minestom.server.extras.velocity.VelocityProxy;
-import net.minestom.server.instance.InstanceContainer;
 import net.minestom.server.instance.InstanceManager;
 import net.minestom.server.instance.anvil.AnvilLoader;
 import net.minestom.server.instance.block.Block;
-import net.minestom.server.permission.Permission;
 import net.minestom.server.world.DimensionType;
 import org.tinylog.Logger;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -41,21 +61,56 @@ import java.util.concurrent.locks.ReentrantLock;
 public class ServerImpl extends Server {
 
     public static boolean DEBUG = false;
+    // Default of Minestom's `minestom.tps` flag
+    private static final int DEFAULT_TICKS_PER_SECOND = 20;
 
     @Getter
     @NonFinal
     static ServerImpl instance;
 
-    ServerConfig serverConfig;
+    @NonFinal
+    volatile ServerConfig serverConfig;
 
     WorldManagerImpl worldManager;
     ModuleManagerImpl moduleManager;
 
     @Getter
-    Console console;
+    @NonFinal
+    volatile Console console;
+
+    @Getter
+    BootProfiler bootProfiler;
+
+    @Getter
+    @NonFinal
+    volatile ModuleResourceWatchdog resourceWatchdog;
+
+    ConfigWatcher configWatcher;
+    ShutdownSequence shutdownSequence;
+
+    @Getter
+    JoinRouter joinRouter;
+    @Getter
+    ViewDistanceController viewDistanceController;
+    // Modules can register their own collectors, they are only scraped if the endpoint is enabled
+    @Getter
+    MetricsRegistry metricsRegistry;
+    @Getter
+    TickProfiler tickProfiler;
+    @NonFinal
+    MetricsServer metricsServer;
+    // Resolved once, the default world can't be unloaded
+    @NonFinal
+    volatile World defaultWorld;
+    // Until the shutdown task is built, the JVM hook only writes the logs
+    @NonFinal
+    volatile boolean booted;
 
     public ServerImpl(String[] args) {
         super(args);
+        bootProfiler = new BootProfiler();
+        // Registered first, so the logs get written on every exit, even if the server stops while booting
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("ShutdownHook").unstarted(this::onJvmShutdown));
 
         if (Arrays.stream(args).anyMatch(s -> s.equalsIgnoreCase("--debug"))) {
             Logger.info("Debug mode enabled!");
@@ -66,79 +121,60 @@ public class ServerImpl extends Server {
         instance = this;
 
         Logger.info("Loading settings..");
-        serverConfig = ConfigLoader.loadConfig();
-
-        Logger.info("Initializing console..");
-        console = new Console();
+        serverConfig = bootProfiler.measure("config", ConfigLoader::loadConfig);
+        // Minestom reads these flags once, when MinecraftServer or ServerFlag is initialized.
+        // So they're set before anything else, which might touch one of them.
+        setSystemProperty("minestom.chunk-view-distance", serverConfig.chunkViewDistance());
+        setSystemProperty("minestom.entity-view-distance", serverConfig.entityViewDistance());
+        applyNetworkConfig(serverConfig.network());
 
         Logger.info("Initializing server..");
-        worldManager = new WorldManagerImpl();
-        moduleManager = new ModuleManagerImpl();
-
-        MinecraftServer minecraftServer = MinecraftServer.init();
-
-        moduleManager.enableAllModules();
-
-        MinecraftServer.getExceptionManager()
-                .setExceptionHandler(exc -> Logger.error("An unexpected error occurred! ", exc));
-
-        Logger.info("Registering commands..");
-        MinecraftServer.getCommandManager().register(new CommandStop());
-        MinecraftServer.getCommandManager().register(new CommandVersion());
-        MinecraftServer.getCommandManager().register(new CommandWorld());
+        worldManager = bootProfiler.measure("world-manager", () -> new WorldManagerImpl(serverConfig));
+        moduleManager = bootProfiler.measure("module-manager", () -> new ModuleManagerImpl(bootProfiler));
+        shutdownSequence = new ShutdownSequence(this, moduleManager, worldManager);
+        joinRouter = new JoinRouter(this, worldManager, serverConfig.join());
+        viewDistanceController = new ViewDistanceController(serverConfig.chunkViewDistance(), serverConfig.adaptiveView());
+        metricsRegistry = new MetricsRegistry();
+        tickProfiler = new TickProfiler();
 
         String host = serverConfig.host();
         int port = serverConfig.port();
-
-        MinecraftServer.setBrandName(this.getName());
-        MinecraftServer.setDifficulty(serverConfig.difficulty());
-
-        MinecraftServer.setCompressionThreshold(serverConfig.compressionThreshold());
-
-        setViewDistance("minestom.chunk-view-distance", serverConfig.chunkViewDistance());
-        setViewDistance("minestom.entity-view-distance", serverConfig.entityViewDistance());
-
-        switch (serverConfig.proxyMode()) {
-            case NONE -> {
-                if (serverConfig.onlineMode()) {
-                    MojangAuth.init();
-                    Logger.info("ProxyMode 'NONE', enabled MojangAuth.");
-                } else {
-                    if (Arrays.stream(args).noneMatch(s -> s.equalsIgnoreCase("--cracked"))) {
-                        Logger.warn("ProxyMode 'NONE', without MojangAuth.");
-                        Logger.warn("WARNING: This is not recommended, as it allows cracked clients to join!");
-                        Logger.warn("WARNING: Please enable MojangAuth or use a proxy, unless you know what you are doing!");
-                        Logger.warn("To disable this warning, start the server with --cracked");
-                    }
-                }
-            }
-            case VELOCITY -> {
-                if (serverConfig.velocitySecret() == null || serverConfig.velocitySecret().equalsIgnoreCase("")) {
-                    Logger.warn("ProxyMode 'VELOCITY' selected, but no proxy-secret set! Abort!");
-                    System.exit(0);
-                    break;
-                }
-                VelocityProxy.enable(serverConfig.velocitySecret());
-                Logger.info("ProxyMode 'VELOCITY', enabled VelocityProxy.");
-            }
-            case BUNGEECORD -> {
-                BungeeCordProxy.enable();
-                Logger.info("ProxyMode 'BUNGEECORD', enabled BungeeCordProxy.");
-            }
-        }
-        Logger.info("Starting @ " + host + ":" + port);
-
-        setupDefaultWorld();
-
-        Logger.info("Loading worlds..");
-        worldManager.loadAllAvailableWorlds();
-
-        minecraftServer.start(host, port);
+        AtomicReference<MinecraftServer> minecraftServer = new AtomicReference<>();
+
+        // Jar scanning and the world template don't need Minestom, so they run while it's initialized.
+        // Commands and the default world wait for the modules, which might register commands or listeners.
+        new BootOrchestrator(bootProfiler)
+                .phase("console", () -> console = new Console(serverConfig.console()))
+                .phase("module-scan", moduleManager::scanModules)
+                .phase("world-template", this::extractDefaultWorldTemplate)
+                .phase("minecraft-init", () -> minecraftServer.set(MinecraftServer.init()))
+                .phase("settings", this::applyMinecraftSettings, "minecraft-init")
+                .phase("module-enable", () -> {
+                    moduleManager.enableAllModules();
+                    resourceWatchdog = new ModuleResourceWatchdog(moduleManager, serverConfig.moduleBudget());
+                    resourceWatchdog.start();
+                }, "module-scan", "settings")
+                .phase("world-warmup", worldManager::prepareWorldConfigs, "world-template")
+                .phase("proxy", () -> setupProxy(args), "settings")
+                .phase("commands", this::registerCommands, "module-enable")
+                .phase("default-world", this::setupDefaultWorld, "world-template", "module-enable")
+                .phase("worlds", worldManager::loadAllAvailableWorlds, "default-world", "world-warmup")
+                .phase("bind", () -> {
+                    Logger.info("Starting @ " + host + ":" + port);
+                    minecraftServer.get().start(host, port);
+                }, "console", "commands", "proxy", "worlds")
+                .run();
         Logger.info("Listening on " + host + ":" + port);
 
         console.start();
 
+        configWatcher = new ConfigWatcher();
+        configWatcher.start();
+
+        startMetrics();
+
         MinecraftServer.getSchedulerManager().buildShutdownTask(buildShutdownTask());
+        booted = true;
         if (DEBUG) {
             Logger.info("Shutdown task built. Registered shutdown task.");
         }
@@ -148,6 +184,7 @@ public class ServerImpl extends Server {
         timeToStartInMillis = Math.round(timeToStartInMillis);
         timeToStartInMillis /= 100;
         Logger.info("Started in " + timeToStartInMillis + "s!");
+        bootProfiler.finish(getName(), getVersion());
 
 
     }
@@ -157,6 +194,21 @@ public class ServerImpl extends Server {
         return serverConfig;
     }
 
+    /**
+     * Replace the config after its live settings got applied, see {@link ConfigWatcher}.
+     */
+    public void setServerConfig(ServerConfig serverConfig) {
+        this.serverConfig = serverConfig;
+    }
+
+    /**
+     * Drain and stop the server, see {@link ShutdownSequence}. Calling it again returns the running shutdown.
+     * @return completes before Minestom gets stopped
+     */
+    public CompletableFuture<Void> shutdown() {
+        return shutdownSequence.start();
+    }
+
     @Override
     public String getName() {
         return ProjectVariables.NAME;
@@ -173,13 +225,24 @@ public class ServerImpl extends Server {
     }
 
     @Override
-    public WorldManager getWorldManager() {
+    public WorldManagerImpl getWorldManager() {
         return worldManager;
     }
 
     @Override
     public World getDefaulWorld() {
-        return worldManager.createWorld(WorldManagerImpl.DEFAULT_WORLD_NAME, Dimension.OVERWORLD);
+        World world = defaultWorld;
+        if (world == null) {
+            world = resolveDefaultWorld();
+        }
+        return world;
+    }
+
+    private synchronized World resolveDefaultWorld() {
+        if (defaultWorld == null) {
+            defaultWorld = worldManager.createWorld(WorldManagerImpl.DEFAULT_WORLD_NAME, Dimension.OVERWORLD);
+        }
+        return defaultWorld;
     }
 
     @Override
@@ -188,35 +251,143 @@ public class ServerImpl extends Server {
     }
 
     private void setupDefaultWorld() {
-        InstanceContainer instanceContainer = getDefaulWorld().getInstanceContainer();
+        worldManager.getLobbyReplicas().start(getDefaulWorld());
         GlobalEventHandler eventHandler = MinecraftServer.getGlobalEventHandler();
         eventHandler.addListener(AsyncPlayerConfigurationEvent.class, event -> {
-            if (DEBUG) {
-                Logger.info("Player " + event.getPlayer().getUsername() + " is spawning in default world.");
-            }
-            event.getPlayer().addPermission(new Permission("command.world"));
-            event.setSpawningInstance(instanceContainer);
-            event.getPlayer().setRespawnPoint(new Pos(0, 41, 0));
-            if (DEBUG) {
-                Logger.info("Player " + event.getPlayer().getUsername() + " spawned in default world.");
+            if (!shutdownSequence.isAcceptingLogins()) {
+                event.getPlayer().kick(Component.text(serverConfig.shutdown().kickMessage()));
+                return;
             }
+            joinRouter.onConfiguration(event);
         });
+        eventHandler.addListener(PlayerSpawnEvent.class, joinRouter::onSpawn);
+        eventHandler.addListener(PlayerDisconnectEvent.class, joinRouter::onDisconnect);
+        viewDistanceController.start();
+        tickProfiler.start();
+    }
+
+    private void onJvmShutdown() {
+        if (!booted) {
+            // Nothing to drain yet, e.g. on a config error, but logging has no hook of its own
+            ShutdownSequence.shutdownLogging();
+            return;
+        }
+        // Stopping the process, e.g. on a rolling restart, drains the server like the stop command
+        shutdown();
+        // The JVM halts after the hook, so wait for the logs of the stop too
+        shutdownSequence.getTermination().join();
     }
 
     private Runnable buildShutdownTask() {
         return () -> {
-            long startTime = System.nanoTime();
-            Logger.info("Saving worlds. This may take a while..");
-            worldManager.saveAllWorlds();
-            Logger.info("Saved all worlds in " + String.format("%.2f", (System.nanoTime() - startTime) / 1_000_000_000.0) + "s");
+            configWatcher.stop();
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
+            // Minestom got stopped without the sequence, so at least disable the modules and save the worlds
+            shutdown().join();
             Logger.info("Shutting down..");
         };
     }
 
-    private void setViewDistance(String key, int value) {
+    private void startMetrics() {
+        if (!serverConfig.metrics().enabled()) {
+            return;
+        }
+        ServerMetrics serverMetrics = new ServerMetrics(this, moduleManager);
+        serverMetrics.start();
+        metricsRegistry.register(serverMetrics);
+        metricsServer = new MetricsServer(serverConfig.metrics(), metricsRegistry);
+        metricsServer.start();
+    }
+
+    private void extractDefaultWorldTemplate() {
+        try {
+            worldManager.extractTemplate(WorldManagerImpl.DEFAULT_WORLD_NAME);
+        } catch (IOException e) {
+            Logger.error("Failed to extract the default world template", e);
+        }
+    }
+
+    private void applyMinecraftSettings() {
+        MinecraftServer.getExceptionManager()
+                .setExceptionHandler(exc -> Logger.error("An unexpected error occurred! ", exc));
+
+        MinecraftServer.setBrandName(this.getName());
+        MinecraftServer.setDifficulty(serverConfig.difficulty());
+
+        MinecraftServer.setCompressionThreshold(serverConfig.compressionThreshold());
+    }
+
+    private void registerCommands() {
+        Logger.info("Registering commands..");
+        MinecraftServer.getCommandManager().register(new CommandStop());
+        MinecraftServer.getCommandManager().register(new CommandVersion());
+        MinecraftServer.getCommandManager().register(new CommandWorld());
+        MinecraftServer.getCommandManager().register(new CommandModules());
+        MinecraftServer.getCommandManager().register(new CommandJobs());
+        MinecraftServer.getCommandManager().register(new CommandJoins());
+        MinecraftServer.getCommandManager().register(new CommandCancel());
+        MinecraftServer.getCommandManager().register(new CommandProfiler());
+        CommandCompleter.commandsChanged();
+    }
+
+    private void setupProxy(String[] args) {
+        switch (serverConfig.proxyMode()) {
+            case NONE -> {
+                if (serverConfig.onlineMode()) {
+                    MojangAuth.init();
+                    Logger.info("ProxyMode 'NONE', enabled MojangAuth.");
+                } else {
+                    if (Arrays.stream(args).noneMatch(s -> s.equalsIgnoreCase("--cracked"))) {
+                        Logger.warn("ProxyMode 'NONE', without MojangAuth.");
+                        Logger.warn("WARNING: This is not recommended, as it allows cracked clients to join!");
+                        Logger.warn("WARNING: Please enable MojangAuth or use a proxy, unless you know what you are doing!");
+                        Logger.warn("To disable this warning, start the server with --cracked");
+                    }
+                }
+            }
+            case VELOCITY -> {
+                if (serverConfig.velocitySecret() == null || serverConfig.velocitySecret().equalsIgnoreCase("")) {
+                    Logger.warn("ProxyMode 'VELOCITY' selected, but no proxy-secret set! Abort!");
+                    System.exit(0);
+                    break;
+                }
+                VelocityProxy.enable(serverConfig.velocitySecret());
+                Logger.info("ProxyMode 'VELOCITY', enabled VelocityProxy.");
+            }
+            case BUNGEECORD -> {
+                BungeeCordProxy.enable();
+                Logger.info("ProxyMode 'BUNGEECORD', enabled BungeeCordProxy.");
+            }
+        }
+    }
+
+    private void applyNetworkConfig(NetworkConfig network) {
+        setSystemProperty("minestom.workers", network.workers());
+        setSystemProperty("minestom.send-buffer-size", network.socketSendBuffer());
+        setSystemProperty("minestom.receive-buffer-size", network.socketReceiveBuffer());
+        setSystemProperty("minestom.tcp-no-delay", network.tcpNoDelay());
+        setSystemProperty("minestom.max-packet-size", network.maxPacketSize());
+        // Minestom limits the processed packets per tick, everything above waits for the next tick.
+        // Not MinecraftServer.TICK_PER_SECOND, reading it would initialize Minestom's flags before this one is set.
+        int ticksPerSecond = Math.max(1, Integer.getInteger("minestom.tps", DEFAULT_TICKS_PER_SECOND));
+        int packetsPerTick = network.packetRateLimit() == 0
+                ? Integer.MAX_VALUE
+                : Math.max(1, (network.packetRateLimit() + ticksPerSecond - 1) / ticksPerSecond);
+        setSystemProperty("minestom.packet-per-tick", packetsPerTick);
+        if (DEBUG) Logger.info("Network: " + network.workers() + " workers, send buffer " + network.socketSendBuffer()
+                + ", receive buffer " + network.socketReceiveBuffer() + ", tcp-no-delay " + network.tcpNoDelay()
+                + ", " + packetsPerTick + " packets/tick, max packet size " + network.maxPacketSize());
+    }
+
+    /**
+     * Set the system property, unless it was already set with `-D` on the command line.
+     */
+    private void setSystemProperty(String key, Object value) {
         if (System.getProperty(key) != null) {
             return;
         }
-        System.setProperty(key, Integer.valueOf(value).toString());
+        System.setProperty(key, String.valueOf(value));
     }
 }
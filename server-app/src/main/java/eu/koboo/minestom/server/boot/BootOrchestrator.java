@@ -0,0 +1,81 @@
+package eu.koboo.minestom.server.boot;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the startup phases as dependency graph.
+ * Every phase starts as soon as all of its dependencies are finished, so independent phases run concurrently.
+ * All phases get measured by the {@link BootProfiler}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BootOrchestrator {
+
+    BootProfiler profiler;
+    Map<String, Phase> phases;
+
+    public BootOrchestrator(BootProfiler profiler) {
+        this.profiler = profiler;
+        this.phases = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add a phase. Dependencies have to be added before the phases, which depend on them.
+     * @param name       name of the phase in the boot report
+     * @param action     the work of the phase
+     * @param dependsOn  names of the phases, which have to be finished first
+     */
+    public BootOrchestrator phase(String name, Runnable action, String... dependsOn) {
+        if (phases.containsKey(name)) {
+            throw new IllegalArgumentException("Boot phase " + name + " is already defined");
+        }
+        for (String dependency : dependsOn) {
+            if (!phases.containsKey(dependency)) {
+                throw new IllegalArgumentException("Boot phase " + name + " depends on unknown phase " + dependency);
+            }
+        }
+        phases.put(name, new Phase(name, action, List.of(dependsOn)));
+        return this;
+    }
+
+    /**
+     * Run all phases and wait until they are finished.
+     * If a phase fails, the phases depending on it are skipped and the failure is thrown.
+     */
+    public void run() {
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Boot-", 0).factory())) {
+            for (Phase phase : phases.values()) {
+                List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+                for (String dependency : phase.dependsOn()) {
+                    dependencies.add(futures.get(dependency));
+                }
+                CompletableFuture<Void> future = CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                        .thenRunAsync(() -> profiler.measure(phase.name(), phase.action()), executor);
+                futures.put(phase.name(), future);
+            }
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            String failedPhase = null;
+            for (Map.Entry<String, CompletableFuture<Void>> entry : futures.entrySet()) {
+                if (entry.getValue().isCompletedExceptionally()) {
+                    failedPhase = entry.getKey();
+                    break;
+                }
+            }
+            throw new IllegalStateException("Boot phase " + failedPhase + " failed", e.getCause());
+        }
+    }
+
+    private record Phase(String name, Runnable action, List<String> dependsOn) {
+    }
+}
@@ -0,0 +1,215 @@
+package eu.koboo.minestom.server.boot;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records the timeline of the server startup and writes it as boot report.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BootProfiler {
+
+    public static final String CATEGORY_SERVER = "server";
+    public static final String CATEGORY_MODULE = "module";
+
+    private static final Path REPORT_FILE = Path.of("logs", "boot-report.json");
+    private static final Path HISTORY_FILE = Path.of("logs", "boot-history.jsonl");
+    private static final int SUMMARY_SLOWEST_MODULE_PHASES = 5;
+
+    Instant startedAt;
+    long startNanos;
+    List<BootPhase> phases;
+
+    @NonFinal
+    volatile long totalNanos = -1;
+
+    public BootProfiler() {
+        this.startedAt = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.phases = new ArrayList<>();
+    }
+
+    /**
+     * Start a server phase. The phase gets recorded, once the returned timer gets closed.
+     */
+    public Timer start(String name) {
+        return start(CATEGORY_SERVER, name);
+    }
+
+    public Timer start(String category, String name) {
+        return new Timer(category, name, System.nanoTime());
+    }
+
+    public void measure(String name, Runnable runnable) {
+        try (Timer ignored = start(name)) {
+            runnable.run();
+        }
+    }
+
+    public <T> T measure(String name, Supplier<T> supplier) {
+        try (Timer ignored = start(name)) {
+            return supplier.get();
+        }
+    }
+
+    public void record(String category, String name, long phaseStartNanos, long durationNanos) {
+        if (isFinished()) {
+            return;
+        }
+        BootPhase phase = new BootPhase(category, name, Thread.currentThread().getName(),
+                phaseStartNanos - startNanos, durationNanos);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+    }
+
+    public boolean isFinished() {
+        return totalNanos >= 0;
+    }
+
+    public List<BootPhase> getPhases() {
+        synchronized (phases) {
+            return List.copyOf(phases);
+        }
+    }
+
+    /**
+     * Stop recording, log the summary and write the report files.
+     */
+    public void finish(String name, String version) {
+        if (isFinished()) {
+            return;
+        }
+        totalNanos = System.nanoTime() - startNanos;
+        List<BootPhase> recorded = getPhases();
+        logSummary(recorded);
+
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            Files.writeString(REPORT_FILE, toJson(name, version, recorded, true), StandardCharsets.UTF_8);
+            Files.writeString(HISTORY_FILE, toJson(name, version, recorded, false) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            Logger.error("Failed to write boot report", e);
+        }
+    }
+
+    private void logSummary(List<BootPhase> recorded) {
+        Logger.info("Boot timeline (" + formatMillis(totalNanos) + " total):");
+        // Phases can overlap, so they are listed by their start instead of their end
+        List<BootPhase> serverPhases = recorded.stream()
+                .filter(phase -> phase.category().equals(CATEGORY_SERVER))
+                .sorted(Comparator.comparingLong(BootPhase::offsetNanos))
+                .toList();
+        for (BootPhase phase : serverPhases) {
+            Logger.info(String.format("  %-20s %10s  (+%s)", phase.name(), formatMillis(phase.durationNanos()), formatMillis(phase.offsetNanos())));
+        }
+        List<BootPhase> slowestModulePhases = recorded.stream()
+                .filter(phase -> phase.category().equals(CATEGORY_MODULE))
+                .sorted(Comparator.comparingLong(BootPhase::durationNanos).reversed())
+                .limit(SUMMARY_SLOWEST_MODULE_PHASES)
+                .toList();
+        if (slowestModulePhases.isEmpty()) {
+            return;
+        }
+        Logger.info("Slowest module phases:");
+        for (BootPhase phase : slowestModulePhases) {
+            Logger.info(String.format("  %-40s %10s", phase.name(), formatMillis(phase.durationNanos())));
+        }
+    }
+
+    private String toJson(String name, String version, List<BootPhase> recorded, boolean pretty) {
+        String newLine = pretty ? "\n" : "";
+        String indent = pretty ? "  " : "";
+        StringBuilder builder = new StringBuilder(256 + recorded.size() * 128);
+        builder.append('{').append(newLine);
+        builder.append(indent).append("\"server\": \"").append(escape(name)).append("\",").append(newLine);
+        builder.append(indent).append("\"version\": \"").append(escape(version)).append("\",").append(newLine);
+        builder.append(indent).append("\"startedAt\": \"").append(startedAt).append("\",").append(newLine);
+        builder.append(indent).append("\"totalMillis\": ").append(toMillis(totalNanos)).append(',').append(newLine);
+        builder.append(indent).append("\"phases\": [");
+        for (int i = 0; i < recorded.size(); i++) {
+            BootPhase phase = recorded.get(i);
+            builder.append(i == 0 ? "" : ",").append(newLine).append(indent).append(indent);
+            builder.append("{\"category\": \"").append(escape(phase.category()))
+                    .append("\", \"name\": \"").append(escape(phase.name()))
+                    .append("\", \"thread\": \"").append(escape(phase.thread()))
+                    .append("\", \"startMillis\": ").append(toMillis(phase.offsetNanos()))
+                    .append(", \"durationMillis\": ").append(toMillis(phase.durationNanos()))
+                    .append('}');
+        }
+        builder.append(newLine).append(indent).append(']').append(newLine).append('}');
+        return builder.toString();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    public record BootPhase(String category, String name, String thread, long offsetNanos, long durationNanos) {
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public class Timer implements AutoCloseable {
+
+        @Getter
+        String category;
+        @Getter
+        String name;
+        long phaseStartNanos;
+
+        private Timer(String category, String name, long phaseStartNanos) {
+            this.category = category;
+            this.name = name;
+            this.phaseStartNanos = phaseStartNanos;
+        }
+
+        @Override
+        public void close() {
+            record(category, name, phaseStartNanos, System.nanoTime() - phaseStartNanos);
+        }
+    }
+}
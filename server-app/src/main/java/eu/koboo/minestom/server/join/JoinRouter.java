@@ -0,0 +1,198 @@
+package eu.koboo.minestom.server.join;
+
+import eu.koboo.minestom.api.config.JoinConfig;
+import eu.koboo.minestom.api.config.SpawnPolicy;
+import eu.koboo.minestom.api.world.World;
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.world.LobbyReplicas;
+import eu.koboo.minestom.server.world.WorldManagerImpl;
+import eu.koboo.minestom.stats.LatencyHistogram;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.player.AsyncPlayerConfigurationEvent;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.event.player.PlayerSpawnEvent;
+import net.minestom.server.permission.Permission;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects the world of every joining player by the {@link SpawnPolicy} of the config.
+ * The join worlds are resolved into {@link SpawnTarget}s once and only resolved again, if worlds got loaded or unloaded
+ * or a spawn point got set.
+ * The time from the configuration until the first spawn of every player is recorded as join latency.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JoinRouter {
+
+    private static final Permission WORLD_PERMISSION = new Permission("command.world");
+
+    ServerImpl server;
+    WorldManagerImpl worldManager;
+    @Getter
+    LatencyHistogram joinLatency;
+    Map<UUID, PendingJoin> pendingJoins;
+    AtomicInteger nextTarget;
+
+    @Getter
+    @NonFinal
+    volatile JoinConfig config;
+    @NonFinal
+    volatile SpawnTarget[] targets;
+    // Worlds version of the manager, the targets got resolved at
+    @NonFinal
+    volatile int targetsVersion = -1;
+    // Spawn points version of the worlds, the targets got resolved at
+    @NonFinal
+    volatile int targetsSpawnVersion = -1;
+
+    public JoinRouter(ServerImpl server, WorldManagerImpl worldManager, JoinConfig config) {
+        this.server = server;
+        this.worldManager = worldManager;
+        this.config = config;
+        this.joinLatency = new LatencyHistogram();
+        this.pendingJoins = new ConcurrentHashMap<>();
+        this.nextTarget = new AtomicInteger();
+        this.targets = new SpawnTarget[0];
+    }
+
+    public void setConfig(JoinConfig config) {
+        this.config = config;
+        targetsVersion = -1;
+    }
+
+    public void onConfiguration(AsyncPlayerConfigurationEvent event) {
+        long startTime = System.nanoTime();
+        Player player = event.getPlayer();
+        SpawnTarget target = route(player.getUuid());
+        target.pending().incrementAndGet();
+        PendingJoin previous = pendingJoins.put(player.getUuid(), new PendingJoin(startTime, target));
+        if (previous != null) {
+            previous.target().pending().decrementAndGet();
+        }
+        player.addPermission(WORLD_PERMISSION);
+        event.setSpawningInstance(target.instance());
+        player.setRespawnPoint(target.spawnPoint());
+        if (ServerImpl.DEBUG) Logger.info("Player " + player.getUsername() + " is spawning in world " + target.world().getName() + ".");
+    }
+
+    public void onSpawn(PlayerSpawnEvent event) {
+        if (!event.isFirstSpawn()) {
+            return;
+        }
+        PendingJoin pendingJoin = pendingJoins.remove(event.getPlayer().getUuid());
+        if (pendingJoin == null) {
+            return;
+        }
+        pendingJoin.target().pending().decrementAndGet();
+        joinLatency.record(System.nanoTime() - pendingJoin.startNanos());
+    }
+
+    public void onDisconnect(PlayerDisconnectEvent event) {
+        PendingJoin pendingJoin = pendingJoins.remove(event.getPlayer().getUuid());
+        if (pendingJoin != null) {
+            pendingJoin.target().pending().decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the world or lobby replica for the joining player
+     */
+    public SpawnTarget route(UUID uuid) {
+        SpawnTarget[] current = getTargets();
+        SpawnTarget target = current.length == 1 ? current[0] : switch (config.policy()) {
+            case DEFAULT -> current[0];
+            case ROUND_ROBIN -> current[Math.floorMod(nextTarget.getAndIncrement(), current.length)];
+            case LEAST_PLAYERS -> {
+                SpawnTarget least = current[0];
+                int leastLoad = getLoad(current, 0);
+                for (int i = 1; i < current.length; i++) {
+                    int load = getLoad(current, i);
+                    if (load < leastLoad) {
+                        least = current[i];
+                        leastLoad = load;
+                    }
+                }
+                yield least;
+            }
+        };
+        LobbyReplicas lobbyReplicas = worldManager.getLobbyReplicas();
+        if (target == current[0] && lobbyReplicas.isStarted()) {
+            return lobbyReplicas.route(uuid);
+        }
+        return target;
+    }
+
+    /**
+     * The default world counts the players per lobby replica, as they are spread across them.
+     */
+    private int getLoad(SpawnTarget[] current, int index) {
+        if (index == 0 && worldManager.getLobbyReplicas().isStarted()) {
+            return worldManager.getLobbyReplicas().getAverageLoad();
+        }
+        return current[index].getLoad();
+    }
+
+    /**
+     * @return the join worlds, the default world is always the first one
+     */
+    public SpawnTarget[] getTargets() {
+        int version = worldManager.getWorldsVersion();
+        int spawnVersion = World.getSpawnPointsVersion();
+        if (version != targetsVersion || spawnVersion != targetsSpawnVersion) {
+            synchronized (this) {
+                if (version != targetsVersion || spawnVersion != targetsSpawnVersion) {
+                    targets = resolveTargets();
+                    targetsVersion = version;
+                    targetsSpawnVersion = spawnVersion;
+                }
+            }
+        }
+        return targets;
+    }
+
+    private SpawnTarget[] resolveTargets() {
+        JoinConfig currentConfig = config;
+        List<SpawnTarget> resolved = new ArrayList<>();
+        World defaultWorld = server.getDefaulWorld();
+        resolved.add(reuseOrCreate(defaultWorld));
+        if (currentConfig.policy() != SpawnPolicy.DEFAULT) {
+            for (String name : currentConfig.worlds()) {
+                World world = worldManager.getWorld(name);
+                if (world == null) {
+                    if (ServerImpl.DEBUG) Logger.warn("Join world " + name + " is not loaded, skipping it");
+                    continue;
+                }
+                if (world != defaultWorld) {
+                    resolved.add(reuseOrCreate(world));
+                }
+            }
+        }
+        return resolved.toArray(new SpawnTarget[0]);
+    }
+
+    /**
+     * Keep the target of a world, which is still loaded, so its pending players are still counted.
+     */
+    private SpawnTarget reuseOrCreate(World world) {
+        for (SpawnTarget target : targets) {
+            if (target.world() == world && target.instance() == world.getInstanceContainer()
+                    && target.spawnPoint().equals(world.getSpawnPoint())) {
+                return target;
+            }
+        }
+        return SpawnTarget.of(world);
+    }
+
+    private record PendingJoin(long startNanos, SpawnTarget target) {
+    }
+}
@@ -0,0 +1,32 @@
+package eu.koboo.minestom.server.join;
+
+import eu.koboo.minestom.api.world.World;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.instance.Instance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * World, which joining players can spawn in. Resolved once, so a join doesn't look anything up.
+ * @param world       the world
+ * @param instance    instance of the world or of a lobby replica
+ * @param spawnPoint  spawn and respawn point of the players
+ * @param pending     players, which got routed to the world but haven't spawned yet
+ */
+public record SpawnTarget(World world, Instance instance, Pos spawnPoint, AtomicInteger pending) {
+
+    public static SpawnTarget of(World world) {
+        return new SpawnTarget(world, world.getInstanceContainer(), world.getSpawnPoint(), new AtomicInteger());
+    }
+
+    /**
+     * @return the same target with another spawn point, joining players are still counted by it
+     */
+    public SpawnTarget withSpawnPoint(Pos spawnPoint) {
+        return new SpawnTarget(world, instance, spawnPoint, pending);
+    }
+
+    public int getLoad() {
+        return instance.getPlayers().size() + pending.get();
+    }
+}
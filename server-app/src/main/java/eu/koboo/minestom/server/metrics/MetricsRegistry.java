@@ -0,0 +1,56 @@
+package eu.koboo.minestom.server.metrics;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.tinylog.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects the metrics of the server on every scrape.
+ * Components keep their own counters, like {@link java.util.concurrent.atomic.LongAdder}s and
+ * {@link eu.koboo.minestom.stats.LatencyHistogram}s, and only read them in their collector,
+ * so recording a value never waits for a scrape.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MetricsRegistry {
+
+    List<Collector> collectors;
+
+    public MetricsRegistry() {
+        this.collectors = new CopyOnWriteArrayList<>();
+    }
+
+    public void register(Collector collector) {
+        collectors.add(collector);
+    }
+
+    public void unregister(Collector collector) {
+        collectors.remove(collector);
+    }
+
+    /**
+     * @return all metrics in the Prometheus text format
+     */
+    public String scrape() {
+        StringBuilder builder = new StringBuilder(8192);
+        PrometheusWriter writer = new PrometheusWriter(builder);
+        for (Collector collector : collectors) {
+            int length = builder.length();
+            try {
+                collector.collect(writer);
+            } catch (RuntimeException e) {
+                // Drop the partial output, so one failing collector doesn't break the whole scrape
+                builder.setLength(length);
+                Logger.warn("Metrics collector " + collector.getClass().getName() + " failed: " + e);
+            }
+        }
+        return builder.toString();
+    }
+
+    @FunctionalInterface
+    public interface Collector {
+        void collect(PrometheusWriter writer);
+    }
+}
@@ -0,0 +1,87 @@
+package eu.koboo.minestom.server.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import eu.koboo.minestom.api.config.MetricsConfig;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link MetricsRegistry} on `/metrics` with the HTTP server of the JDK.
+ * Every scrape runs on its own virtual thread and never touches the tick thread.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MetricsServer {
+
+    private static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    MetricsConfig config;
+    MetricsRegistry registry;
+
+    @NonFinal
+    HttpServer httpServer;
+    @NonFinal
+    ExecutorService executor;
+
+    public MetricsServer(MetricsConfig config, MetricsRegistry registry) {
+        this.config = config;
+        this.registry = registry;
+    }
+
+    public synchronized void start() {
+        try {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Metrics-", 0).factory());
+            httpServer = HttpServer.create(new InetSocketAddress(config.host(), config.port()), 0);
+            httpServer.setExecutor(executor);
+            httpServer.createContext(PATH, this::handle);
+            httpServer.start();
+            Logger.info("Serving metrics on http://" + config.host() + ":" + config.port() + PATH);
+        } catch (IOException e) {
+            Logger.error("Couldn't start the metrics endpoint on " + config.host() + ":" + config.port(), e);
+            executor.shutdownNow();
+            httpServer = null;
+            executor = null;
+        }
+    }
+
+    public synchronized void stop() {
+        if (httpServer == null) {
+            return;
+        }
+        httpServer.stop(0);
+        executor.shutdownNow();
+        httpServer = null;
+        executor = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        }
+    }
+}
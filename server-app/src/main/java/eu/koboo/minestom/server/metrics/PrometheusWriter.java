@@ -0,0 +1,142 @@
+package eu.koboo.minestom.server.metrics;
+
+import eu.koboo.minestom.stats.LatencyHistogram;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4).
+ * All samples of a metric have to follow its {@link #family} line, labels are given as name/value pairs.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PrometheusWriter {
+
+    StringBuilder builder;
+
+    public PrometheusWriter(StringBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Start a metric.
+     * @param name  name of the metric, e.g. `templatestom_players`
+     * @param type  `counter`, `gauge` or `histogram`
+     * @param help  description of the metric
+     */
+    public PrometheusWriter family(String name, String type, String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value) {
+        return family(name, "gauge", help).sample(name, value);
+    }
+
+    public PrometheusWriter counter(String name, String help, double value) {
+        return family(name, "counter", help).sample(name, value);
+    }
+
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        builder.append(name);
+        appendLabels(labels, null, null);
+        builder.append(' ');
+        appendValue(value);
+        builder.append('\n');
+        return this;
+    }
+
+    /**
+     * Write the buckets, the sum and the count of a histogram in seconds.
+     * The buckets of the {@link LatencyHistogram} are merged into the given bounds.
+     * @param bounds  upper bounds of the buckets in seconds, ascending
+     */
+    public PrometheusWriter histogram(String name, LatencyHistogram histogram, double[] bounds, String... labels) {
+        long[] boundNanos = new long[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            boundNanos[i] = (long) (bounds[i] * 1_000_000_000L);
+        }
+        long[] cumulative = new long[bounds.length];
+        long[] total = new long[1];
+        histogram.forEachBucket((upperBoundNanos, cumulativeCount) -> {
+            for (int i = 0; i < boundNanos.length; i++) {
+                if (upperBoundNanos <= boundNanos[i]) {
+                    cumulative[i] = cumulativeCount;
+                }
+            }
+            total[0] = cumulativeCount;
+        });
+        // Buckets are filled in ascending order, so an empty bound takes the count of the bound before
+        for (int i = 1; i < cumulative.length; i++) {
+            cumulative[i] = Math.max(cumulative[i], cumulative[i - 1]);
+        }
+        for (int i = 0; i < bounds.length; i++) {
+            builder.append(name).append("_bucket");
+            appendLabels(labels, "le", formatValue(bounds[i]));
+            builder.append(' ').append(cumulative[i]).append('\n');
+        }
+        builder.append(name).append("_bucket");
+        appendLabels(labels, "le", "+Inf");
+        builder.append(' ').append(total[0]).append('\n');
+        builder.append(name).append("_sum");
+        appendLabels(labels, null, null);
+        builder.append(' ');
+        appendValue(histogram.getSumNanos() / 1_000_000_000.0);
+        builder.append('\n');
+        builder.append(name).append("_count");
+        appendLabels(labels, null, null);
+        builder.append(' ').append(total[0]).append('\n');
+        return this;
+    }
+
+    private void appendLabels(String[] labels, String extraName, String extraValue) {
+        if (labels.length == 0 && extraName == null) {
+            return;
+        }
+        builder.append('{');
+        boolean first = true;
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            appendLabel(first, labels[i], labels[i + 1]);
+            first = false;
+        }
+        if (extraName != null) {
+            appendLabel(first, extraName, extraValue);
+        }
+        builder.append('}');
+    }
+
+    private void appendLabel(boolean first, String name, String value) {
+        if (!first) {
+            builder.append(',');
+        }
+        builder.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> builder.append("\\\\");
+                case '"' -> builder.append("\\\"");
+                case '\n' -> builder.append("\\n");
+                default -> builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+
+    private void appendValue(double value) {
+        builder.append(formatValue(value));
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        // Most values are counts, which shouldn't be printed as 12.0
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
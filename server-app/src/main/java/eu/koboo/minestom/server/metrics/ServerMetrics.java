@@ -0,0 +1,241 @@
+package eu.koboo.minestom.server.metrics;
+
+import eu.koboo.minestom.api.module.stats.ModuleResourceStats;
+import eu.koboo.minestom.api.world.World;
+import eu.koboo.minestom.console.RingBufferWriter;
+import eu.koboo.minestom.module.ModuleManagerImpl;
+import eu.koboo.minestom.module.stats.ModuleResourceTracker;
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.world.ViewDistanceController;
+import eu.koboo.minestom.server.world.WorldManagerImpl;
+import eu.koboo.minestom.server.world.chunk.ChunkPacketCache;
+import eu.koboo.minestom.server.world.chunk.OffHeapChunkStore;
+import eu.koboo.minestom.stats.LatencyHistogram;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.event.server.ServerTickMonitorEvent;
+import net.minestom.server.instance.InstanceContainer;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in metrics of the server: ticks, players, worlds, saves, joins, modules, caches, logging and the JVM.
+ * Only the tick time is recorded for the metrics, everything else is read from the components on a scrape.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ServerMetrics implements MetricsRegistry.Collector {
+
+    private static final String PREFIX = "templatestom_";
+    private static final double[] TICK_BUCKETS = {0.005, 0.01, 0.02, 0.03, 0.04, 0.05, 0.075, 0.1, 0.25, 0.5, 1};
+    private static final double[] LATENCY_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    private static final long TPS_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    ServerImpl server;
+    ModuleManagerImpl moduleManager;
+    LatencyHistogram tickTime;
+    LongAdder ticks;
+
+    // Only written by the tick thread
+    @NonFinal
+    long windowStartNanos;
+    @NonFinal
+    int windowTicks;
+    @NonFinal
+    volatile double ticksPerSecond;
+    @NonFinal
+    volatile double lastTickMillis;
+    @NonFinal
+    volatile long lastTickNanos;
+
+    public ServerMetrics(ServerImpl server, ModuleManagerImpl moduleManager) {
+        this.server = server;
+        this.moduleManager = moduleManager;
+        this.tickTime = new LatencyHistogram();
+        this.ticks = new LongAdder();
+    }
+
+    public void start() {
+        windowStartNanos = System.nanoTime();
+        lastTickNanos = windowStartNanos;
+        MinecraftServer.getGlobalEventHandler().addListener(ServerTickMonitorEvent.class, event -> {
+            double tickMillis = event.getTickMonitor().getTickTime();
+            tickTime.record((long) (tickMillis * 1_000_000));
+            ticks.increment();
+            lastTickMillis = tickMillis;
+            windowTicks++;
+            long now = System.nanoTime();
+            lastTickNanos = now;
+            if (now - windowStartNanos >= TPS_WINDOW_NANOS) {
+                ticksPerSecond = windowTicks * 1_000_000_000.0 / (now - windowStartNanos);
+                windowTicks = 0;
+                windowStartNanos = now;
+            }
+        });
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        collectTicks(writer);
+        collectWorlds(writer);
+        collectModules(writer);
+        collectCaches(writer);
+        collectLogs(writer);
+        collectJvm(writer);
+    }
+
+    private void collectTicks(PrometheusWriter writer) {
+        writer.counter(PREFIX + "ticks_total", "Ticks of the server", ticks.sum());
+        // Without a tick in the last second, e.g. while the tick loop stalls, the last window is outdated
+        double tps = System.nanoTime() - lastTickNanos >= TPS_WINDOW_NANOS ? 0 : ticksPerSecond;
+        writer.gauge(PREFIX + "tps", "Ticks per second, measured over the last second", tps);
+        writer.gauge(PREFIX + "mspt", "Milliseconds the last tick took", lastTickMillis);
+        writer.family(PREFIX + "tick_duration_seconds", "histogram", "Time of the ticks")
+                .histogram(PREFIX + "tick_duration_seconds", tickTime, TICK_BUCKETS);
+    }
+
+    private void collectWorlds(PrometheusWriter writer) {
+        WorldManagerImpl worldManager = server.getWorldManager();
+        List<World> worlds = new ArrayList<>();
+        // A snapshot of the concurrent map, worlds are loaded and unloaded while the metrics are scraped
+        for (World world : worldManager.getWorlds()) {
+            if (world.getInstanceContainer() != null) {
+                worlds.add(world);
+            }
+        }
+        writer.gauge(PREFIX + "players", "Players online", MinecraftServer.getConnectionManager().getOnlinePlayerCount());
+        writer.gauge(PREFIX + "worlds", "Loaded worlds", worlds.size());
+        writer.gauge(PREFIX + "lobby_replicas", "Replicas of the default world", worldManager.getLobbyReplicas().getReplicas().size());
+
+        writer.family(PREFIX + "world_players", "gauge", "Players in the world");
+        for (World world : worlds) {
+            writer.sample(PREFIX + "world_players", world.getInstanceContainer().getPlayers().size(), "world", world.getName());
+        }
+        writer.family(PREFIX + "world_chunks", "gauge", "Loaded chunks of the world");
+        for (World world : worlds) {
+            writer.sample(PREFIX + "world_chunks", world.getInstanceContainer().getChunks().size(), "world", world.getName());
+        }
+        writer.family(PREFIX + "world_entities", "gauge", "Entities in the world, including players");
+        for (World world : worlds) {
+            writer.sample(PREFIX + "world_entities", world.getInstanceContainer().getEntities().size(), "world", world.getName());
+        }
+        ViewDistanceController viewDistanceController = server.getViewDistanceController();
+        writer.family(PREFIX + "world_view_distance_chunks", "gauge", "Chunk view-distance of the world");
+        for (World world : worlds) {
+            InstanceContainer instance = world.getInstanceContainer();
+            writer.sample(PREFIX + "world_view_distance_chunks", viewDistanceController.getDistance(instance), "world", world.getName());
+        }
+
+        writer.family(PREFIX + "world_save_duration_seconds", "histogram", "Time to save the chunks of a world")
+                .histogram(PREFIX + "world_save_duration_seconds", worldManager.getSaveLatency(), LATENCY_BUCKETS);
+        writer.family(PREFIX + "join_latency_seconds", "histogram", "Time from the configuration until the first spawn of a player")
+                .histogram(PREFIX + "join_latency_seconds", server.getJoinRouter().getJoinLatency(), LATENCY_BUCKETS);
+    }
+
+    private void collectModules(PrometheusWriter writer) {
+        List<ModuleResourceStats> stats = new ArrayList<>();
+        for (ModuleResourceTracker tracker : List.copyOf(moduleManager.getResourceTrackers().values())) {
+            stats.add(tracker.getStats());
+        }
+        writer.family(PREFIX + "module_listener_invocations_total", "counter", "Event listener calls of the module");
+        for (ModuleResourceStats stat : stats) {
+            writer.sample(PREFIX + "module_listener_invocations_total", stat.listenerInvocations(), "module", stat.moduleName());
+        }
+        writer.family(PREFIX + "module_listener_seconds_total", "counter", "Time spent in the event listeners of the module");
+        for (ModuleResourceStats stat : stats) {
+            writer.sample(PREFIX + "module_listener_seconds_total", stat.listenerTimeNanos() / 1_000_000_000.0, "module", stat.moduleName());
+        }
+        writer.family(PREFIX + "module_listener_max_seconds", "gauge", "Longest event listener call of the module");
+        for (ModuleResourceStats stat : stats) {
+            writer.sample(PREFIX + "module_listener_max_seconds", stat.maxListenerTimeNanos() / 1_000_000_000.0, "module", stat.moduleName());
+        }
+        writer.family(PREFIX + "module_task_executions_total", "counter", "Scheduled task runs of the module");
+        for (ModuleResourceStats stat : stats) {
+            writer.sample(PREFIX + "module_task_executions_total", stat.taskExecutions(), "module", stat.moduleName());
+        }
+        writer.family(PREFIX + "module_task_cpu_seconds_total", "counter", "Cpu time of the scheduled tasks of the module");
+        for (ModuleResourceStats stat : stats) {
+            writer.sample(PREFIX + "module_task_cpu_seconds_total", stat.taskCpuTimeNanos() / 1_000_000_000.0, "module", stat.moduleName());
+        }
+        writer.family(PREFIX + "module_allocated_bytes_total", "counter", "Bytes allocated by the listeners and tasks of the module");
+        for (ModuleResourceStats stat : stats) {
+            // Not supported by every JVM
+            if (stat.allocatedBytes() >= 0) {
+                writer.sample(PREFIX + "module_allocated_bytes_total", stat.allocatedBytes(), "module", stat.moduleName());
+            }
+        }
+    }
+
+    private void collectCaches(PrometheusWriter writer) {
+        WorldManagerImpl worldManager = server.getWorldManager();
+        ChunkPacketCache chunkPacketCache = worldManager.getChunkPacketCache();
+        if (chunkPacketCache != null) {
+            ChunkPacketCache.Stats stats = chunkPacketCache.getStats();
+            writer.gauge(PREFIX + "chunk_packet_cache_entries", "Chunk packets in the shared cache", stats.entries());
+            writer.gauge(PREFIX + "chunk_packet_cache_bytes", "Bytes of the chunk packets in the shared cache", stats.bytes());
+            writer.counter(PREFIX + "chunk_packet_cache_hits_total", "Chunk packets taken from the shared cache", stats.hits());
+            writer.counter(PREFIX + "chunk_packet_cache_misses_total", "Chunk packets encoded for the shared cache", stats.misses());
+            writer.counter(PREFIX + "chunk_packet_cache_evictions_total", "Chunk packets evicted from the shared cache", stats.evictions());
+        }
+
+        Map<String, OffHeapChunkStore> stores = Map.copyOf(worldManager.getOffHeapStores());
+        if (stores.isEmpty()) {
+            return;
+        }
+        Map<String, OffHeapChunkStore.Stats> stats = new TreeMap<>();
+        stores.forEach((name, store) -> stats.put(name, store.getStats()));
+        writer.family(PREFIX + "offheap_parked_chunks", "gauge", "Idle chunks of the world kept off-heap");
+        stats.forEach((name, stat) -> writer.sample(PREFIX + "offheap_parked_chunks", stat.parkedChunks(), "world", name));
+        writer.family(PREFIX + "offheap_parked_bytes", "gauge", "Off-heap bytes of the parked chunks of the world");
+        stats.forEach((name, stat) -> writer.sample(PREFIX + "offheap_parked_bytes", stat.parkedBytes(), "world", name));
+        writer.family(PREFIX + "offheap_pooled_bytes", "gauge", "Off-heap bytes pooled for parking chunks of the world");
+        stats.forEach((name, stat) -> writer.sample(PREFIX + "offheap_pooled_bytes", stat.pooledBytes(), "world", name));
+    }
+
+    private void collectLogs(PrometheusWriter writer) {
+        RingBufferWriter.Stats stats = RingBufferWriter.getStats();
+        writer.counter(PREFIX + "log_entries_queued_total", "Log entries put into the ring buffer", stats.queued());
+        writer.counter(PREFIX + "log_entries_written_total", "Log entries written by the log writer", stats.written());
+        writer.counter(PREFIX + "log_entries_dropped_total", "Log entries dropped by the overflow policy", stats.dropped());
+        writer.gauge(PREFIX + "log_entries_pending", "Log entries waiting in the ring buffer", stats.pending());
+    }
+
+    private void collectJvm(PrometheusWriter writer) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        writer.family("jvm_memory_used_bytes", "gauge", "Used memory of the JVM")
+                .sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap")
+                .sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        writer.family("jvm_memory_committed_bytes", "gauge", "Committed memory of the JVM")
+                .sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap")
+                .sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        writer.gauge("jvm_memory_max_bytes", "Maximum heap memory of the JVM", heap.getMax());
+
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        writer.family("jvm_gc_collections_total", "counter", "Runs of the garbage collector");
+        for (GarbageCollectorMXBean collector : collectors) {
+            writer.sample("jvm_gc_collections_total", Math.max(0, collector.getCollectionCount()), "gc", collector.getName());
+        }
+        writer.family("jvm_gc_collection_seconds_total", "counter", "Time spent in the garbage collector");
+        for (GarbageCollectorMXBean collector : collectors) {
+            writer.sample("jvm_gc_collection_seconds_total", Math.max(0, collector.getCollectionTime()) / 1000.0, "gc", collector.getName());
+        }
+
+        writer.family("jvm_buffer_pool_used_bytes", "gauge", "Used bytes of the direct and mapped buffers");
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            writer.sample("jvm_buffer_pool_used_bytes", Math.max(0, pool.getMemoryUsed()), "pool", pool.getName());
+        }
+        writer.gauge("jvm_threads", "Live platform threads of the JVM", ManagementFactory.getThreadMXBean().getThreadCount());
+        writer.gauge("process_uptime_seconds", "Time since the JVM started", ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+}
@@ -0,0 +1,474 @@
+package eu.koboo.minestom.server.profiler;
+
+import eu.koboo.minestom.api.world.World;
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.world.WorldManagerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.event.Event;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.entity.EntityTickEvent;
+import net.minestom.server.event.instance.InstanceTickEvent;
+import net.minestom.server.event.server.ServerTickMonitorEvent;
+import net.minestom.server.instance.Instance;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sampling profiler of the tick threads of Minestom, which writes collapsed stacks for flame graphs to `logs/`.
+ * <p>
+ * A sampler thread takes the stacks of all tick threads at a fixed interval, idle threads are skipped.
+ * A thread is idle, if it's parked where Minestom waits for the next tick. Waiting anywhere else, e.g. for a lock
+ * or a future, is part of the tick and sampled.
+ * Every stack starts with the thread and the world, which the thread ticked last. While a session is running,
+ * the instance and entity tick events of Minestom tell which thread ticks which world, so no chunk type is needed.
+ * Frames of module classes get a `module:[jar]` frame in front, found by the name of the module class loader.
+ * <p>
+ * In the slow ticks mode, the samples of every tick are only kept, if the tick took longer than the threshold,
+ * so an intermittent spike can be captured without the noise of all normal ticks.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TickProfiler {
+
+    public static final String MODULE_CLASS_LOADER_PREFIX = "module:";
+
+    private static final String TICK_THREAD_PREFIX = "Ms-Tick";
+    private static final int MAX_DEPTH = 128;
+    private static final long THREAD_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Path OUTPUT_DIRECTORY = Path.of("logs");
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String NO_WORLD = "";
+    // Methods, which park, sleep or wait the thread, they're skipped to find the caller
+    private static final Set<String> PARKING_METHODS = Set.of(
+            "jdk.internal.misc.Unsafe.park",
+            "java.util.concurrent.locks.LockSupport.park",
+            "java.util.concurrent.locks.LockSupport.parkNanos",
+            "java.util.concurrent.locks.LockSupport.parkUntil",
+            "java.lang.Thread.sleep",
+            "java.lang.Thread.sleep0",
+            "java.lang.Thread.sleepNanos",
+            "java.lang.Thread.sleepNanos0",
+            "java.lang.Object.wait",
+            "java.lang.Object.wait0"
+    );
+    // Classes, in which the tick threads wait for their next tick
+    private static final Set<String> IDLE_CLASSES = Set.of(
+            "net.minestom.server.thread.TickThread",
+            "net.minestom.server.thread.TickSchedulerThread"
+    );
+
+    ThreadMXBean threadBean;
+    // Instance, which got ticked last by the thread, only written while a session is running
+    Map<Thread, Instance> tickedInstances;
+    // Only registered while a session is running, so the tick events cost nothing otherwise
+    EventNode<Event> trackingNode;
+
+    @NonFinal
+    volatile Session session;
+
+    public TickProfiler() {
+        this.threadBean = ManagementFactory.getThreadMXBean();
+        this.tickedInstances = new ConcurrentHashMap<>();
+        this.trackingNode = EventNode.all("tick-profiler");
+        trackingNode.addListener(InstanceTickEvent.class, event -> trackInstance(event.getInstance()));
+        // Entities are ticked with their chunk, on the thread of its partition
+        trackingNode.addListener(EntityTickEvent.class, event -> trackInstance(event.getEntity().getInstance()));
+    }
+
+    /**
+     * Called on the ticking thread, so the samples of the thread can be attributed to the world.
+     */
+    private void trackInstance(Instance instance) {
+        if (instance == null) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        if (tickedInstances.get(thread) != instance) {
+            tickedInstances.put(thread, instance);
+        }
+    }
+
+    public void start() {
+        MinecraftServer.getGlobalEventHandler().addListener(ServerTickMonitorEvent.class, event -> {
+            Session current = session;
+            if (current != null) {
+                current.onTick(event.getTickMonitor().getTickTime());
+            }
+        });
+    }
+
+    /**
+     * Sample all ticks until {@link #stop()} is called.
+     * @return false if a session is already running
+     */
+    public synchronized boolean profile(int intervalMillis) {
+        return begin(new Session(intervalMillis, 0, 0));
+    }
+
+    /**
+     * Sample until the given amount of ticks took longer than the threshold, then write the profile.
+     * @return false if a session is already running
+     */
+    public synchronized boolean captureSlowTicks(int intervalMillis, int ticks, int thresholdMillis) {
+        return begin(new Session(intervalMillis, ticks, thresholdMillis));
+    }
+
+    /**
+     * Stop the running session and write its profile.
+     * @return the written file, or null if no session was running or nothing got sampled
+     */
+    public synchronized Path stop() throws IOException {
+        Session current = session;
+        if (current == null) {
+            return null;
+        }
+        end(current);
+        return current.write();
+    }
+
+    /**
+     * @return a description of the running session, or null
+     */
+    public String getStatus() {
+        Session current = session;
+        return current == null ? null : current.describe();
+    }
+
+    private boolean begin(Session newSession) {
+        if (session != null) {
+            return false;
+        }
+        session = newSession;
+        MinecraftServer.getGlobalEventHandler().addChild(trackingNode);
+        newSession.thread.start();
+        return true;
+    }
+
+    private void end(Session ended) {
+        if (session != ended) {
+            return;
+        }
+        session = null;
+        MinecraftServer.getGlobalEventHandler().removeChild(trackingNode);
+        tickedInstances.clear();
+        ended.running = false;
+        LockSupport.unpark(ended.thread);
+        try {
+            ended.thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called by the session, after it captured enough slow ticks.
+     */
+    private synchronized void finish(Session finished) {
+        if (session != finished) {
+            return;
+        }
+        end(finished);
+        try {
+            Path file = finished.write();
+            Logger.info("Captured " + finished.slowTicks + " slow ticks, profile written to " + file);
+        } catch (IOException e) {
+            Logger.error("Couldn't write the tick profile", e);
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private class Session {
+
+        long intervalNanos;
+        int targetSlowTicks;
+        double thresholdMillis;
+        long startNanos;
+        Thread thread;
+        // Collapsed stack without the world, per world and instance
+        Map<SampleKey, long[]> samples;
+        // Samples of the running tick, only kept if the tick is slow
+        List<SampleKey> tickSamples;
+
+        @NonFinal
+        volatile boolean running = true;
+        @NonFinal
+        int sampleCount;
+        @NonFinal
+        int slowTicks;
+        @NonFinal
+        double slowestTickMillis;
+
+        private Session(int intervalMillis, int targetSlowTicks, int thresholdMillis) {
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+            this.targetSlowTicks = targetSlowTicks;
+            this.thresholdMillis = thresholdMillis;
+            this.startNanos = System.nanoTime();
+            this.thread = Thread.ofPlatform().name("TickProfiler").daemon().unstarted(this::sampleLoop);
+            this.samples = new HashMap<>();
+            this.tickSamples = new ArrayList<>();
+        }
+
+        private boolean isSlowTicksMode() {
+            return targetSlowTicks > 0;
+        }
+
+        private void sampleLoop() {
+            long[] threadIds = new long[0];
+            long lastRefresh = 0;
+            long next = System.nanoTime();
+            while (running) {
+                long now = System.nanoTime();
+                if (threadIds.length == 0 || now - lastRefresh >= THREAD_REFRESH_NANOS) {
+                    threadIds = findTickThreads();
+                    lastRefresh = now;
+                }
+                if (threadIds.length > 0) {
+                    sample(threadIds);
+                }
+                next += intervalNanos;
+                long delay = next - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(this, delay);
+                } else {
+                    // Sampling took longer than the interval, don't try to catch up
+                    next = System.nanoTime();
+                }
+            }
+        }
+
+        private long[] findTickThreads() {
+            // Without stacks, this doesn't stop the threads
+            ThreadInfo[] infos = threadBean.getThreadInfo(threadBean.getAllThreadIds(), 0);
+            List<Long> ids = new ArrayList<>();
+            for (ThreadInfo info : infos) {
+                if (info != null && info.getThreadName().startsWith(TICK_THREAD_PREFIX)) {
+                    ids.add(info.getThreadId());
+                }
+            }
+            long[] threadIds = new long[ids.size()];
+            for (int i = 0; i < threadIds.length; i++) {
+                threadIds[i] = ids.get(i);
+            }
+            return threadIds;
+        }
+
+        private void sample(long[] threadIds) {
+            // One safepoint for all threads, instead of one per thread
+            ThreadInfo[] infos = threadBean.getThreadInfo(threadIds, MAX_DEPTH);
+            Map<Long, Instance> instances = new HashMap<>();
+            tickedInstances.forEach((thread, instance) -> instances.put(thread.threadId(), instance));
+            List<SampleKey> taken = new ArrayList<>(infos.length);
+            for (ThreadInfo info : infos) {
+                if (info == null) {
+                    continue;
+                }
+                StackTraceElement[] frames = info.getStackTrace();
+                if (frames.length == 0 || isIdle(frames)) {
+                    continue;
+                }
+                taken.add(new SampleKey(instances.get(info.getThreadId()), collapse(info.getThreadName(), frames)));
+            }
+            synchronized (this) {
+                if (isSlowTicksMode()) {
+                    tickSamples.addAll(taken);
+                } else {
+                    add(taken);
+                }
+            }
+        }
+
+        /**
+         * @return true if the first frame, which doesn't park the thread, is where Minestom waits for the next tick
+         */
+        private boolean isIdle(StackTraceElement[] frames) {
+            for (StackTraceElement frame : frames) {
+                if (PARKING_METHODS.contains(frame.getClassName() + "." + frame.getMethodName())) {
+                    continue;
+                }
+                return frame != frames[0] && IDLE_CLASSES.contains(frame.getClassName());
+            }
+            return false;
+        }
+
+        private void add(List<SampleKey> taken) {
+            for (SampleKey key : taken) {
+                samples.computeIfAbsent(key, ignored -> new long[1])[0]++;
+            }
+            sampleCount += taken.size();
+        }
+
+        /**
+         * Called on the tick thread at the end of every tick.
+         */
+        private void onTick(double tickMillis) {
+            if (!isSlowTicksMode()) {
+                return;
+            }
+            boolean finished;
+            synchronized (this) {
+                if (tickMillis >= thresholdMillis && slowTicks < targetSlowTicks) {
+                    add(tickSamples);
+                    slowTicks++;
+                    slowestTickMillis = Math.max(slowestTickMillis, tickMillis);
+                    if (ServerImpl.DEBUG) Logger.info("Captured slow tick " + slowTicks + "/" + targetSlowTicks
+                            + " (" + String.format("%.2fms", tickMillis) + ")");
+                }
+                tickSamples.clear();
+                finished = slowTicks >= targetSlowTicks;
+            }
+            if (finished) {
+                // Writing the file doesn't belong on the tick thread
+                Thread.ofVirtual().name("TickProfiler-Write").start(() -> finish(this));
+            }
+        }
+
+        private String describe() {
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            synchronized (this) {
+                String description = "Profiling for " + String.format("%.1fs", seconds) + " every "
+                        + TimeUnit.NANOSECONDS.toMillis(intervalNanos) + "ms, " + sampleCount + " samples";
+                if (isSlowTicksMode()) {
+                    description += ", captured " + slowTicks + "/" + targetSlowTicks + " ticks above "
+                            + String.format("%.0fms", thresholdMillis);
+                }
+                return description;
+            }
+        }
+
+        private Path write() throws IOException {
+            Map<Instance, String> worldNames = null;
+            Map<String, Long> lines = new HashMap<>();
+            Map<String, Long> worldSamples = new HashMap<>();
+            Map<String, Long> moduleSamples = new HashMap<>();
+            synchronized (this) {
+                if (sampleCount == 0) {
+                    return null;
+                }
+                for (Map.Entry<SampleKey, long[]> entry : samples.entrySet()) {
+                    SampleKey key = entry.getKey();
+                    long count = entry.getValue()[0];
+                    String world = NO_WORLD;
+                    if (key.instance() != null) {
+                        worldNames = worldNames == null ? resolveWorldNames() : worldNames;
+                        world = worldNames.getOrDefault(key.instance(), "instance-" + key.instance().getUniqueId());
+                    }
+                    String stack = key.stack();
+                    if (!world.equals(NO_WORLD)) {
+                        // The thread stays the root, so the worlds are split below it
+                        int threadEnd = stack.indexOf(';');
+                        stack = stack.substring(0, threadEnd) + ";world:" + world + stack.substring(threadEnd);
+                        worldSamples.merge(world, count, Long::sum);
+                    }
+                    lines.merge(stack, count, Long::sum);
+                    for (String module : modulesOf(key.stack())) {
+                        moduleSamples.merge(module, count, Long::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<String, Long>> sorted = new ArrayList<>(lines.entrySet());
+            sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            StringBuilder builder = new StringBuilder(sorted.size() * 256);
+            for (Map.Entry<String, Long> line : sorted) {
+                builder.append(line.getKey()).append(' ').append(line.getValue()).append('\n');
+            }
+            Files.createDirectories(OUTPUT_DIRECTORY);
+            String mode = isSlowTicksMode() ? "slow-ticks" : "profile";
+            Path file = OUTPUT_DIRECTORY.resolve("tick-" + mode + "-" + FILE_DATE_FORMAT.format(LocalDateTime.now()) + ".collapsed");
+            Files.writeString(file, builder.toString(), StandardCharsets.UTF_8);
+
+            Logger.info("Tick profile: " + sampleCount + " samples"
+                    + (isSlowTicksMode() ? " of " + slowTicks + " slow ticks, slowest " + String.format("%.2fms", slowestTickMillis) : ""));
+            logShares("Worlds", worldSamples);
+            logShares("Modules", moduleSamples);
+            return file;
+        }
+
+        private void logShares(String title, Map<String, Long> counts) {
+            if (counts.isEmpty()) {
+                return;
+            }
+            List<Map.Entry<String, Long>> sorted = new ArrayList<>(counts.entrySet());
+            sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            StringBuilder builder = new StringBuilder(title).append(':');
+            for (Map.Entry<String, Long> entry : sorted) {
+                builder.append(' ').append(entry.getKey()).append(' ')
+                        .append(String.format("%.1f%%", entry.getValue() * 100.0 / sampleCount));
+            }
+            Logger.info(builder.toString());
+        }
+    }
+
+    /**
+     * Collapse the stack into `thread;root;...;leaf`, with a module frame in front of the first frame of every module.
+     */
+    private static String collapse(String threadName, StackTraceElement[] frames) {
+        StringBuilder builder = new StringBuilder(frames.length * 48);
+        // Tick threads are numbered, but do the same work
+        builder.append(threadName.replaceFirst("-\\d+$", ""));
+        String previousModule = null;
+        for (int i = frames.length - 1; i >= 0; i--) {
+            StackTraceElement frame = frames[i];
+            String classLoaderName = frame.getClassLoaderName();
+            String module = classLoaderName != null && classLoaderName.startsWith(MODULE_CLASS_LOADER_PREFIX) ? classLoaderName : null;
+            // Every call from the server into a module
+            if (module != null && !module.equals(previousModule)) {
+                builder.append(';').append(module);
+            }
+            previousModule = module;
+            builder.append(';').append(frame.getClassName()).append('.').append(frame.getMethodName());
+        }
+        return builder.toString();
+    }
+
+    private static List<String> modulesOf(String stack) {
+        List<String> modules = new ArrayList<>(1);
+        for (String frame : stack.split(";")) {
+            if (!frame.startsWith(MODULE_CLASS_LOADER_PREFIX)) {
+                continue;
+            }
+            String module = frame.substring(MODULE_CLASS_LOADER_PREFIX.length());
+            if (!modules.contains(module)) {
+                modules.add(module);
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * Lobby replicas share the chunks of the default world, so their chunk ticks are the ones of the default world.
+     */
+    private static Map<Instance, String> resolveWorldNames() {
+        Map<Instance, String> names = new IdentityHashMap<>();
+        WorldManagerImpl worldManager = ServerImpl.getInstance().getWorldManager();
+        for (World world : worldManager.getWorlds()) {
+            if (world.getInstanceContainer() != null) {
+                names.put(world.getInstanceContainer(), world.getName());
+            }
+        }
+        return names;
+    }
+
+    private record SampleKey(Instance instance, String stack) {
+    }
+}
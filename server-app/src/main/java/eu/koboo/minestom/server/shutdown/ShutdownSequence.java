@@ -0,0 +1,226 @@
+package eu.koboo.minestom.server.shutdown;
+
+import eu.koboo.minestom.api.config.ProxyMode;
+import eu.koboo.minestom.api.config.ShutdownConfig;
+import eu.koboo.minestom.console.RingBufferWriter;
+import eu.koboo.minestom.module.ModuleManagerImpl;
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.world.WorldManagerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.kyori.adventure.text.Component;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.entity.Player;
+import org.tinylog.Logger;
+import org.tinylog.provider.ProviderRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Drains the server in stages, before Minestom gets stopped:
+ * <ol>
+ *     <li>`logins` - new players get kicked</li>
+ *     <li>`players` - online players get sent to the transfer server of the proxy or kicked</li>
+ *     <li>`modules` - all modules get disabled, dependents before their dependencies</li>
+ *     <li>`worlds` - all worlds get saved</li>
+ *     <li>`logs` - all queued log entries get written</li>
+ * </ol>
+ * Every stage has a deadline from the `shutdown` section of the config. If a stage misses it,
+ * the next one starts anyway, so a hanging module can't keep the worlds from being saved.
+ * Tasks of stages, which missed their deadline, get interrupted once all stages are done.
+ * <p>
+ * Logging is shut down as the very last step, after Minestom got stopped, so its last entries get written too.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ShutdownSequence {
+
+    // Understood by BungeeCord and Velocity
+    private static final String BUNGEECORD_CHANNEL = "bungeecord:main";
+    private static final long PLAYER_POLL_MILLIS = 100;
+    private static final long EXECUTOR_TIMEOUT_MILLIS = 1000;
+
+    ServerImpl server;
+    ModuleManagerImpl moduleManager;
+    WorldManagerImpl worldManager;
+    AtomicBoolean started;
+    CompletableFuture<Void> completion;
+    CompletableFuture<Void> termination;
+
+    @NonFinal
+    volatile boolean acceptingLogins = true;
+
+    public ShutdownSequence(ServerImpl server, ModuleManagerImpl moduleManager, WorldManagerImpl worldManager) {
+        this.server = server;
+        this.moduleManager = moduleManager;
+        this.worldManager = worldManager;
+        this.started = new AtomicBoolean();
+        this.completion = new CompletableFuture<>();
+        this.termination = new CompletableFuture<>();
+    }
+
+    public boolean isAcceptingLogins() {
+        return acceptingLogins;
+    }
+
+    /**
+     * Start the sequence on its own thread, unless it's already running. Stops Minestom when it's finished.
+     * @return completes after the last stage, before Minestom gets stopped
+     */
+    public CompletableFuture<Void> start() {
+        if (started.compareAndSet(false, true)) {
+            // Not a daemon, the JVM has to wait for the sequence even if it was started from a virtual thread
+            Thread.ofPlatform().name("Shutdown").daemon(false).start(this::run);
+        }
+        return completion;
+    }
+
+    /**
+     * @return completes after Minestom got stopped and logging got shut down
+     */
+    public CompletableFuture<Void> getTermination() {
+        return termination;
+    }
+
+    private void run() {
+        ShutdownConfig config = server.getServerConfig().shutdown();
+        long startTime = System.nanoTime();
+        Logger.info("Shutting down in stages..");
+        // Not closed with try-with-resources, as closing waits for tasks, which missed their deadline
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<String> timings = new ArrayList<>();
+            stage(timings, "logins", 1, () -> {
+                acceptingLogins = false;
+                return CompletableFuture.completedFuture(null);
+            });
+            if (!stage(timings, "players", config.transferTimeout(), () -> CompletableFuture.runAsync(() -> drainPlayers(config), executor))) {
+                kickAll(config);
+            }
+            stage(timings, "modules", config.modulesTimeout(), () -> CompletableFuture.runAsync(moduleManager::disableAllModules, executor));
+            stage(timings, "worlds", config.saveTimeout(), worldManager::saveAllWorldsAsync);
+            Logger.info("Shutdown stages: " + String.join(", ", timings)
+                    + " (" + String.format("%.2f", (System.nanoTime() - startTime) / 1_000_000_000.0) + "s)");
+            if (!RingBufferWriter.awaitDrained(TimeUnit.SECONDS.toMillis(config.logsTimeout()))) {
+                System.err.println("Not all log entries got written within " + config.logsTimeout() + "s");
+            }
+        } catch (Exception e) {
+            Logger.error("Shutdown sequence failed, stopping anyway", e);
+        } finally {
+            stopExecutor(executor);
+            // Completed first, as stopping runs the shutdown task, which waits for this sequence
+            completion.complete(null);
+            try {
+                MinecraftServer.stopCleanly();
+            } finally {
+                shutdownLogging();
+                termination.complete(null);
+            }
+        }
+    }
+
+    private void stopExecutor(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(EXECUTOR_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                Logger.warn("Interrupting shutdown tasks, which are still running");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write the buffered log entries and stop logging, as it isn't shut down automatically.
+     */
+    public static void shutdownLogging() {
+        try {
+            ProviderRegistry.getLoggingProvider().shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return false if the stage didn't finish before its deadline or failed
+     */
+    private boolean stage(List<String> timings, String name, int timeoutSeconds, Supplier<CompletableFuture<?>> action) {
+        long startTime = System.nanoTime();
+        boolean finished = false;
+        try {
+            action.get().get(Math.max(timeoutSeconds, 1), TimeUnit.SECONDS);
+            finished = true;
+        } catch (TimeoutException e) {
+            Logger.warn("Shutdown stage " + name + " missed its deadline of " + timeoutSeconds + "s, continuing");
+        } catch (ExecutionException e) {
+            Logger.error("Shutdown stage " + name + " failed, continuing", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.warn("Shutdown stage " + name + " got interrupted, continuing");
+        }
+        double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+        timings.add(name + " " + String.format("%.2fms", timeInMillis) + (finished ? "" : " (incomplete)"));
+        if (ServerImpl.DEBUG) Logger.info("Shutdown stage " + name + " took " + String.format("%.2fms", timeInMillis));
+        return finished;
+    }
+
+    /**
+     * Send all players to the transfer server or kick them, then wait until all of them are disconnected.
+     */
+    private void drainPlayers(ShutdownConfig config) {
+        boolean transfer = !config.transferServer().isEmpty();
+        if (transfer && server.getServerConfig().proxyMode() == ProxyMode.NONE) {
+            Logger.warn("Transfer server " + config.transferServer() + " is set, but proxy-mode is NONE. Kicking players instead.");
+            transfer = false;
+        }
+        if (transfer) {
+            byte[] connectMessage = connectMessage(config.transferServer());
+            for (Player player : MinecraftServer.getConnectionManager().getOnlinePlayers()) {
+                player.sendPluginMessage(BUNGEECORD_CHANNEL, connectMessage);
+            }
+            Logger.info("Sent " + MinecraftServer.getConnectionManager().getOnlinePlayerCount()
+                    + " player(s) to " + config.transferServer());
+        } else {
+            kickAll(config);
+        }
+        while (MinecraftServer.getConnectionManager().getOnlinePlayerCount() > 0) {
+            try {
+                Thread.sleep(PLAYER_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void kickAll(ShutdownConfig config) {
+        Component message = Component.text(config.kickMessage());
+        for (Player player : MinecraftServer.getConnectionManager().getOnlinePlayers()) {
+            player.kick(message);
+        }
+    }
+
+    private static byte[] connectMessage(String serverName) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeUTF("Connect");
+            output.writeUTF(serverName);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
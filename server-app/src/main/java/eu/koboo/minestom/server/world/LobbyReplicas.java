@@ -0,0 +1,283 @@
+package eu.koboo.minestom.server.world;
+
+import eu.koboo.minestom.api.config.LobbyConfig;
+import eu.koboo.minestom.api.world.World;
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.join.SpawnTarget;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.instance.SharedInstance;
+import net.minestom.server.timer.Task;
+import net.minestom.server.timer.TaskSchedule;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replicas of the default world, which joining players get spread across.
+ * The first replica is the default world itself, all others are shared instances of it.
+ * They share the chunks, which are loaded from the template only once,
+ * but every replica has its own players and entities, so nothing gets broadcast between them.
+ * <p>
+ * A replica is added as soon as all replicas are full and removed, after it was empty for the scale down delay.
+ * If the spawn point of the world gets set, all replicas spawn the players there from the next join on.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LobbyReplicas {
+
+    private static final int SCALE_INTERVAL_SECONDS = 5;
+
+    AtomicInteger replicaIds;
+    // Guarded by this, removed from the routing and unregistered on the next check, unless a player joined meanwhile
+    List<Replica> retiring;
+
+    @NonFinal
+    volatile LobbyConfig config;
+    // Replaced as a whole, so routing never locks
+    @NonFinal
+    volatile Replica[] replicas;
+    // Spawn points version of the worlds, the spawn points of the replicas got taken at
+    @NonFinal
+    volatile int spawnPointsVersion;
+    @NonFinal
+    World world;
+    @NonFinal
+    Task task;
+
+    public LobbyReplicas(LobbyConfig config) {
+        this.config = config;
+        this.replicaIds = new AtomicInteger();
+        this.retiring = new ArrayList<>();
+        this.replicas = new Replica[0];
+    }
+
+    /**
+     * Create the minimum amount of replicas of the world and start scaling them.
+     */
+    public synchronized void start(World world) {
+        this.world = world;
+        spawnPointsVersion = World.getSpawnPointsVersion();
+        replicas = new Replica[]{new Replica(replicaIds.getAndIncrement(), SpawnTarget.of(world))};
+        scale();
+        task = MinecraftServer.getSchedulerManager().buildTask(this::scale)
+                .delay(TaskSchedule.seconds(SCALE_INTERVAL_SECONDS))
+                .repeat(TaskSchedule.seconds(SCALE_INTERVAL_SECONDS))
+                .schedule();
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    public boolean isStarted() {
+        return replicas.length > 0;
+    }
+
+    /**
+     * Replace the config, the amount of replicas gets adjusted with the next check.
+     */
+    public void setConfig(LobbyConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @return the replica for the joining player
+     */
+    public SpawnTarget route(UUID uuid) {
+        updateSpawnPoints();
+        Replica[] current = replicas;
+        LobbyConfig currentConfig = config;
+        if (current.length == 1 && currentConfig.maxReplicas() <= 1) {
+            return current[0].target();
+        }
+        Replica selected = switch (currentConfig.routing()) {
+            case LEAST_PLAYERS -> leastPlayers(current);
+            case CONSISTENT_HASH -> consistentHash(current, uuid, currentConfig.playersPerReplica());
+        };
+        if (selected.target().getLoad() >= currentConfig.playersPerReplica() && current.length < currentConfig.maxReplicas()) {
+            selected = scaleUp(current);
+        }
+        return selected.target();
+    }
+
+    /**
+     * @return the players and joining players per replica, rounded up
+     */
+    public int getAverageLoad() {
+        Replica[] current = replicas;
+        if (current.length == 0) {
+            return 0;
+        }
+        int load = 0;
+        for (Replica replica : current) {
+            load += replica.target().getLoad();
+        }
+        return (load + current.length - 1) / current.length;
+    }
+
+    public List<SpawnTarget> getReplicas() {
+        return Arrays.stream(replicas).map(Replica::target).toList();
+    }
+
+    private void updateSpawnPoints() {
+        int version = World.getSpawnPointsVersion();
+        if (version == spawnPointsVersion) {
+            return;
+        }
+        synchronized (this) {
+            if (version == spawnPointsVersion) {
+                return;
+            }
+            Pos spawnPoint = world.getSpawnPoint();
+            for (Replica replica : replicas) {
+                replica.target = replica.target.withSpawnPoint(spawnPoint);
+            }
+            for (Replica replica : retiring) {
+                replica.target = replica.target.withSpawnPoint(spawnPoint);
+            }
+            spawnPointsVersion = version;
+        }
+    }
+
+    private synchronized Replica scaleUp(Replica[] seen) {
+        if (replicas != seen) {
+            // Another join added a replica in the meantime
+            return leastPlayers(replicas);
+        }
+        if (replicas.length >= config.maxReplicas()) {
+            return leastPlayers(replicas);
+        }
+        return addReplica();
+    }
+
+    /**
+     * Runs on the scheduler, adds and removes replicas within the bounds of the config.
+     */
+    private synchronized void scale() {
+        LobbyConfig currentConfig = config;
+        List<Replica> active = new ArrayList<>(Arrays.asList(replicas));
+        for (Replica replica : retiring) {
+            if (replica.target().getLoad() > 0) {
+                active.add(replica);
+                continue;
+            }
+            MinecraftServer.getInstanceManager().unregisterInstance(replica.target().instance());
+            if (ServerImpl.DEBUG) Logger.info("Removed lobby replica #" + replica.id());
+        }
+        retiring.clear();
+        replicas = active.toArray(new Replica[0]);
+
+        while (replicas.length < currentConfig.minReplicas()) {
+            addReplica();
+        }
+        active = new ArrayList<>(Arrays.asList(replicas));
+
+        long now = System.nanoTime();
+        long delayNanos = TimeUnit.SECONDS.toNanos(currentConfig.scaleDownDelay());
+        // The newest replicas are removed first, the default world is never removed
+        for (int i = active.size() - 1; i > 0 && active.size() > currentConfig.minReplicas(); i--) {
+            Replica replica = active.get(i);
+            if (replica.target().getLoad() > 0) {
+                replica.emptySince = 0;
+                continue;
+            }
+            if (replica.emptySince == 0) {
+                replica.emptySince = now;
+                continue;
+            }
+            if (now - replica.emptySince >= delayNanos) {
+                active.remove(i);
+                retiring.add(replica);
+            }
+        }
+        if (!retiring.isEmpty()) {
+            replicas = active.toArray(new Replica[0]);
+        }
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private Replica addReplica() {
+        SharedInstance instance = MinecraftServer.getInstanceManager().createSharedInstance(world.getInstanceContainer());
+        SpawnTarget target = new SpawnTarget(world, instance, world.getSpawnPoint(), new AtomicInteger());
+        Replica replica = new Replica(replicaIds.getAndIncrement(), target);
+        Replica[] added = Arrays.copyOf(replicas, replicas.length + 1);
+        added[replicas.length] = replica;
+        replicas = added;
+        Logger.info("Added lobby replica #" + replica.id() + " (" + added.length + " replicas)");
+        return replica;
+    }
+
+    private static Replica leastPlayers(Replica[] current) {
+        Replica least = current[0];
+        int leastLoad = least.target().getLoad();
+        for (int i = 1; i < current.length; i++) {
+            int load = current[i].target().getLoad();
+            if (load < leastLoad) {
+                least = current[i];
+                leastLoad = load;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Rendezvous hashing, a player keeps their replica as long as it exists and isn't full.
+     * Adding or removing a replica only moves the players of that replica.
+     */
+    private static Replica consistentHash(Replica[] current, UUID uuid, int playersPerReplica) {
+        long key = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        Replica selected = null;
+        long selectedWeight = Long.MIN_VALUE;
+        for (Replica replica : current) {
+            if (replica.target().getLoad() >= playersPerReplica) {
+                continue;
+            }
+            long weight = mix(key ^ (replica.id() * 0x9E3779B97F4A7C15L));
+            if (selected == null || weight > selectedWeight) {
+                selected = replica;
+                selectedWeight = weight;
+            }
+        }
+        return selected == null ? leastPlayers(current) : selected;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static class Replica {
+
+        private final int id;
+        // Replaced while holding the lock of the replicas, when the spawn point of the world got set
+        private volatile SpawnTarget target;
+        // Guarded by the lock of the replicas, 0 while players are in the replica
+        private long emptySince;
+
+        private Replica(int id, SpawnTarget target) {
+            this.id = id;
+            this.target = target;
+        }
+
+        private int id() {
+            return id;
+        }
+
+        private SpawnTarget target() {
+            return target;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package eu.koboo.minestom.server.world;
+
+import eu.koboo.minestom.api.config.AdaptiveViewConfig;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.GlobalEventHandler;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.event.player.PlayerSettingsChangeEvent;
+import net.minestom.server.event.player.PlayerSpawnEvent;
+import net.minestom.server.event.server.ServerTickMonitorEvent;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.network.packet.server.play.UpdateViewDistancePacket;
+import net.minestom.server.timer.Task;
+import net.minestom.server.timer.TaskSchedule;
+import org.tinylog.Logger;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lowers the chunk view-distance of crowded worlds, while the ticks take longer than the config allows,
+ * and raises it again once the server is calm.
+ * <p>
+ * Under load, the world with the most players times loaded chunks loses one chunk of view-distance per check.
+ * Once the ticks are fast enough for several checks in a row, the world with the lowest view-distance gets one back.
+ * Between both thresholds nothing changes, so the view-distance doesn't flap around a single tick time.
+ * <p>
+ * Every player gets the view-distance of the world or the one of the client, whichever is lower.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ViewDistanceController {
+
+    private static final int CHECK_INTERVAL_SECONDS = 5;
+
+    int maxDistance;
+    // Lowered view-distances, worlds without an entry use the maximum
+    Map<Instance, Integer> distances;
+    // View-distances the clients asked for
+    Map<UUID, Integer> requestedDistances;
+    LongAdder tickMicros;
+    LongAdder tickCount;
+
+    @Getter
+    @NonFinal
+    volatile AdaptiveViewConfig config;
+    @NonFinal
+    volatile double lastTickMillis;
+    @NonFinal
+    int calmChecks;
+    @NonFinal
+    Task task;
+
+    public ViewDistanceController(int maxDistance, AdaptiveViewConfig config) {
+        this.maxDistance = maxDistance;
+        this.config = config;
+        this.distances = new ConcurrentHashMap<>();
+        this.requestedDistances = new ConcurrentHashMap<>();
+        this.tickMicros = new LongAdder();
+        this.tickCount = new LongAdder();
+    }
+
+    public void start() {
+        GlobalEventHandler eventHandler = MinecraftServer.getGlobalEventHandler();
+        eventHandler.addListener(ServerTickMonitorEvent.class, event -> {
+            tickMicros.add((long) (event.getTickMonitor().getTickTime() * 1000));
+            tickCount.increment();
+        });
+        eventHandler.addListener(PlayerSpawnEvent.class, event -> apply(event.getPlayer()));
+        eventHandler.addListener(PlayerSettingsChangeEvent.class, event -> {
+            Player player = event.getPlayer();
+            requestedDistances.put(player.getUuid(), (int) player.getSettings().getViewDistance());
+            apply(player);
+        });
+        eventHandler.addListener(PlayerDisconnectEvent.class, event -> requestedDistances.remove(event.getPlayer().getUuid()));
+        task = MinecraftServer.getSchedulerManager().buildTask(this::check)
+                .delay(TaskSchedule.seconds(CHECK_INTERVAL_SECONDS))
+                .repeat(TaskSchedule.seconds(CHECK_INTERVAL_SECONDS))
+                .schedule();
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Replace the config, the worlds get their full view-distance back if it got disabled.
+     */
+    public void setConfig(AdaptiveViewConfig config) {
+        this.config = config;
+        if (!config.enabled()) {
+            MinecraftServer.getSchedulerManager().scheduleNextTick(this::reset);
+        }
+    }
+
+    /**
+     * @return the current chunk view-distance of the world
+     */
+    public int getDistance(Instance instance) {
+        return distances.getOrDefault(instance, maxDistance);
+    }
+
+    /**
+     * @return the average tick time of the last check in milliseconds
+     */
+    public double getLastTickMillis() {
+        return lastTickMillis;
+    }
+
+    private void check() {
+        long count = tickCount.sumThenReset();
+        long micros = tickMicros.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        double tickMillis = micros / 1000.0 / count;
+        lastTickMillis = tickMillis;
+        AdaptiveViewConfig config = this.config;
+        Set<Instance> instances = MinecraftServer.getInstanceManager().getInstances();
+        distances.keySet().retainAll(instances);
+        if (!config.enabled()) {
+            return;
+        }
+
+        if (tickMillis > config.lowerAboveMs()) {
+            calmChecks = 0;
+            Instance busiest = null;
+            long busiestLoad = 0;
+            for (Instance instance : instances) {
+                int distance = getDistance(instance);
+                long load = (long) instance.getPlayers().size() * distance * distance;
+                if (distance > config.minChunks() && load > busiestLoad) {
+                    busiest = instance;
+                    busiestLoad = load;
+                }
+            }
+            if (busiest != null) {
+                setDistance(busiest, getDistance(busiest) - 1, tickMillis);
+            }
+            return;
+        }
+        if (tickMillis >= config.raiseBelowMs() || ++calmChecks < config.raiseAfter()) {
+            return;
+        }
+        calmChecks = 0;
+        Instance lowest = null;
+        for (Instance instance : distances.keySet()) {
+            if (lowest == null || getDistance(instance) < getDistance(lowest)) {
+                lowest = instance;
+            }
+        }
+        if (lowest != null) {
+            setDistance(lowest, getDistance(lowest) + 1, tickMillis);
+        }
+    }
+
+    private void setDistance(Instance instance, int distance, double tickMillis) {
+        if (distance >= maxDistance) {
+            distances.remove(instance);
+        } else {
+            distances.put(instance, distance);
+        }
+        Logger.info("Set the view-distance of instance " + instance.getUniqueId() + " to " + distance
+                + " chunks (tick " + String.format("%.2fms", tickMillis) + ", " + instance.getPlayers().size() + " players)");
+        for (Player player : instance.getPlayers()) {
+            apply(player);
+        }
+    }
+
+    private void reset() {
+        Set<Instance> lowered = Set.copyOf(distances.keySet());
+        distances.clear();
+        calmChecks = 0;
+        for (Instance instance : lowered) {
+            for (Player player : instance.getPlayers()) {
+                apply(player);
+            }
+        }
+    }
+
+    /**
+     * Send the view-distance of the world to the player and let Minestom load or unload the chunks in between.
+     */
+    private void apply(Player player) {
+        Instance instance = player.getInstance();
+        if (instance == null) {
+            return;
+        }
+        Player.PlayerSettings settings = player.getSettings();
+        int requested = requestedDistances.computeIfAbsent(player.getUuid(), ignored -> (int) settings.getViewDistance());
+        int worldDistance = getDistance(instance);
+        int distance = Math.min(requested, worldDistance);
+        if (settings.getViewDistance() == distance) {
+            return;
+        }
+        // Minestom streams chunks within the smaller one of the client and the server view-distance
+        settings.refresh(settings.getLocale(), (byte) distance, settings.getChatMessageType(), settings.hasChatColors(),
+                settings.getDisplayedSkinParts(), settings.getMainHand(), settings.enableTextFiltering(), settings.allowServerListings());
+        player.sendPacket(new UpdateViewDistancePacket(worldDistance));
+    }
+}
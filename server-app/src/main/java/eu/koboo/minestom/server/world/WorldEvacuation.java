@@ -0,0 +1,126 @@
+package eu.koboo.minestom.server.world;
+
+import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.join.JoinRouter;
+import eu.koboo.minestom.server.join.SpawnTarget;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import net.kyori.adventure.text.Component;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.entity.Player;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.timer.TaskSchedule;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moves all players out of an instance, before it gets unloaded.
+ * The destinations are selected by the {@link JoinRouter} and the chunks around their spawn points are loaded first.
+ * Then the players are moved in batches, one batch per tick, so a full world doesn't stall a single tick.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class WorldEvacuation {
+
+    private static final int BATCH_SIZE = 20;
+    private static final int SPAWN_CHUNK_RADIUS = 2;
+    // Players might enter the instance while it's evacuated, they're moved in another round
+    private static final int MAX_ROUNDS = 3;
+    private static final Component KICK_MESSAGE = Component.text("The world got unloaded.");
+
+    Instance instance;
+    String worldName;
+
+    public WorldEvacuation(Instance instance, String worldName) {
+        this.instance = instance;
+        this.worldName = worldName;
+    }
+
+    /**
+     * @return completes when no player is left in the instance
+     */
+    public CompletableFuture<Void> start() {
+        return evacuate(1);
+    }
+
+    private CompletableFuture<Void> evacuate(int round) {
+        List<Player> players = new ArrayList<>(instance.getPlayers());
+        if (players.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (round > MAX_ROUNDS) {
+            Logger.warn("Couldn't move " + players.size() + " player(s) out of world " + worldName + ", kicking them");
+            for (Player player : players) {
+                player.kick(KICK_MESSAGE);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        JoinRouter joinRouter = ServerImpl.getInstance().getJoinRouter();
+        Map<Player, SpawnTarget> destinations = new LinkedHashMap<>();
+        Set<SpawnTarget> targets = new LinkedHashSet<>();
+        for (Player player : players) {
+            SpawnTarget target = joinRouter.route(player.getUuid());
+            // Counted as joining until moved, so the routing spreads the players
+            target.pending().incrementAndGet();
+            destinations.put(player, target);
+            targets.add(target);
+        }
+        if (ServerImpl.DEBUG) Logger.info("Moving " + players.size() + " player(s) out of world " + worldName
+                + " to " + targets.size() + " destination(s), round " + round);
+        return loadSpawnChunks(targets)
+                .thenCompose(ignored -> transferInBatches(destinations))
+                .thenCompose(ignored -> evacuate(round + 1));
+    }
+
+    private static CompletableFuture<Void> loadSpawnChunks(Set<SpawnTarget> targets) {
+        List<CompletableFuture<?>> chunks = new ArrayList<>();
+        for (SpawnTarget target : targets) {
+            Pos spawnPoint = target.spawnPoint();
+            for (int x = -SPAWN_CHUNK_RADIUS; x <= SPAWN_CHUNK_RADIUS; x++) {
+                for (int z = -SPAWN_CHUNK_RADIUS; z <= SPAWN_CHUNK_RADIUS; z++) {
+                    chunks.add(target.instance().loadChunk(spawnPoint.chunkX() + x, spawnPoint.chunkZ() + z));
+                }
+            }
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> transferInBatches(Map<Player, SpawnTarget> destinations) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Iterator<Map.Entry<Player, SpawnTarget>> iterator = destinations.entrySet().iterator();
+        List<CompletableFuture<Void>> transfers = new ArrayList<>();
+        MinecraftServer.getSchedulerManager().submitTask(() -> {
+            for (int i = 0; i < BATCH_SIZE && iterator.hasNext(); i++) {
+                Map.Entry<Player, SpawnTarget> entry = iterator.next();
+                Player player = entry.getKey();
+                SpawnTarget target = entry.getValue();
+                if (!player.isOnline() || player.getInstance() != instance) {
+                    target.pending().decrementAndGet();
+                    continue;
+                }
+                transfers.add(player.setInstance(target.instance(), target.spawnPoint()).whenComplete((result, throwable) -> {
+                    target.pending().decrementAndGet();
+                    if (throwable != null) {
+                        Logger.error("Couldn't move player " + player.getUsername() + " out of world " + worldName, throwable);
+                    }
+                }));
+            }
+            if (iterator.hasNext()) {
+                return TaskSchedule.nextTick();
+            }
+            // Failed transfers are retried by the next round
+            CompletableFuture.allOf(transfers.toArray(CompletableFuture[]::new))
+                    .whenComplete((result, throwable) -> done.complete(null));
+            return TaskSchedule.stop();
+        });
+        return done;
+    }
+}
@@ -1,5 +1,6 @@
 package eu.koboo.minestom.server.world;
 
+import eu.koboo.minestom.api.config.ServerConfig;
 import eu.koboo.minestom.api.module.Module;
 import eu.koboo.minestom.api.module.annotation.dependencies.LoadOption;
 import eu.koboo.minestom.api.world.World;
@@ -7,12 +8,17 @@ import eu.koboo.minestom.api.world.dimension.Dimension;
 import eu.koboo.minestom.api.world.manager.WorldManager;
 import eu.koboo.minestom.files.PathWithFileSystem;
 import eu.koboo.minestom.server.ServerImpl;
+import eu.koboo.minestom.server.world.chunk.ChunkPacketCache;
+import eu.koboo.minestom.server.world.chunk.ChunkStorage;
+import eu.koboo.minestom.server.world.chunk.OffHeapChunkStore;
+import eu.koboo.minestom.server.world.chunk.TemplateChunkSupplier;
+import eu.koboo.minestom.stats.LatencyHistogram;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.FieldDefaults;
 import net.minestom.server.MinecraftServer;
 import net.minestom.server.coordinate.Pos;
 import net.minestom.server.instance.InstanceContainer;
-import net.minestom.server.instance.InstanceManager;
 import net.minestom.server.instance.anvil.AnvilLoader;
 import org.simpleyaml.configuration.file.YamlFile;
 import org.tinylog.Logger;
@@ -23,6 +29,10 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Getter
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
@@ -30,11 +40,35 @@ public class WorldManagerImpl implements WorldManager {
 
     Map<String, World> loadedWorlds;
     Map<String, InstanceContainer> loadedInstances;
+    // World configs parsed ahead of loading, see prepareWorldConfigs. Cleared once all worlds are loaded.
+    Map<String, PreparedConfig> preparedConfigs;
+    // Incremented whenever a world gets loaded or unloaded, so lookups of worlds can be cached
+    @Getter(AccessLevel.NONE)
+    AtomicInteger worldsVersion;
+    LobbyReplicas lobbyReplicas;
+    // Worlds, which are still evacuated and saved, they can't be loaded again until they are unregistered
+    Map<String, CompletableFuture<Void>> unloadingWorlds;
+    // Null, if the cache is disabled
+    ChunkPacketCache chunkPacketCache;
+    // Off-heap memory of the worlds with `chunk-storage: OFF_HEAP`
+    Map<String, OffHeapChunkStore> offHeapStores;
+    // Time to write the chunks of a world, from saveWorldAsync
+    LatencyHistogram saveLatency;
     public static final String DEFAULT_WORLD_NAME = "world";
 
-    public WorldManagerImpl() {
-        this.loadedWorlds = new HashMap<>();
-        this.loadedInstances = new HashMap<>();
+    public WorldManagerImpl(ServerConfig serverConfig) {
+        // Concurrent, as the configs are prepared and the metrics are collected on other threads
+        this.loadedWorlds = new ConcurrentHashMap<>();
+        this.loadedInstances = new ConcurrentHashMap<>();
+        this.preparedConfigs = new ConcurrentHashMap<>();
+        this.worldsVersion = new AtomicInteger();
+        this.lobbyReplicas = new LobbyReplicas(serverConfig.lobby());
+        this.unloadingWorlds = new ConcurrentHashMap<>();
+        this.chunkPacketCache = serverConfig.chunkPacketCache() > 0
+                ? new ChunkPacketCache(serverConfig.chunkPacketCache() * 1024L * 1024L)
+                : null;
+        this.offHeapStores = new ConcurrentHashMap<>();
+        this.saveLatency = new LatencyHistogram();
     }
 
     @Override
@@ -44,46 +78,15 @@ public class WorldManagerImpl implements WorldManager {
             if (ServerImpl.DEBUG) Logger.warn("World already exists; skipping creation");
             return loadedWorlds.get(name);
         }
+        if (unloadingWorlds.containsKey(name)) {
+            Logger.warn("World " + name + " is still unloading; skipping creation");
+            return null;
+        }
         if (ServerImpl.DEBUG) Logger.info("Creating world: " + name);
         World createdWorld = new World();
-        Path dir = Path.of("worlds/" + name);
         try {
-            if (!Files.exists(dir.getParent())) {
-                Files.createDirectories(dir.getParent());
-            } else {
-                if (ServerImpl.DEBUG) Logger.info("Parent directory already exists: " + dir.getParent());
-            }
-            if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
-                Files.createDirectory(dir);
-            } else {
-                if (ServerImpl.DEBUG) Logger.info("World directory already exists: " + dir);
-            }
-            PathWithFileSystem defaultRegionFolderWithFS = getDefaultWorldRegionFolder();
-            Path defaultRegionFolder = defaultRegionFolderWithFS.getPath();
-            FileSystem fileSystem = defaultRegionFolderWithFS.getFileSystem();
-            try {
-                Files.walk(defaultRegionFolder)
-                        .filter(Files::isRegularFile)
-                        .forEach(source -> {
-                            try {
-                                Path destination = dir.resolve(defaultRegionFolder.relativize(source).toString());
-                                Files.createDirectories(destination.getParent());
-                                if (!Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
-                                    Files.copy(source, destination);
-                                } else {
-                                    if (ServerImpl.DEBUG) Logger.info("File already exists; skipping copy: " + destination);
-                                }
-                            } catch (IOException e) {
-                                Logger.error("Failed to copy default world region files", e);
-                                e.printStackTrace();
-                            }
-                        });
-            } finally {
-                if (fileSystem != null) {
-                    fileSystem.close();
-                }
-            }
-            InstanceContainer createdInstance = MinecraftServer.getInstanceManager().createInstanceContainer(new AnvilLoader("worlds/" + name));
+            extractTemplate(name);
+            InstanceContainer createdInstance = createInstance(name);
             createdWorld.setName(name);
             createdWorld.setInstanceContainer(createdInstance);
             createdWorld.setDimensionType(dimensionType.getDimensionType());
@@ -105,8 +108,8 @@ public class WorldManagerImpl implements WorldManager {
             if (ServerImpl.DEBUG) Logger.info("World created: " + name + ". Dimension: " + dimensionType + ". Instance: " + createdInstance.getUniqueId() + ". Config: true");
             if (ServerImpl.DEBUG) Logger.info("Setting spawn point for world: " + name);
             if (ServerImpl.DEBUG && yamlFile == null) Logger.warn("yamlFile is null...? Why?");
-            Pos spawnPoint = new Pos(yamlFile.getDouble("spawn.x"), yamlFile.getDouble("spawn.y"), yamlFile.getDouble("spawn.z"), (float) yamlFile.getDouble("spawn.yaw"), (float) yamlFile.getDouble("spawn.pitch"));
-            createdWorld.setSpawnPoint(spawnPoint);
+            createdWorld.setSpawnPoint(spawnPoint(yamlFile));
+            worldsVersion.incrementAndGet();
             double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
             Logger.info("World created in " + String.format("%.2fms", timeInMillis) + ": " + name);
             return createdWorld;
@@ -116,6 +119,71 @@ public class WorldManagerImpl implements WorldManager {
         }
     }
 
+    /**
+     * Copy the region files of the default world template into the world directory.
+     * Existing files are kept. Doesn't need Minestom, so it can run while the server is initialized.
+     */
+    public void extractTemplate(String name) throws IOException {
+        Path dir = Path.of("worlds/" + name);
+        if (!Files.exists(dir.getParent())) {
+            Files.createDirectories(dir.getParent());
+        } else {
+            if (ServerImpl.DEBUG) Logger.info("Parent directory already exists: " + dir.getParent());
+        }
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectory(dir);
+        } else {
+            if (ServerImpl.DEBUG) Logger.info("World directory already exists: " + dir);
+        }
+        PathWithFileSystem defaultRegionFolderWithFS = getDefaultWorldRegionFolder();
+        Path defaultRegionFolder = defaultRegionFolderWithFS.getPath();
+        FileSystem fileSystem = defaultRegionFolderWithFS.getFileSystem();
+        try {
+            Files.walk(defaultRegionFolder)
+                    .filter(Files::isRegularFile)
+                    .forEach(source -> {
+                        try {
+                            Path destination = dir.resolve(defaultRegionFolder.relativize(source).toString());
+                            Files.createDirectories(destination.getParent());
+                            if (!Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
+                                Files.copy(source, destination);
+                            } else {
+                                if (ServerImpl.DEBUG) Logger.info("File already exists; skipping copy: " + destination);
+                            }
+                        } catch (IOException e) {
+                            Logger.error("Failed to copy default world region files", e);
+                            e.printStackTrace();
+                        }
+                    });
+        } finally {
+            if (fileSystem != null) {
+                fileSystem.close();
+            }
+        }
+    }
+
+    /**
+     * Parse the configs of all worlds in the worlds folder, so loading them only creates their instances.
+     * Doesn't need Minestom, so it can run while the modules are enabled.
+     */
+    public void prepareWorldConfigs() {
+        File[] files = new File("worlds").listFiles(File::isDirectory);
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            // The default world is created by its own phase, which reads its config
+            if (name.equals(DEFAULT_WORLD_NAME) || loadedWorlds.containsKey(name) || preparedConfigs.containsKey(name)) {
+                continue;
+            }
+            PreparedConfig preparedConfig = prepareConfig(name);
+            if (preparedConfig != null) {
+                preparedConfigs.put(name, preparedConfig);
+            }
+        }
+    }
+
     public void loadAllAvailableWorlds() {
         long startTime = System.nanoTime();
         File[] files = new File("worlds").listFiles();
@@ -130,66 +198,74 @@ public class WorldManagerImpl implements WorldManager {
                 .forEach(this::loadWorld);
         double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
         Logger.info("All available worlds loaded in " + String.format("%.2fms", timeInMillis));
+        // Worlds loaded later read their config again
+        preparedConfigs.clear();
         ServerImpl.getInstance().getModuleManager().loadModulesPostWorld();
     }
 
     @Override
     public void deleteWorld(World world) {
+        deleteWorldAsync(world);
+    }
+
+    /**
+     * Unload the world with {@link #unloadWorldAsync(World)} and delete its directory, after it got unregistered.
+     * @return completes after the directory got deleted
+     */
+    @Override
+    public CompletableFuture<Void> deleteWorldAsync(World world) {
         long startTime = System.nanoTime();
         String name = world.getName();
         if (name.equals(DEFAULT_WORLD_NAME)) {
             Logger.warn("Cannot delete default world. Aborting.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         World deletedWorld = loadedWorlds.get(name);
         if (deletedWorld == null) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        YamlFile yamlFile = deletedWorld.getWorldConfig();
-        if (yamlFile != null) {
-            try {
-                yamlFile.save();
-            } catch (IOException e) {
-                Logger.error("Failed to save world configuration", e);
-            }
+        // The players are still evacuated and the chunks saved, so the directory can only be deleted afterwards
+        return unloadWorldAsync(deletedWorld).thenRun(() -> {
+            deleteDirectory(Path.of("worlds/" + name));
+            double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+            Logger.info("World deleted in " + String.format("%.2fms", timeInMillis) + ": " + name);
+        });
+    }
+
+    private static void deleteDirectory(Path dir) {
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            return;
         }
-        unloadWorld(deletedWorld);
-        Path dir = Path.of("worlds/" + name);
-        if (Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
-            try {
-                List<File> directories = new ArrayList<>();
-                Files.walk(dir)
-                        .sorted(Comparator.reverseOrder())
-                        .map(Path::toFile)
-                        .forEach(file -> {
-                            if (file.isDirectory()) {
-                                directories.add(file);
-                            } else {
-                                try {
-                                    Files.delete(file.toPath());
-                                } catch (IOException e) {
-                                    Logger.error("Failed to delete file", e);
-                                    e.printStackTrace();
-                                }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            List<File> directories = new ArrayList<>();
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(file -> {
+                        if (file.isDirectory()) {
+                            directories.add(file);
+                        } else {
+                            try {
+                                Files.delete(file.toPath());
+                            } catch (IOException e) {
+                                Logger.error("Failed to delete file", e);
                             }
-                        });
-                for (File directory : directories) {
-                    if (!directory.delete()) {
-                        Logger.error("Failed to delete directory: " + directory);
-                    }
+                        }
+                    });
+            for (File directory : directories) {
+                if (!directory.delete()) {
+                    Logger.error("Failed to delete directory: " + directory);
                 }
-            } catch (IOException e) {
-                Logger.error("Failed to delete world directory", e);
-                e.printStackTrace();
-                return;
             }
+        } catch (IOException e) {
+            Logger.error("Failed to delete world directory", e);
         }
-        loadedWorlds.remove(name);
-        loadedInstances.remove(name);
-        InstanceManager instanceManager = MinecraftServer.getInstanceManager();
-        instanceManager.unregisterInstance(deletedWorld.getInstanceContainer());
-        double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
-        Logger.info("World deleted in " + String.format("%.2fms", timeInMillis) + ": " + name);
+    }
+
+    /**
+     * @return a number, which changes whenever a world got loaded or unloaded
+     */
+    public int getWorldsVersion() {
+        return worldsVersion.get();
     }
 
     @Override
@@ -204,31 +280,54 @@ public class WorldManagerImpl implements WorldManager {
 
     @Override
     public void unloadWorld(World world) {
+        unloadWorldAsync(world);
+    }
+
+    /**
+     * Move all players out of the world with a {@link WorldEvacuation}, then save and unregister it.
+     * The world is removed from the loaded worlds right away, so no player gets sent into it anymore.
+     * @return completes after the world got saved and unregistered
+     */
+    @Override
+    public CompletableFuture<Void> unloadWorldAsync(World world) {
         long startTime = System.nanoTime();
         String name = world.getName();
         if (name.equals(DEFAULT_WORLD_NAME)) {
             Logger.warn("Cannot unload default world. Aborting.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         Logger.info("Unloading world: " + name);
-        World unloadedWorld = loadedWorlds.get(name);
+        World unloadedWorld = loadedWorlds.remove(name);
         if (unloadedWorld == null) {
             Logger.warn("World not loaded; skipping unload");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        InstanceContainer instance = unloadedWorld.getInstanceContainer();
-        if (instance != null) {
-            InstanceManager instanceManager = MinecraftServer.getInstanceManager();
-            instance.getPlayers().forEach(player -> player.setInstance(ServerImpl.getInstance().getDefaulWorld().getInstanceContainer(), ServerImpl.getInstance().getDefaulWorld().getSpawnPoint()));
-            instance.saveChunksToStorage().thenAccept((v -> {
-                instanceManager.unregisterInstance(instance);
-                if (ServerImpl.DEBUG) Logger.info("Instance unregistered: " + name);
-            }));
-        }
-        loadedWorlds.remove(name);
         loadedInstances.remove(name);
-        double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
-        Logger.info("World unloaded in " + String.format("%.2fms", timeInMillis) + ": " + name);
+        worldsVersion.incrementAndGet();
+        InstanceContainer instance = unloadedWorld.getInstanceContainer();
+        if (instance == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> unload = new WorldEvacuation(instance, name).start()
+                .thenCompose(ignored -> {
+                    if (ServerImpl.DEBUG) Logger.info("Moved all players out of world " + name + ", saving it");
+                    return saveChunks(name, instance);
+                })
+                .thenRun(() -> {
+                    MinecraftServer.getInstanceManager().unregisterInstance(instance);
+                    closeOffHeapStore(name);
+                    if (ServerImpl.DEBUG) Logger.info("Instance unregistered: " + name);
+                    double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+                    Logger.info("World unloaded in " + String.format("%.2fms", timeInMillis) + ": " + name);
+                });
+        unloadingWorlds.put(name, unload);
+        unload.whenComplete((result, throwable) -> {
+            unloadingWorlds.remove(name, unload);
+            if (throwable != null) {
+                Logger.error("Failed to unload world " + name, throwable);
+            }
+        });
+        return unload;
     }
 
     @Override
@@ -239,8 +338,12 @@ public class WorldManagerImpl implements WorldManager {
             if (ServerImpl.DEBUG) Logger.warn("World already loaded; skipping load");
             return;
         }
+        if (unloadingWorlds.containsKey(name)) {
+            Logger.warn("World " + name + " is still unloading; skipping load");
+            return;
+        }
         if (ServerImpl.DEBUG) Logger.info("Loading world: " + name);
-        InstanceContainer instance = MinecraftServer.getInstanceManager().createInstanceContainer(new AnvilLoader("worlds/" + name));
+        InstanceContainer instance = createInstance(name);
         Path dir = Path.of("worlds/" + name);
         if (Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
             World loadedWorld = new World();
@@ -248,14 +351,13 @@ public class WorldManagerImpl implements WorldManager {
             loadedWorld.setInstanceContainer(instance);
             loadedWorld.setDimensionType(Dimension.OVERWORLD.getDimensionType());
 
-            // Set spawn point
-            Pos spawnPoint = loadConfig(name);
-
-            loadedWorld.setSpawnPoint(spawnPoint);
-            loadedWorld.setWorldConfig(getWorldConfigFile(name));
+            YamlFile yamlFile = getWorldConfigFile(name);
+            loadedWorld.setSpawnPoint(yamlFile == null ? new Pos(0.0D, 41.0D, 0.0D, 0.0F, 0.0F) : spawnPoint(yamlFile));
+            loadedWorld.setWorldConfig(yamlFile);
 
             loadedWorlds.put(name, loadedWorld);
             loadedInstances.put(name, instance);
+            worldsVersion.incrementAndGet();
             double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
             if (ServerImpl.DEBUG) Logger.info("World loaded in " + String.format("%.2fms", timeInMillis) + ": " + name);
             return;
@@ -265,11 +367,19 @@ public class WorldManagerImpl implements WorldManager {
 
     @Override
     public void saveWorld(String name) {
+        saveWorldAsync(name);
+    }
+
+    /**
+     * Save the world config and all chunks of the world.
+     * @return completes when the chunks are written to the storage
+     */
+    public CompletableFuture<Void> saveWorldAsync(String name) {
         long startTime = System.nanoTime();
         World world = loadedWorlds.get(name);
         if (world == null) {
             Logger.warn("World not loaded; skipping save");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         YamlFile yamlFile = world.getWorldConfig();
         if (yamlFile != null) {
@@ -281,24 +391,44 @@ public class WorldManagerImpl implements WorldManager {
         }
         InstanceContainer instance = world.getInstanceContainer();
         if (instance != null) {
-            instance.saveChunksToStorage().thenAccept(success -> {
-                double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+            long saveStartTime = System.nanoTime();
+            return saveChunks(name, instance).thenRun(() -> {
+                // The region files changed, their chunks mustn't share the old packets
+                if (instance.getChunkSupplier() instanceof TemplateChunkSupplier chunkSupplier) {
+                    chunkSupplier.invalidate();
+                }
+                long endTime = System.nanoTime();
+                saveLatency.record(endTime - saveStartTime);
+                double timeInMillis = (endTime - startTime) / 1_000_000.0;
                 Logger.info("World saved in " + String.format("%.2fms", timeInMillis) + ": " + name);
             });
-            return;
         }
         Logger.error("Instance not found; skipping save");
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
     public void saveAllWorlds() {
-        if (ServerImpl.DEBUG) Logger.info("Saving all worlds. This may take a while. Be aware that this is an synchronous operation.");
+        saveAllWorldsAsync();
+    }
+
+    /**
+     * Start saving all loaded worlds at once.
+     * @return completes when the chunks of all worlds are written to the storage and all unloads are finished
+     */
+    public CompletableFuture<Void> saveAllWorldsAsync() {
+        if (ServerImpl.DEBUG) Logger.info("Saving all worlds. This may take a while.");
         long startTime = System.nanoTime();
-        for (World world : loadedWorlds.values()) {
-            saveWorld(world.getName());
+        List<CompletableFuture<Void>> saves = new ArrayList<>();
+        for (World world : List.copyOf(loadedWorlds.values())) {
+            saves.add(saveWorldAsync(world.getName()));
         }
-        double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
-        if (ServerImpl.DEBUG) Logger.info("Saved all worlds in " + String.format("%.2fms", timeInMillis));
+        // Unloading worlds are saved by their unload
+        saves.addAll(unloadingWorlds.values());
+        return CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new)).thenRun(() -> {
+            double timeInMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+            if (ServerImpl.DEBUG) Logger.info("Saved all worlds in " + String.format("%.2fms", timeInMillis));
+        });
     }
 
     private PathWithFileSystem getDefaultWorldRegionFolder() {
@@ -321,6 +451,23 @@ public class WorldManagerImpl implements WorldManager {
 
     @Override
     public YamlFile getWorldConfigFile(String worldName) {
+        PreparedConfig prepared = preparedConfigs.remove(worldName);
+        if (prepared != null && prepared.isCurrent(worldName)) {
+            return prepared.yamlFile();
+        }
+        return readWorldConfigFile(worldName);
+    }
+
+    private PreparedConfig prepareConfig(String worldName) {
+        YamlFile yamlFile = readWorldConfigFile(worldName);
+        if (yamlFile == null) {
+            return null;
+        }
+        // Read after the defaults got saved
+        return new PreparedConfig(yamlFile, PreparedConfig.modifiedMillis(worldName));
+    }
+
+    private YamlFile readWorldConfigFile(String worldName) {
         try {
             Path dir = Path.of("worlds/" + worldName);
             YamlFile yamlFile = new YamlFile(dir.resolve("minestom-world.yml").toString());
@@ -334,6 +481,7 @@ public class WorldManagerImpl implements WorldManager {
             defaultValue(yamlFile, "spawn.z", 0.0D, "The z-coordinate of the spawnpoint");
             defaultValue(yamlFile, "spawn.yaw", 0.0F, "The yaw of the spawnpoint");
             defaultValue(yamlFile, "spawn.pitch", 0.0F, "The pitch of the spawnpoint");
+            defaultValue(yamlFile, "chunk-storage", ChunkStorage.HEAP.name(), "Toggle where idle chunks are kept (options: HEAP, OFF_HEAP)");
             yamlFile.save();
             return yamlFile;
         } catch (IOException e) {
@@ -342,35 +490,67 @@ public class WorldManagerImpl implements WorldManager {
         return null;
     }
 
-    private Pos loadConfig(String worldName) {
-        try {
-            Path dir = Path.of("worlds/" + worldName);
-            YamlFile yamlFile = new YamlFile(dir.resolve("minestom-world.yml").toString());
-            yamlFile.options().copyDefaults(true);
-            if (!yamlFile.exists()) {
-                yamlFile.createNewFile();
-            }
-            yamlFile.loadWithComments();
-
-            defaultValue(yamlFile, "spawn.x", 0.0D, "The x-coordinate of the spawnpoint");
-            defaultValue(yamlFile, "spawn.y", -61.0D, "The y-coordinate of the spawnpoint");
-            defaultValue(yamlFile, "spawn.z", 0.0D, "The z-coordinate of the spawnpoint");
-            defaultValue(yamlFile, "spawn.yaw", 0.0F, "The yaw of the spawnpoint");
-            defaultValue(yamlFile, "spawn.pitch", 0.0F, "The pitch of the spawnpoint");
+    private InstanceContainer createInstance(String name) {
+        InstanceContainer instance = MinecraftServer.getInstanceManager().createInstanceContainer(new AnvilLoader("worlds/" + name));
+        OffHeapChunkStore offHeapStore = chunkStorage(name) == ChunkStorage.OFF_HEAP ? new OffHeapChunkStore(name) : null;
+        if (chunkPacketCache != null || offHeapStore != null) {
+            instance.setChunkSupplier(new TemplateChunkSupplier(Path.of("worlds", name), chunkPacketCache, offHeapStore));
+        }
+        if (offHeapStore != null) {
+            closeOffHeapStore(name);
+            offHeapStores.put(name, offHeapStore);
+            offHeapStore.start(instance);
+        }
+        return instance;
+    }
 
-            yamlFile.save();
+    private ChunkStorage chunkStorage(String name) {
+        if (!Files.isDirectory(Path.of("worlds", name))) {
+            return ChunkStorage.HEAP;
+        }
+        // Keep the parsed config, so the world doesn't read it again
+        PreparedConfig prepared = preparedConfigs.get(name);
+        if (prepared == null || !prepared.isCurrent(name)) {
+            prepared = prepareConfig(name);
+            if (prepared != null) {
+                preparedConfigs.put(name, prepared);
+            }
+        }
+        YamlFile yamlFile = prepared == null ? null : prepared.yamlFile();
+        String storage = yamlFile == null ? null : yamlFile.getString("chunk-storage");
+        try {
+            return storage == null ? ChunkStorage.HEAP : ChunkStorage.valueOf(storage.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Logger.warn("Unknown chunk-storage " + storage + " of world " + name + ", keeping it on the heap");
+            return ChunkStorage.HEAP;
+        }
+    }
 
-            double x = yamlFile.getInt("spawn.x");
-            double y = yamlFile.getInt("spawn.y");
-            double z = yamlFile.getInt("spawn.z");
-            float yaw = yamlFile.getInt("spawn.yaw");
-            float pitch = yamlFile.getInt("spawn.pitch");
+    private CompletableFuture<Void> saveChunks(String name, InstanceContainer instance) {
+        OffHeapChunkStore offHeapStore = offHeapStores.get(name);
+        if (offHeapStore == null) {
+            return instance.saveChunksToStorage();
+        }
+        // Parked chunks would be saved without their blocks
+        offHeapStore.beginSave(instance);
+        try {
+            return instance.saveChunksToStorage().whenComplete((result, throwable) -> offHeapStore.endSave());
+        } catch (RuntimeException e) {
+            offHeapStore.endSave();
+            throw e;
+        }
+    }
 
-            return new Pos(x, y, z, yaw, pitch);
-        } catch (IOException e) {
-            Logger.error("Failed to load world configuration", e);
+    private void closeOffHeapStore(String name) {
+        OffHeapChunkStore offHeapStore = offHeapStores.remove(name);
+        if (offHeapStore != null) {
+            offHeapStore.close();
         }
-        return new Pos(0.0D, 41.0D, 0.0D, 0.0F, 0.0F);
+    }
+
+    private Pos spawnPoint(YamlFile yamlFile) {
+        return new Pos(yamlFile.getDouble("spawn.x"), yamlFile.getDouble("spawn.y"), yamlFile.getDouble("spawn.z"),
+                (float) yamlFile.getDouble("spawn.yaw"), (float) yamlFile.getDouble("spawn.pitch"));
     }
 
     private void defaultValue(YamlFile yamlFile, String key, Object value, String comment) {
@@ -379,4 +559,26 @@ public class WorldManagerImpl implements WorldManager {
             yamlFile.setComment(key, comment);
         }
     }
+
+    /**
+     * @param yamlFile        parsed config of the world
+     * @param modifiedMillis  modification time of the config file, when it was parsed
+     */
+    private record PreparedConfig(YamlFile yamlFile, long modifiedMillis) {
+
+        /**
+         * @return false if the config file changed since it was parsed
+         */
+        private boolean isCurrent(String worldName) {
+            return modifiedMillis(worldName) == modifiedMillis;
+        }
+
+        private static long modifiedMillis(String worldName) {
+            try {
+                return Files.getLastModifiedTime(Path.of("worlds", worldName, "minestom-world.yml")).toMillis();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package eu.koboo.minestom.server.world.chunk;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import net.minestom.server.network.packet.server.FramedPacket;
+import net.minestom.server.world.DimensionType;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Chunk data packets, which are encoded and compressed once and sent to every player of every world with the same chunk.
+ * The packets are framed into direct buffers, so they are kept off-heap and written to the connections as they are.
+ * <p>
+ * The cache is split into segments with their own lock and least recently used eviction,
+ * each segment holds up to its share of the maximum size.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ChunkPacketCache {
+
+    private static final int SEGMENTS = 16;
+
+    Segment[] segments;
+    LongAdder hits;
+    LongAdder misses;
+    LongAdder evictions;
+
+    public ChunkPacketCache(long maxBytes) {
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(1, maxBytes / SEGMENTS));
+        }
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * @param key     content of the chunk
+     * @param loader  encodes the packet, if it isn't cached. Runs without holding a lock
+     * @return the cached or loaded packet, or null if the loader returned null
+     */
+    public FramedPacket get(Key key, Supplier<FramedPacket> loader) {
+        Segment segment = segments[Math.floorMod(key.hashCode(), SEGMENTS)];
+        FramedPacket packet = segment.get(key);
+        if (packet != null) {
+            hits.increment();
+            return packet;
+        }
+        misses.increment();
+        packet = loader.get();
+        if (packet != null) {
+            // Two chunks might have loaded the same packet at once, the first one is kept
+            packet = segment.putIfAbsent(key, packet);
+        }
+        return packet;
+    }
+
+    public Stats getStats() {
+        int entries = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.packets.size();
+                bytes += segment.bytes;
+            }
+        }
+        return new Stats(entries, bytes, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private static long sizeOf(FramedPacket packet) {
+        return packet.body().capacity();
+    }
+
+    /**
+     * Identifies the content of a chunk packet.
+     * Only chunks stored in a region file have a key, generated chunks depend on the generator of their world.
+     * @param regionDigest        digest of the region file, the chunk was loaded from
+     * @param chunkX              x coordinate of the chunk
+     * @param chunkZ              z coordinate of the chunk
+     * @param dimensionType       dimension of the instance, as it defines the height of the chunk
+     * @param protocolVersion     protocol, the packet is encoded for
+     * @param compressionThreshold threshold, the packet got compressed with
+     */
+    public record Key(long regionDigest, int chunkX, int chunkZ, DimensionType dimensionType,
+                      int protocolVersion, int compressionThreshold) {
+    }
+
+    /**
+     * @param entries    cached packets
+     * @param bytes      size of the cached packets
+     * @param hits       packets sent from the cache
+     * @param misses     packets encoded, as they weren't cached
+     * @param evictions  packets removed to free space
+     */
+    public record Stats(int entries, long bytes, long hits, long misses, long evictions) {
+    }
+
+    private class Segment {
+
+        private final Map<Key, FramedPacket> packets = new LinkedHashMap<>(64, 0.75f, true);
+        private final long maxBytes;
+        private long bytes;
+
+        private Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized FramedPacket get(Key key) {
+            return packets.get(key);
+        }
+
+        private synchronized FramedPacket putIfAbsent(Key key, FramedPacket packet) {
+            FramedPacket existing = packets.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            long size = sizeOf(packet);
+            if (size > maxBytes) {
+                return packet;
+            }
+            packets.put(key, packet);
+            bytes += size;
+            Iterator<FramedPacket> iterator = packets.values().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                FramedPacket eldest = iterator.next();
+                iterator.remove();
+                bytes -= sizeOf(eldest);
+                evictions.increment();
+            }
+            return packet;
+        }
+    }
+}
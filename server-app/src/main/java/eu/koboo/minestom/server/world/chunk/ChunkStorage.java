@@ -0,0 +1,15 @@
+package eu.koboo.minestom.server.world.chunk;
+
+/**
+ * Where the sections of the chunks of a world are kept, set by `chunk-storage` in the `minestom-world.yml`.
+ */
+public enum ChunkStorage {
+    /**
+     * All sections stay on the heap.
+     */
+    HEAP,
+    /**
+     * Block palettes and light of idle chunks are moved into off-heap memory, see {@link OffHeapChunkStore}.
+     */
+    OFF_HEAP
+}
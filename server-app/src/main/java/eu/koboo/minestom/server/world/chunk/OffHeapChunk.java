@@ -0,0 +1,266 @@
+package eu.koboo.minestom.server.world.chunk;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.Section;
+import net.minestom.server.network.packet.server.SendablePacket;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chunk, which moves the block palettes and light of its sections into off-heap memory while it's idle.
+ * Every access to the sections moves them back onto the heap first, so callers never see a parked chunk,
+ * and keeps the chunk from being parked again for a while.
+ * <p>
+ * The {@link OffHeapChunkStore} of the world decides when a chunk gets parked and owns its memory.
+ * Biome palettes are small and stay on the heap.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OffHeapChunk extends TemplateChunk {
+
+    // Package-private, the store sizes its section buffers by it
+    static final int SECTION_VOLUME = 16 * 16 * 16;
+    private static final byte[] NO_LIGHT = new byte[0];
+
+    OffHeapChunkStore store;
+
+    // Encoded sections, while the chunk is parked
+    @NonFinal
+    volatile ByteBuffer parked;
+    @NonFinal
+    volatile long lastActiveNanos;
+    // Set on every access, turned into lastActiveNanos by the park task, so accesses don't read the clock
+    @NonFinal
+    volatile boolean accessed;
+
+    public OffHeapChunk(Instance instance, int chunkX, int chunkZ, ChunkPacketCache packetCache,
+                        ChunkPacketCache.Key packetKey, OffHeapChunkStore store) {
+        super(instance, chunkX, chunkZ, packetCache, packetKey);
+        this.store = store;
+        this.lastActiveNanos = System.nanoTime();
+    }
+
+    @Override
+    public List<Section> getSections() {
+        access();
+        return super.getSections();
+    }
+
+    @Override
+    public Section getSection(int section) {
+        access();
+        return super.getSection(section);
+    }
+
+    @Override
+    public SendablePacket getFullDataPacket() {
+        // Minestom encodes the packet from the sections directly
+        access();
+        return super.getFullDataPacket();
+    }
+
+    @Override
+    public Chunk copy(Instance instance, int chunkX, int chunkZ) {
+        access();
+        return super.copy(instance, chunkX, chunkZ);
+    }
+
+    @Override
+    public synchronized void reset() {
+        release();
+        super.reset();
+    }
+
+    public boolean isParked() {
+        return parked != null;
+    }
+
+    /**
+     * @return the last time the chunk was accessed, as seen by the park task at the given time
+     */
+    long getLastActiveNanos(long nanos) {
+        if (accessed) {
+            accessed = false;
+            lastActiveNanos = nanos;
+        }
+        return lastActiveNanos;
+    }
+
+    void markActive(long nanos) {
+        lastActiveNanos = nanos;
+    }
+
+    private void access() {
+        unpark();
+        // Only write the flag once, as the chunk is accessed from many threads
+        if (!accessed) {
+            accessed = true;
+        }
+    }
+
+    /**
+     * Encode the sections into the scratch buffer, copy them into off-heap memory and empty the heap palettes.
+     * @param scratch  heap buffer of the store, large enough for {@link #maxEncodedSize()}
+     * @param values   scratch array for the blocks of one section
+     * @return the off-heap buffer, or null if the chunk is already parked, was accessed since it was checked
+     * or the world is being saved
+     */
+    synchronized ByteBuffer park(ByteBuffer scratch, int[] values) {
+        if (parked != null || accessed || store.isSaving()) {
+            return null;
+        }
+        List<Section> sections = super.getSections();
+        scratch.clear();
+        for (Section section : sections) {
+            writeSection(scratch, section, values);
+        }
+        scratch.flip();
+        ByteBuffer buffer = store.acquire(scratch.remaining());
+        buffer.put(scratch);
+        buffer.flip();
+        for (Section section : sections) {
+            section.blockPalette().fill(0);
+            section.setSkyLight(NO_LIGHT);
+            section.setBlockLight(NO_LIGHT);
+        }
+        parked = buffer;
+        store.parked(this, buffer);
+        return buffer;
+    }
+
+    /**
+     * Decode the sections back onto the heap and give the off-heap memory back to the store.
+     */
+    void unpark() {
+        if (parked == null) {
+            return;
+        }
+        synchronized (this) {
+            ByteBuffer buffer = parked;
+            if (buffer == null) {
+                return;
+            }
+            ByteBuffer data = buffer.duplicate();
+            int[] values = new int[SECTION_VOLUME];
+            for (Section section : super.getSections()) {
+                readSection(data, section, values);
+            }
+            parked = null;
+            lastActiveNanos = System.nanoTime();
+            store.release(this, buffer);
+        }
+    }
+
+    /**
+     * Restore the sections before a save and wait for a park in progress, so the save reads the real blocks.
+     * The store doesn't park chunks, until the save is done.
+     */
+    synchronized void unparkForSave() {
+        unpark();
+    }
+
+    /**
+     * Drop the parked sections without restoring them, as the chunk got unloaded.
+     */
+    synchronized void release() {
+        ByteBuffer buffer = parked;
+        if (buffer != null) {
+            parked = null;
+            store.release(this, buffer);
+        }
+    }
+
+    /**
+     * @return the maximum amount of bytes the sections can be encoded to
+     */
+    int maxEncodedSize() {
+        int size = 0;
+        for (Section section : super.getSections()) {
+            // Palette header, a palette with every block and 12 bits per block, then both light arrays
+            size += 8 + SECTION_VOLUME * Integer.BYTES + (SECTION_VOLUME / (64 / 12) + 1) * Long.BYTES
+                    + 8 + section.skyLight().length + section.blockLight().length;
+        }
+        return size;
+    }
+
+    private static void writeSection(ByteBuffer out, Section section, int[] values) {
+        section.blockPalette().getAll((x, y, z, value) -> values[index(x, y, z)] = value);
+        int[] palette = Arrays.stream(values).distinct().sorted().toArray();
+        int bits = bitsPerEntry(palette.length);
+        out.putInt(palette.length);
+        for (int value : palette) {
+            out.putInt(value);
+        }
+        if (bits > 0) {
+            int valuesPerLong = 64 / bits;
+            long word = 0;
+            int shift = 0;
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                word |= (long) Arrays.binarySearch(palette, values[i]) << shift;
+                shift += bits;
+                if ((i + 1) % valuesPerLong == 0) {
+                    out.putLong(word);
+                    word = 0;
+                    shift = 0;
+                }
+            }
+            if (shift > 0) {
+                out.putLong(word);
+            }
+        }
+        writeLight(out, section.skyLight());
+        writeLight(out, section.blockLight());
+    }
+
+    private static void readSection(ByteBuffer in, Section section, int[] values) {
+        int[] palette = new int[in.getInt()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = in.getInt();
+        }
+        int bits = bitsPerEntry(palette.length);
+        if (bits == 0) {
+            section.blockPalette().fill(palette[0]);
+        } else {
+            int valuesPerLong = 64 / bits;
+            long mask = (1L << bits) - 1;
+            long word = 0;
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                if (i % valuesPerLong == 0) {
+                    word = in.getLong();
+                }
+                values[i] = palette[(int) ((word >>> ((i % valuesPerLong) * bits)) & mask)];
+            }
+            section.blockPalette().setAll((x, y, z) -> values[index(x, y, z)]);
+        }
+        section.setSkyLight(readLight(in));
+        section.setBlockLight(readLight(in));
+    }
+
+    private static void writeLight(ByteBuffer out, byte[] light) {
+        out.putInt(light.length);
+        out.put(light);
+    }
+
+    private static byte[] readLight(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == 0) {
+            return NO_LIGHT;
+        }
+        byte[] light = new byte[length];
+        in.get(light);
+        return light;
+    }
+
+    private static int bitsPerEntry(int paletteSize) {
+        return paletteSize <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+}
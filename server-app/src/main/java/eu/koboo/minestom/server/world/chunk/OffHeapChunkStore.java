@@ -0,0 +1,221 @@
+package eu.koboo.minestom.server.world.chunk;
+
+import eu.koboo.minestom.server.ServerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.event.instance.InstanceChunkUnloadEvent;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.timer.Task;
+import net.minestom.server.timer.TaskSchedule;
+import org.tinylog.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap memory of the {@link OffHeapChunk}s of one world.
+ * <p>
+ * Every few seconds, chunks without viewers and entities, which weren't accessed for a while, are parked.
+ * Their memory is given back when they are accessed again or unloaded, and all of it when the world is unloaded.
+ * Freed buffers are pooled by size, so parking doesn't allocate direct memory again and again.
+ * While the world is saved, all chunks are restored and nothing is parked, so the save reads stable sections.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OffHeapChunkStore {
+
+    private static final int PARK_INTERVAL_SECONDS = 5;
+    private static final long PARK_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MIN_SIZE_CLASS = 12;
+    private static final int MAX_SIZE_CLASS = 30;
+    private static final long MAX_POOLED_BYTES = 16L * 1024 * 1024;
+
+    String worldName;
+    Set<OffHeapChunk> parkedChunks;
+    AtomicLong parkedBytes;
+    // Saves in progress
+    AtomicInteger saves;
+    // Freed buffers by the log2 of their capacity, guarded by itself
+    ArrayDeque<ByteBuffer>[] pool;
+    int[] values;
+
+    @NonFinal
+    long pooledBytes;
+    // Only used by the park task
+    @NonFinal
+    ByteBuffer scratch;
+    @NonFinal
+    Task task;
+    @NonFinal
+    volatile boolean closed;
+
+    @SuppressWarnings("unchecked")
+    public OffHeapChunkStore(String worldName) {
+        this.worldName = worldName;
+        this.parkedChunks = ConcurrentHashMap.newKeySet();
+        this.parkedBytes = new AtomicLong();
+        this.saves = new AtomicInteger();
+        this.pool = new ArrayDeque[MAX_SIZE_CLASS + 1];
+        for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+            pool[i] = new ArrayDeque<>();
+        }
+        this.values = new int[OffHeapChunk.SECTION_VOLUME];
+        this.scratch = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Start parking the idle chunks of the instance on its own tick thread.
+     */
+    public void start(Instance instance) {
+        instance.eventNode().addListener(InstanceChunkUnloadEvent.class, event -> {
+            if (event.getChunk() instanceof OffHeapChunk chunk) {
+                chunk.release();
+            }
+        });
+        task = instance.scheduler().buildTask(() -> parkIdleChunks(instance))
+                .delay(TaskSchedule.seconds(PARK_INTERVAL_SECONDS))
+                .repeat(TaskSchedule.seconds(PARK_INTERVAL_SECONDS))
+                .schedule();
+    }
+
+    /**
+     * Stop parking chunks and free all off-heap memory of the world.
+     * The world has to be saved before, parked chunks are dropped.
+     */
+    public void close() {
+        closed = true;
+        if (task != null) {
+            task.cancel();
+        }
+        for (OffHeapChunk chunk : parkedChunks) {
+            chunk.release();
+        }
+        synchronized (pool) {
+            for (ArrayDeque<ByteBuffer> buffers : pool) {
+                if (buffers != null) {
+                    buffers.clear();
+                }
+            }
+            pooledBytes = 0;
+        }
+    }
+
+    /**
+     * Restore all parked chunks of the instance and stop parking them, until {@link #endSave()} is called.
+     */
+    public void beginSave(Instance instance) {
+        saves.incrementAndGet();
+        for (Chunk chunk : instance.getChunks()) {
+            if (chunk instanceof OffHeapChunk offHeapChunk) {
+                offHeapChunk.unparkForSave();
+            }
+        }
+    }
+
+    public void endSave() {
+        saves.decrementAndGet();
+    }
+
+    boolean isSaving() {
+        return saves.get() > 0;
+    }
+
+    public Stats getStats() {
+        long pooled;
+        synchronized (pool) {
+            pooled = pooledBytes;
+        }
+        return new Stats(parkedChunks.size(), parkedBytes.get(), pooled);
+    }
+
+    private void parkIdleChunks(Instance instance) {
+        if (isSaving()) {
+            return;
+        }
+        long now = System.nanoTime();
+        int parked = 0;
+        for (Chunk chunk : instance.getChunks()) {
+            if (closed) {
+                return;
+            }
+            if (!(chunk instanceof OffHeapChunk offHeapChunk) || offHeapChunk.isParked()) {
+                continue;
+            }
+            if (!chunk.getViewers().isEmpty() || !instance.getChunkEntities(chunk).isEmpty()) {
+                offHeapChunk.markActive(now);
+                continue;
+            }
+            if (now - offHeapChunk.getLastActiveNanos(now) < PARK_DELAY_NANOS) {
+                continue;
+            }
+            int maxSize = offHeapChunk.maxEncodedSize();
+            if (scratch.capacity() < maxSize) {
+                scratch = ByteBuffer.allocate(maxSize);
+            }
+            if (offHeapChunk.park(scratch, values) != null) {
+                parked++;
+            }
+        }
+        if (ServerImpl.DEBUG && parked > 0) Logger.info("Parked " + parked + " chunks of world " + worldName + " off-heap");
+    }
+
+    /**
+     * @return a cleared direct buffer with at least the given capacity
+     */
+    ByteBuffer acquire(int size) {
+        int sizeClass = Math.max(MIN_SIZE_CLASS, 32 - Integer.numberOfLeadingZeros(Math.max(1, size) - 1));
+        if (sizeClass > MAX_SIZE_CLASS) {
+            throw new IllegalArgumentException("Chunk of " + size + " bytes is too large to park");
+        }
+        synchronized (pool) {
+            ByteBuffer buffer = pool[sizeClass].poll();
+            if (buffer != null) {
+                pooledBytes -= buffer.capacity();
+                return buffer.clear();
+            }
+        }
+        return ByteBuffer.allocateDirect(1 << sizeClass);
+    }
+
+    /**
+     * Called by a chunk, which moved its sections into the buffer.
+     */
+    void parked(OffHeapChunk chunk, ByteBuffer buffer) {
+        parkedChunks.add(chunk);
+        parkedBytes.addAndGet(buffer.capacity());
+    }
+
+    /**
+     * Called by a chunk, which doesn't use its buffer anymore.
+     */
+    void release(OffHeapChunk chunk, ByteBuffer buffer) {
+        if (parkedChunks.remove(chunk)) {
+            parkedBytes.addAndGet(-buffer.capacity());
+        }
+        if (closed) {
+            return;
+        }
+        int sizeClass = Integer.numberOfTrailingZeros(buffer.capacity());
+        synchronized (pool) {
+            // Buffers above the limit are left to the garbage collector
+            if (pooledBytes + buffer.capacity() <= MAX_POOLED_BYTES) {
+                pool[sizeClass].push(buffer);
+                pooledBytes += buffer.capacity();
+            }
+        }
+    }
+
+    /**
+     * @param parkedChunks  chunks, which are currently parked
+     * @param parkedBytes   off-heap memory of the parked chunks
+     * @param pooledBytes   off-heap memory, which is free for the next parked chunks
+     */
+    public record Stats(int parkedChunks, long parkedBytes, long pooledBytes) {
+    }
+}
@@ -0,0 +1,82 @@
+package eu.koboo.minestom.server.world.chunk;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.minestom.server.instance.DynamicChunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.block.BlockHandler;
+import net.minestom.server.network.ConnectionState;
+import net.minestom.server.network.packet.server.CachedPacket;
+import net.minestom.server.network.packet.server.FramedPacket;
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.registry.DynamicRegistry;
+import net.minestom.server.utils.PacketUtils;
+import net.minestom.server.world.biome.Biome;
+
+/**
+ * Chunk, which sends the shared packet of the {@link ChunkPacketCache} as long as it's unchanged since it was loaded.
+ * After the first block or biome change, it falls back to the packet Minestom caches for every chunk.
+ * Without a cache or a key, it behaves like a {@link DynamicChunk}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TemplateChunk extends DynamicChunk {
+
+    ChunkPacketCache packetCache;
+    ChunkPacketCache.Key packetKey;
+
+    @NonFinal
+    volatile boolean loaded;
+    @NonFinal
+    volatile boolean modified;
+
+    public TemplateChunk(Instance instance, int chunkX, int chunkZ, ChunkPacketCache packetCache, ChunkPacketCache.Key packetKey) {
+        super(instance, chunkX, chunkZ);
+        this.packetCache = packetCache;
+        this.packetKey = packetKey;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        // The loader fills the chunk before, so only later changes count
+        loaded = true;
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, Block block, BlockHandler.Placement placement, BlockHandler.Destroy destroy) {
+        // DynamicChunk invalidates its packet cache directly, so the change has to be tracked here
+        markModified();
+        super.setBlock(x, y, z, block, placement, destroy);
+    }
+
+    @Override
+    public void setBiome(int x, int y, int z, DynamicRegistry.Key<Biome> biome) {
+        markModified();
+        super.setBiome(x, y, z, biome);
+    }
+
+    @Override
+    public void invalidate() {
+        markModified();
+        super.invalidate();
+    }
+
+    private void markModified() {
+        if (loaded) {
+            modified = true;
+        }
+    }
+
+    @Override
+    public SendablePacket getFullDataPacket() {
+        SendablePacket packet = super.getFullDataPacket();
+        if (packetCache == null || packetKey == null || !loaded || modified || !(packet instanceof CachedPacket cachedPacket)) {
+            return packet;
+        }
+        FramedPacket framedPacket = packetCache.get(packetKey,
+                () -> PacketUtils.allocateTrimmedPacket(ConnectionState.PLAY, cachedPacket.packet(ConnectionState.PLAY)));
+        return framedPacket != null ? framedPacket : packet;
+    }
+}
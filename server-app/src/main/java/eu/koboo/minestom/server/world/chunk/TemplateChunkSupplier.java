@@ -0,0 +1,158 @@
+package eu.koboo.minestom.server.world.chunk;
+
+import eu.koboo.minestom.server.ServerImpl;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.utils.chunk.ChunkSupplier;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the {@link TemplateChunk}s of a world.
+ * Chunks are identified by the digest of their region file, so worlds copied from the same template share
+ * their packets, while a saved world with changed regions gets its own.
+ * <p>
+ * Only chunks stored in a region file are shared. Chunks missing from it are generated, and the generator
+ * can differ between worlds. The digest of a region file is computed in the background, chunks loaded before
+ * it's done aren't shared. A digest is dropped when the world gets saved or the file changed since it was computed.
+ * <p>
+ * With an {@link OffHeapChunkStore}, the chunks are {@link OffHeapChunk}s. Either the cache or the store can be null.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TemplateChunkSupplier implements ChunkSupplier {
+
+    private static final ExecutorService DIGEST_EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("RegionDigest-", 0).factory());
+    // Header of a region file, with the location of every chunk
+    private static final int REGION_CHUNKS = 32 * 32;
+
+    Path regionFolder;
+    ChunkPacketCache packetCache;
+    OffHeapChunkStore offHeapStore;
+    Map<Long, CompletableFuture<RegionDigest>> regionDigests;
+
+    public TemplateChunkSupplier(Path worldFolder, ChunkPacketCache packetCache, OffHeapChunkStore offHeapStore) {
+        this.regionFolder = worldFolder.resolve("region");
+        this.packetCache = packetCache;
+        this.offHeapStore = offHeapStore;
+        this.regionDigests = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Chunk createChunk(Instance instance, int chunkX, int chunkZ) {
+        ChunkPacketCache.Key key = null;
+        if (packetCache != null) {
+            RegionDigest regionDigest = regionDigest(chunkX >> 5, chunkZ >> 5);
+            if (regionDigest != null && regionDigest.contains(chunkX, chunkZ)) {
+                key = new ChunkPacketCache.Key(
+                        regionDigest.digest(), chunkX, chunkZ,
+                        instance.getDimensionType(), MinecraftServer.PROTOCOL_VERSION, MinecraftServer.getCompressionThreshold()
+                );
+            }
+        }
+        if (offHeapStore != null) {
+            return new OffHeapChunk(instance, chunkX, chunkZ, packetCache, key, offHeapStore);
+        }
+        return new TemplateChunk(instance, chunkX, chunkZ, packetCache, key);
+    }
+
+    /**
+     * Drop all digests, called after the world got saved, as the region files changed.
+     */
+    public void invalidate() {
+        regionDigests.clear();
+    }
+
+    /**
+     * @return the digest, or null while it's computed or if the region file changed since
+     */
+    private RegionDigest regionDigest(int regionX, int regionZ) {
+        long regionIndex = ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+        Path regionFile = regionFolder.resolve("r." + regionX + "." + regionZ + ".mca");
+        CompletableFuture<RegionDigest> future = regionDigests.computeIfAbsent(regionIndex,
+                ignored -> CompletableFuture.supplyAsync(() -> digest(regionFile), DIGEST_EXECUTOR));
+        RegionDigest regionDigest = future.getNow(null);
+        if (regionDigest == null) {
+            return null;
+        }
+        // Saved through another path, like saving a single chunk
+        if (!regionDigest.matches(regionFile)) {
+            regionDigests.remove(regionIndex, future);
+            return null;
+        }
+        return regionDigest;
+    }
+
+    private static RegionDigest digest(Path regionFile) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(regionFile, BasicFileAttributes.class);
+            BitSet storedChunks = new BitSet(REGION_CHUNKS);
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            try (InputStream inputStream = Files.newInputStream(regionFile)) {
+                byte[] header = inputStream.readNBytes(REGION_CHUNKS * Integer.BYTES);
+                for (int i = 0; i + Integer.BYTES <= header.length; i += Integer.BYTES) {
+                    if ((header[i] | header[i + 1] | header[i + 2] | header[i + 3]) != 0) {
+                        storedChunks.set(i / Integer.BYTES);
+                    }
+                }
+                messageDigest.update(header);
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    messageDigest.update(buffer, 0, read);
+                }
+            }
+            byte[] hash = messageDigest.digest();
+            long digest = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                digest = (digest << 8) | (hash[i] & 0xFF);
+            }
+            return new RegionDigest(digest, storedChunks, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            // Only generated chunks, which aren't shared
+            return null;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            // The chunks of the region just aren't shared
+            if (ServerImpl.DEBUG) Logger.warn("Couldn't digest region file " + regionFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param digest        first bytes of the SHA-256 of the region file
+     * @param storedChunks  chunks stored in the region file, by their index in the header
+     * @param size          size of the region file when it was digested
+     * @param modifiedMillis modification time of the region file when it was digested
+     */
+    private record RegionDigest(long digest, BitSet storedChunks, long size, long modifiedMillis) {
+
+        private boolean contains(int chunkX, int chunkZ) {
+            return storedChunks.get((chunkX & 31) + (chunkZ & 31) * 32);
+        }
+
+        private boolean matches(Path regionFile) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(regionFile, BasicFileAttributes.class);
+                return attributes.size() == size && attributes.lastModifiedTime().toMillis() == modifiedMillis;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
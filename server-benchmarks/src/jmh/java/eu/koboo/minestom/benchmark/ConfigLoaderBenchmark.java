@@ -0,0 +1,59 @@
+package eu.koboo.minestom.benchmark;
+
+import eu.koboo.minestom.api.config.ServerConfig;
+import eu.koboo.minestom.config.ConfigLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the `server_config.yml`, once with an existing file and once on the first start, which writes the defaults.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigLoaderBenchmark {
+
+    static final Path CONFIG_FILE = Path.of(ConfigLoader.CONFIG_FILE);
+
+    @Setup(Level.Trial)
+    public void writeConfig() {
+        ConfigLoader.loadConfig();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteConfig() throws IOException {
+        Files.deleteIfExists(CONFIG_FILE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public ServerConfig loadExisting() {
+        return ConfigLoader.loadConfig();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public ServerConfig loadDefaults(MissingConfig missingConfig) {
+        return ConfigLoader.loadConfig();
+    }
+
+    @State(Scope.Thread)
+    public static class MissingConfig {
+
+        @Setup(Level.Invocation)
+        public void deleteConfig() throws IOException {
+            Files.deleteIfExists(CONFIG_FILE);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package eu.koboo.minestom.benchmark;
+
+import eu.koboo.minestom.console.BasicWriter;
+import eu.koboo.minestom.console.ConvertColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tinylog.core.LogEntry;
+import org.tinylog.runtime.RuntimeProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting console lines, with and without color codes in the message.
+ * The writer prints into a discarding stream, so only the formatting and encoding is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogFormatBenchmark {
+
+    @Param({
+            "Player joined the world lobby-1 at 0.0, 41.0, 0.0",
+            "&aPlayer &ejoined the world &blobby-1 &7at &c0.0, 41.0, 0.0"
+    })
+    String message;
+
+    PrintStream originalOut;
+    BasicWriter writer;
+    LogEntry logEntry;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // The writer keeps the stream it was created with
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        writer = new BasicWriter(Map.of());
+        logEntry = new LogEntry(RuntimeProvider.createTimestamp(), Thread.currentThread(), Map.of(),
+                LogFormatBenchmark.class.getName(), "write", "LogFormatBenchmark.java", 1,
+                null, org.tinylog.Level.INFO, message, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.flush();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        writer.write(logEntry);
+    }
+
+    @Benchmark
+    public String parseColor() {
+        return ConvertColor.parseColor(message);
+    }
+}
@@ -0,0 +1,140 @@
+package eu.koboo.minestom.benchmark;
+
+import eu.koboo.minestom.module.ModuleManagerImpl;
+import eu.koboo.minestom.server.boot.BootProfiler;
+import net.minestom.server.MinecraftServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Scanning and enabling synthetic module jars, like the server does on startup.
+ * The jars are compiled once per trial, every module has a few helper classes, which are loaded by the scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 20, batchSize = 1)
+public class ModuleManagerBenchmark {
+
+    @Param({"10", "50"})
+    int modules;
+
+    @Param({"20"})
+    int classesPerModule;
+
+    ModuleManagerImpl moduleManager;
+
+    @Setup(Level.Trial)
+    public void writeJars() throws IOException {
+        MinecraftServer.init();
+        Path moduleFolder = Path.of("modules");
+        BenchmarkFiles.deleteRecursively(moduleFolder);
+        Files.createDirectories(moduleFolder);
+        Path sourceFolder = Files.createTempDirectory("synthetic-modules");
+        try {
+            for (int module = 0; module < modules; module++) {
+                writeJar(sourceFolder.resolve("module" + module), moduleFolder.resolve("synthetic-" + module + ".jar"), module);
+            }
+        } finally {
+            BenchmarkFiles.deleteRecursively(sourceFolder);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJars() {
+        BenchmarkFiles.deleteRecursively(Path.of("modules"));
+    }
+
+    @Setup(Level.Invocation)
+    public void createManager() {
+        moduleManager = new ModuleManagerImpl(new BootProfiler());
+    }
+
+    @TearDown(Level.Invocation)
+    public void disableModules() {
+        moduleManager.disableAllModules();
+    }
+
+    @Benchmark
+    public ModuleManagerImpl enableAllModules() {
+        moduleManager.enableAllModules();
+        return moduleManager;
+    }
+
+    private void writeJar(Path sourceFolder, Path jarFile, int module) throws IOException {
+        String packageName = "synthetic.module" + module;
+        Path packageFolder = sourceFolder.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(packageFolder);
+        List<String> sources = new ArrayList<>();
+        StringBuilder helpers = new StringBuilder();
+        for (int helper = 0; helper < classesPerModule; helper++) {
+            Path source = packageFolder.resolve("Helper" + helper + ".java");
+            Files.writeString(source, "package " + packageName + ";\n"
+                    + "class Helper" + helper + " {\n"
+                    + "    static int value() { return " + helper + "; }\n"
+                    + "}\n");
+            sources.add(source.toString());
+            helpers.append("        value += Helper").append(helper).append(".value();\n");
+        }
+        Path moduleSource = packageFolder.resolve("SyntheticModule.java");
+        Files.writeString(moduleSource, "package " + packageName + ";\n"
+                + "import eu.koboo.minestom.api.module.Module;\n"
+                + "import eu.koboo.minestom.api.module.annotation.ModuleInfo;\n"
+                + "@ModuleInfo(name = \"Synthetic" + module + "\", authors = {\"benchmark\"})\n"
+                + "public class SyntheticModule extends Module {\n"
+                + "    int value;\n"
+                + "    @Override\n"
+                + "    public void onEnable() {\n"
+                + helpers
+                + "    }\n"
+                + "    @Override\n"
+                + "    public void onDisable() {\n"
+                + "    }\n"
+                + "}\n");
+        sources.add(moduleSource.toString());
+
+        Path classFolder = sourceFolder.resolve("classes");
+        List<String> arguments = new ArrayList<>(List.of(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classFolder.toString(),
+                "-proc:none"
+        ));
+        arguments.addAll(sources);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null || compiler.run(null, null, null, arguments.toArray(String[]::new)) != 0) {
+            throw new IllegalStateException("Couldn't compile synthetic module " + module + ", the benchmark needs a JDK");
+        }
+
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile));
+             Stream<Path> classFiles = Files.walk(classFolder)) {
+            for (Path classFile : classFiles.filter(Files::isRegularFile).toList()) {
+                jar.putNextEntry(new JarEntry(classFolder.relativize(classFile).toString().replace('\\', '/')));
+                Files.copy(classFile, jar);
+                jar.closeEntry();
+            }
+        }
+    }
+}
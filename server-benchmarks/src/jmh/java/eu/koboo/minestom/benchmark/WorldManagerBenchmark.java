@@ -0,0 +1,145 @@
+package eu.koboo.minestom.benchmark;
+
+import eu.koboo.minestom.api.world.World;
+import eu.koboo.minestom.api.world.dimension.Dimension;
+import eu.koboo.minestom.config.ConfigLoader;
+import eu.koboo.minestom.server.world.WorldManagerImpl;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating, loading and saving worlds from the region files of the bundled template.
+ * Every invocation uses a new world, so no file system cache of a previous world is measured as a copy.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 20, batchSize = 1)
+public class WorldManagerBenchmark {
+
+    // Chunks around the spawn, which are loaded before a world gets saved
+    static final int SAVE_CHUNK_RADIUS = 3;
+
+    @Benchmark
+    public World createWorld(Server server, NewWorld world) {
+        return server.worldManager.createWorld(world.name, Dimension.OVERWORLD);
+    }
+
+    @Benchmark
+    public World loadWorld(Server server, ExtractedWorld world) {
+        server.worldManager.loadWorld(world.name);
+        return server.worldManager.getWorld(world.name);
+    }
+
+    @Benchmark
+    public void saveWorld(Server server, LoadedWorld world) {
+        server.worldManager.saveWorldAsync(world.name).join();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        WorldManagerImpl worldManager;
+        int worldCounter;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            MinecraftServer.init();
+            worldManager = new WorldManagerImpl(ConfigLoader.loadConfig());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BenchmarkFiles.deleteRecursively(Path.of("worlds"));
+        }
+
+        String nextWorldName() {
+            return "benchmark-" + worldCounter++;
+        }
+
+        /**
+         * Remove the world without saving or evacuating it, which would need a running server.
+         */
+        void dropWorld(String name) {
+            World world = worldManager.getWorld(name);
+            if (world != null) {
+                MinecraftServer.getInstanceManager().unregisterInstance(world.getInstanceContainer());
+                worldManager.getLoadedWorlds().remove(name);
+                worldManager.getLoadedInstances().remove(name);
+            }
+            BenchmarkFiles.deleteRecursively(Path.of("worlds", name));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NewWorld {
+
+        String name;
+
+        @Setup(Level.Invocation)
+        public void setup(Server server) {
+            name = server.nextWorldName();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(Server server) {
+            server.dropWorld(name);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExtractedWorld {
+
+        String name;
+
+        @Setup(Level.Invocation)
+        public void setup(Server server) throws IOException {
+            name = server.nextWorldName();
+            server.worldManager.extractTemplate(name);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(Server server) {
+            server.dropWorld(name);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LoadedWorld {
+
+        String name;
+
+        @Setup(Level.Invocation)
+        public void setup(Server server) throws IOException {
+            name = server.nextWorldName();
+            server.worldManager.extractTemplate(name);
+            server.worldManager.loadWorld(name);
+            InstanceContainer instance = server.worldManager.getWorld(name).getInstanceContainer();
+            for (int chunkX = -SAVE_CHUNK_RADIUS; chunkX <= SAVE_CHUNK_RADIUS; chunkX++) {
+                for (int chunkZ = -SAVE_CHUNK_RADIUS; chunkZ <= SAVE_CHUNK_RADIUS; chunkZ++) {
+                    instance.loadChunk(chunkX, chunkZ).join();
+                }
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(Server server) {
+            server.dropWorld(name);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package eu.koboo.minestom.loadtest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless client, which logs in like an offline-mode client and then walks, chats and hops between worlds.
+ * Every bot reads on its own virtual thread, the actions are timed by the shared scheduler
+ * and sent from short-lived virtual threads, so a slow server never blocks the scheduler.
+ */
+final class Bot implements Runnable {
+
+    // Bots turn back to the spawn point, if they walked further away
+    private static final double MAX_DISTANCE = 16;
+    private static final double STEP = 0.2;
+
+    private final String name;
+    private final UUID uuid;
+    private final LoadTestConfig config;
+    private final LoadTestStats stats;
+    private final ScheduledExecutorService scheduler;
+    // Offsets of the actions, and one stream per action, as the actions run on different threads
+    private final Random random;
+    private final Random moveRandom;
+    private final Random chatRandom;
+    private final Random hopRandom;
+    private final List<ScheduledFuture<?>> actions = new ArrayList<>();
+
+    private volatile PacketConnection connection;
+    private volatile boolean stopped;
+    private volatile boolean joined;
+
+    private long connectNanos;
+    // Time the last hop command was sent, 0 while no hop is pending
+    private volatile long hopNanos;
+    private long lastWorldAge = -1;
+    private long lastWorldAgeNanos;
+
+    // Position of the bot, written by the reading thread on teleports and by the movement
+    private double spawnX;
+    private double spawnZ;
+    private double x;
+    private double y;
+    private double z;
+    private float yaw;
+
+    Bot(int index, LoadTestConfig config, LoadTestStats stats, ScheduledExecutorService scheduler) {
+        this.name = "Bot" + index;
+        this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        this.config = config;
+        this.stats = stats;
+        this.scheduler = scheduler;
+        // Every bot gets its own sequence of actions, independent of the order the bots run in
+        this.random = new Random(config.seed() * 31 + index);
+        this.moveRandom = new Random(random.nextLong());
+        this.chatRandom = new Random(random.nextLong());
+        this.hopRandom = new Random(random.nextLong());
+    }
+
+    boolean isJoined() {
+        return joined;
+    }
+
+    @Override
+    public void run() {
+        connectNanos = System.nanoTime();
+        try (PacketConnection connection = new PacketConnection(config.host(), config.port(), stats)) {
+            this.connection = connection;
+            stats.connected.increment();
+            login(connection);
+            configure(connection);
+            play(connection);
+        } catch (BotException e) {
+            stats.failed(e.getMessage());
+        } catch (IOException e) {
+            if (!stopped) {
+                stats.failed(e instanceof SocketException || e instanceof EOFException
+                        ? "connection lost" : e.getClass().getSimpleName());
+            }
+        } finally {
+            cancelActions();
+            if (joined && !stopped) {
+                stats.disconnected.increment();
+            }
+        }
+    }
+
+    /**
+     * Close the connection, a stopped bot isn't counted as failed.
+     */
+    void stop() {
+        stopped = true;
+        cancelActions();
+        PacketConnection connection = this.connection;
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private void login(PacketConnection connection) throws IOException {
+        connection.send(PacketBuffer.packet(Protocol.HANDSHAKE)
+                .writeVarInt(Protocol.VERSION)
+                .writeString(config.host())
+                .writeShort(config.port())
+                .writeVarInt(Protocol.NEXT_STATE_LOGIN));
+        connection.send(PacketBuffer.packet(Protocol.LOGIN_START)
+                .writeString(name)
+                .writeUuid(uuid));
+        while (true) {
+            int packetId = connection.read();
+            switch (packetId) {
+                case Protocol.LOGIN_SET_COMPRESSION ->
+                        connection.setCompressionThreshold(PacketBuffer.readVarInt(connection.payload()));
+                case Protocol.LOGIN_PLUGIN_REQUEST -> connection.send(PacketBuffer.packet(Protocol.LOGIN_PLUGIN_RESPONSE)
+                        .writeVarInt(PacketBuffer.readVarInt(connection.payload()))
+                        .writeBoolean(false));
+                case Protocol.LOGIN_ENCRYPTION_REQUEST ->
+                        throw new BotException("server is in online-mode, start it with online-mode: false");
+                case Protocol.LOGIN_DISCONNECT -> throw new BotException("kicked on login");
+                case Protocol.LOGIN_SUCCESS -> {
+                    connection.send(PacketBuffer.packet(Protocol.LOGIN_ACKNOWLEDGED));
+                    return;
+                }
+                default -> {
+                    // Not needed by the bot
+                }
+            }
+        }
+    }
+
+    private void configure(PacketConnection connection) throws IOException {
+        connection.send(PacketBuffer.packet(Protocol.CONFIG_CLIENT_INFORMATION)
+                .writeString("en_us")
+                .writeByte(2)
+                .writeVarInt(0)
+                .writeBoolean(true)
+                .writeByte(0x7F)
+                .writeVarInt(1)
+                .writeBoolean(false)
+                .writeBoolean(true));
+        awaitConfigured(connection);
+    }
+
+    private void awaitConfigured(PacketConnection connection) throws IOException {
+        while (true) {
+            int packetId = connection.read();
+            switch (packetId) {
+                case Protocol.CONFIG_KEEP_ALIVE -> connection.send(PacketBuffer.packet(Protocol.CONFIG_KEEP_ALIVE_RESPONSE)
+                        .writeLong(connection.payload().getLong()));
+                case Protocol.CONFIG_PING -> connection.send(PacketBuffer.packet(Protocol.CONFIG_PONG)
+                        .writeInt(connection.payload().getInt()));
+                case Protocol.CONFIG_DISCONNECT -> throw new BotException("kicked on configuration");
+                case Protocol.CONFIG_FINISH -> {
+                    connection.send(PacketBuffer.packet(Protocol.CONFIG_FINISH_ACKNOWLEDGED));
+                    return;
+                }
+                default -> {
+                    // Registries, tags and feature flags aren't needed by the bot
+                }
+            }
+        }
+    }
+
+    private void play(PacketConnection connection) throws IOException {
+        while (true) {
+            int packetId = connection.read();
+            switch (packetId) {
+                case Protocol.PLAY_SYNCHRONIZE_POSITION -> synchronizePosition(connection, connection.payload());
+                case Protocol.PLAY_KEEP_ALIVE -> connection.send(PacketBuffer.packet(Protocol.PLAY_KEEP_ALIVE_RESPONSE)
+                        .writeLong(connection.payload().getLong()));
+                case Protocol.PLAY_PING -> connection.send(PacketBuffer.packet(Protocol.PLAY_PONG)
+                        .writeInt(connection.payload().getInt()));
+                case Protocol.PLAY_CHUNK_BATCH_FINISHED -> connection.send(PacketBuffer.packet(Protocol.PLAY_CHUNK_BATCH_RECEIVED)
+                        .writeFloat(25.0f));
+                case Protocol.PLAY_UPDATE_TIME -> updateTime(connection.payload().getLong());
+                case Protocol.PLAY_START_CONFIGURATION -> {
+                    connection.send(PacketBuffer.packet(Protocol.PLAY_CONFIGURATION_ACKNOWLEDGED));
+                    awaitConfigured(connection);
+                }
+                case Protocol.PLAY_DISCONNECT -> {
+                    if (stopped) {
+                        return;
+                    }
+                    throw new BotException("kicked");
+                }
+                default -> {
+                    // Chunks, entities and all other packets are only counted
+                }
+            }
+        }
+    }
+
+    private void synchronizePosition(PacketConnection connection, ByteBuffer payload) throws IOException {
+        double newX = payload.getDouble();
+        double newY = payload.getDouble();
+        double newZ = payload.getDouble();
+        float newYaw = payload.getFloat();
+        float pitch = payload.getFloat();
+        byte flags = payload.get();
+        int teleportId = PacketBuffer.readVarInt(payload);
+        synchronized (this) {
+            x = (flags & 0x01) != 0 ? x + newX : newX;
+            y = (flags & 0x02) != 0 ? y + newY : newY;
+            z = (flags & 0x04) != 0 ? z + newZ : newZ;
+            yaw = (flags & 0x08) != 0 ? yaw + newYaw : newYaw;
+            spawnX = x;
+            spawnZ = z;
+        }
+        // The bot could be in another world now, its age isn't comparable
+        lastWorldAge = -1;
+        connection.send(PacketBuffer.packet(Protocol.PLAY_CONFIRM_TELEPORT).writeVarInt(teleportId));
+        sendPosition(connection, pitch);
+
+        long now = System.nanoTime();
+        if (!joined) {
+            joined = true;
+            stats.joined.increment();
+            stats.joinLatency.record(now - connectNanos);
+            scheduleActions();
+        }
+        long sentNanos = hopNanos;
+        if (sentNanos != 0) {
+            hopNanos = 0;
+            stats.hopLatency.record(now - sentNanos);
+        }
+    }
+
+    private void updateTime(long worldAge) {
+        long now = System.nanoTime();
+        if (lastWorldAge >= 0) {
+            stats.serverTicks(worldAge - lastWorldAge, now - lastWorldAgeNanos);
+        }
+        lastWorldAge = worldAge;
+        lastWorldAgeNanos = now;
+    }
+
+    private void scheduleActions() {
+        synchronized (actions) {
+            if (stopped) {
+                return;
+            }
+            // Random offsets, so the bots don't act all in the same tick
+            long moveMillis = config.moveMillis();
+            actions.add(scheduler.scheduleAtFixedRate(() -> act(this::move),
+                    random.nextLong(moveMillis), moveMillis, TimeUnit.MILLISECONDS));
+            if (config.chatSecs() > 0) {
+                long chatMillis = config.chatSecs() * 1000L;
+                actions.add(scheduler.scheduleAtFixedRate(() -> act(this::chat),
+                        random.nextLong(chatMillis), chatMillis, TimeUnit.MILLISECONDS));
+            }
+            if (config.hopSecs() > 0 && !config.worlds().isEmpty()) {
+                long hopMillis = config.hopSecs() * 1000L;
+                actions.add(scheduler.scheduleAtFixedRate(() -> act(this::hop),
+                        random.nextLong(hopMillis), hopMillis, TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+
+    private void cancelActions() {
+        synchronized (actions) {
+            for (ScheduledFuture<?> action : actions) {
+                action.cancel(false);
+            }
+            actions.clear();
+        }
+    }
+
+    /**
+     * Prepare the action on the scheduler thread and send it on its own thread.
+     * Every action draws from its own random in the order it runs, so the same seed gives the same actions.
+     */
+    private void act(ActionFactory factory) {
+        PacketConnection connection = this.connection;
+        if (stopped || connection == null) {
+            return;
+        }
+        Action action = factory.prepare();
+        Thread.ofVirtual().start(() -> {
+            try {
+                action.run(connection);
+            } catch (IOException ignored) {
+                // The reading thread notices the closed connection
+            }
+        });
+    }
+
+    private Action move() {
+        synchronized (this) {
+            double distance = Math.hypot(x - spawnX, z - spawnZ);
+            if (distance > MAX_DISTANCE) {
+                yaw = (float) Math.toDegrees(Math.atan2(x - spawnX, spawnZ - z));
+            } else {
+                yaw += (float) (moveRandom.nextGaussian() * 30);
+            }
+            double radians = Math.toRadians(yaw);
+            x -= Math.sin(radians) * STEP;
+            z += Math.cos(radians) * STEP;
+        }
+        return connection -> {
+            sendPosition(connection, 0);
+            stats.moves.increment();
+        };
+    }
+
+    private Action chat() {
+        String message = "Load test message " + chatRandom.nextInt(1000);
+        long salt = chatRandom.nextLong();
+        return connection -> {
+            connection.send(PacketBuffer.packet(Protocol.PLAY_CHAT_MESSAGE)
+                    .writeString(message)
+                    .writeLong(System.currentTimeMillis())
+                    .writeLong(salt)
+                    .writeBoolean(false)
+                    .writeVarInt(0)
+                    .writeBytes(new byte[3]));
+            stats.chats.increment();
+        };
+    }
+
+    private Action hop() {
+        List<String> worlds = config.worlds();
+        String world = worlds.get(hopRandom.nextInt(worlds.size()));
+        long salt = hopRandom.nextLong();
+        return connection -> {
+            hopNanos = System.nanoTime();
+            connection.send(PacketBuffer.packet(Protocol.PLAY_CHAT_COMMAND)
+                    .writeString("world go " + world)
+                    .writeLong(System.currentTimeMillis())
+                    .writeLong(salt)
+                    .writeVarInt(0)
+                    .writeVarInt(0)
+                    .writeBytes(new byte[3]));
+            stats.hops.increment();
+        };
+    }
+
+    private void sendPosition(PacketConnection connection, float pitch) throws IOException {
+        PacketBuffer packet;
+        synchronized (this) {
+            packet = PacketBuffer.packet(Protocol.PLAY_POSITION_ROTATION)
+                    .writeDouble(x)
+                    .writeDouble(y)
+                    .writeDouble(z)
+                    .writeFloat(yaw)
+                    .writeFloat(pitch)
+                    .writeBoolean(true);
+        }
+        connection.send(packet);
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run(PacketConnection connection) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ActionFactory {
+        Action prepare();
+    }
+
+    /**
+     * The server refused the bot, the message is counted as failure reason.
+     */
+    private static final class BotException extends IOException {
+
+        private BotException(String message) {
+            super(message);
+        }
+    }
+}
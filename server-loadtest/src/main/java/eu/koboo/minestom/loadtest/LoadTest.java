@@ -0,0 +1,216 @@
+package eu.koboo.minestom.loadtest;
+
+import eu.koboo.minestom.stats.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Connects synthetic clients to a running server and measures, how it copes with them.
+ * The server has to run in offline-mode (`online-mode: false`, started with `--cracked`).
+ * <p>
+ * The bots connect at the ramp-up rate and stay online for the duration. A report is printed every few seconds,
+ * the results of the run are written as JSON into the output directory, so runs of two releases can be compared.
+ */
+public class LoadTest {
+
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final LoadTestConfig config;
+    private final LoadTestStats stats;
+    private final ScheduledExecutorService scheduler;
+    private final List<Bot> bots;
+    private final List<Thread> threads;
+
+    private LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.stats = new LoadTestStats();
+        this.scheduler = Executors.newScheduledThreadPool(2, Thread.ofPlatform().name("LoadTest-Scheduler-", 0).daemon().factory());
+        this.bots = new ArrayList<>(config.bots());
+        this.threads = new ArrayList<>(config.bots());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTest(config).run();
+    }
+
+    private void run() throws InterruptedException {
+        Instant startedAt = Instant.now();
+        System.out.println("Connecting " + config.bots() + " bots to " + config.host() + ":" + config.port()
+                + " with " + config.rampUp() + " bots/s (seed " + config.seed() + ")..");
+
+        LoadTestStats.Snapshot[] previous = {stats.snapshot()};
+        scheduler.scheduleAtFixedRate(() -> {
+            LoadTestStats.Snapshot current = stats.snapshot();
+            printReport(current, previous[0]);
+            previous[0] = current;
+        }, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rampUp();
+        long nextConnect = System.nanoTime();
+        for (int i = 0; i < config.bots(); i++) {
+            Bot bot = new Bot(i, config, stats, scheduler);
+            bots.add(bot);
+            threads.add(Thread.ofVirtual().name("Bot-" + i).start(bot));
+            nextConnect += intervalNanos;
+            LockSupport.parkNanos(nextConnect - System.nanoTime());
+        }
+        System.out.println("All bots connecting, running for " + config.durationSecs() + "s..");
+
+        // Throughput is only measured, after the ramp-up is done
+        LoadTestStats.Snapshot steadyStart = stats.snapshot();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.durationSecs()));
+        LoadTestStats.Snapshot steadyEnd = stats.snapshot();
+        int online = 0;
+        for (Bot bot : bots) {
+            if (bot.isJoined()) {
+                online++;
+            }
+        }
+
+        scheduler.shutdownNow();
+        for (Bot bot : bots) {
+            bot.stop();
+        }
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+
+        printReport(steadyEnd, steadyStart);
+        writeResults(startedAt, online, steadyStart, steadyEnd);
+    }
+
+    private void printReport(LoadTestStats.Snapshot current, LoadTestStats.Snapshot previous) {
+        System.out.println(String.format("joined %d/%d, failed %d, lost %d | join p50 %.1fms p99 %.1fms | hop p99 %.1fms"
+                        + " | in %.0f pkt/s %.1f KiB/s, out %.0f pkt/s | %.1f ms/tick",
+                current.joined(), config.bots(), current.failed(), current.disconnected(),
+                toMillis(stats.joinLatency.getQuantileNanos(0.5)), toMillis(stats.joinLatency.getQuantileNanos(0.99)),
+                toMillis(stats.hopLatency.getQuantileNanos(0.99)),
+                current.perSecond(current.packetsIn(), previous.packetsIn(), previous),
+                current.perSecond(current.bytesIn(), previous.bytesIn(), previous) / 1024,
+                current.perSecond(current.packetsOut(), previous.packetsOut(), previous),
+                current.millisPerTick(previous)));
+    }
+
+    private void writeResults(Instant startedAt, int online, LoadTestStats.Snapshot steadyStart, LoadTestStats.Snapshot steadyEnd) {
+        String newLine = "\n";
+        String indent = "  ";
+        StringBuilder builder = new StringBuilder(2048);
+        builder.append('{').append(newLine);
+        builder.append(indent).append("\"startedAt\": \"").append(startedAt).append("\",").append(newLine);
+        builder.append(indent).append("\"config\": {")
+                .append("\"host\": \"").append(escape(config.host()))
+                .append("\", \"port\": ").append(config.port())
+                .append(", \"bots\": ").append(config.bots())
+                .append(", \"rampUp\": ").append(config.rampUp())
+                .append(", \"durationSecs\": ").append(config.durationSecs())
+                .append(", \"worlds\": [");
+        for (int i = 0; i < config.worlds().size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append('"').append(escape(config.worlds().get(i))).append('"');
+        }
+        builder.append("], \"moveMillis\": ").append(config.moveMillis())
+                .append(", \"chatSecs\": ").append(config.chatSecs())
+                .append(", \"hopSecs\": ").append(config.hopSecs())
+                .append(", \"seed\": ").append(config.seed())
+                .append("},").append(newLine);
+        builder.append(indent).append("\"bots\": {")
+                .append("\"connected\": ").append(steadyEnd.connected())
+                .append(", \"joined\": ").append(steadyEnd.joined())
+                .append(", \"online\": ").append(online)
+                .append(", \"failed\": ").append(steadyEnd.failed())
+                .append(", \"lost\": ").append(steadyEnd.disconnected())
+                .append("},").append(newLine);
+        builder.append(indent).append("\"joinLatency\": ").append(toJson(stats.joinLatency)).append(',').append(newLine);
+        builder.append(indent).append("\"hopLatency\": ").append(toJson(stats.hopLatency)).append(',').append(newLine);
+        builder.append(indent).append("\"throughput\": {")
+                .append("\"packetsInPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.packetsIn(), steadyStart.packetsIn(), steadyStart)))
+                .append(", \"bytesInPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.bytesIn(), steadyStart.bytesIn(), steadyStart)))
+                .append(", \"packetsOutPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.packetsOut(), steadyStart.packetsOut(), steadyStart)))
+                .append(", \"bytesOutPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.bytesOut(), steadyStart.bytesOut(), steadyStart)))
+                .append(", \"movesPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.moves(), steadyStart.moves(), steadyStart)))
+                .append(", \"chatsPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.chats(), steadyStart.chats(), steadyStart)))
+                .append(", \"hopsPerSecond\": ").append(round(steadyEnd.perSecond(steadyEnd.hops(), steadyStart.hops(), steadyStart)))
+                .append("},").append(newLine);
+        builder.append(indent).append("\"server\": {")
+                .append("\"millisPerTick\": ").append(round(steadyEnd.millisPerTick(steadyStart)))
+                .append("},").append(newLine);
+        builder.append(indent).append("\"failures\": {");
+        Map<String, LongAdder> failures = new TreeMap<>(stats.failures);
+        int index = 0;
+        for (Map.Entry<String, LongAdder> entry : failures.entrySet()) {
+            builder.append(index++ == 0 ? "" : ", ")
+                    .append('"').append(escape(entry.getKey())).append("\": ").append(entry.getValue().sum());
+        }
+        builder.append('}').append(newLine).append('}');
+
+        Path file = config.outputDir().resolve("loadtest-" + FILE_DATE_FORMAT.format(LocalDateTime.now()) + ".json");
+        try {
+            Files.createDirectories(config.outputDir());
+            Files.writeString(file, builder.toString(), StandardCharsets.UTF_8);
+            System.out.println("Results written to " + file);
+        } catch (IOException e) {
+            System.err.println("Couldn't write results to " + file + ": " + e);
+        }
+    }
+
+    private static String toJson(LatencyHistogram histogram) {
+        return "{\"count\": " + histogram.getCount()
+                + ", \"p50Millis\": " + round(toMillis(histogram.getQuantileNanos(0.5)))
+                + ", \"p90Millis\": " + round(toMillis(histogram.getQuantileNanos(0.9)))
+                + ", \"p99Millis\": " + round(toMillis(histogram.getQuantileNanos(0.99)))
+                + ", \"maxMillis\": " + round(toMillis(histogram.getMaxNanos())) + "}";
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,103 @@
+package eu.koboo.minestom.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of a load test run, parsed from the command line arguments.
+ * Runs with the same settings and seed give every bot the same random walk, messages and world hops.
+ *
+ * @param host          host of the server
+ * @param port          port of the server
+ * @param bots          amount of bots to connect
+ * @param rampUp        bots connected per second
+ * @param durationSecs  seconds to keep all bots online, after the last bot connected
+ * @param worlds        worlds the bots hop between with `/world go`, no hopping if empty
+ * @param moveMillis    milliseconds between two movements of a bot
+ * @param chatSecs      seconds between two chat messages of a bot (0 disables chatting)
+ * @param hopSecs       seconds between two world hops of a bot (0 disables hopping)
+ * @param seed          seed of the random actions of the bots
+ * @param outputDir     directory of the result files
+ */
+public record LoadTestConfig(String host, int port, int bots, int rampUp, int durationSecs,
+                             List<String> worlds, int moveMillis, int chatSecs, int hopSecs,
+                             long seed, Path outputDir) {
+
+    static final String USAGE = """
+            Usage: LoadTest [options]
+              --host <host>            host of the server (default 127.0.0.1)
+              --port <port>            port of the server (default 25568)
+              --bots <amount>          amount of bots (default 100)
+              --ramp-up <bots/s>       bots connected per second (default 50)
+              --duration <seconds>     seconds to run after all bots connected (default 60)
+              --worlds <a,b,..>        worlds to hop between with /world go (default none)
+              --move-interval <ms>     milliseconds between movements (default 250)
+              --chat-interval <s>      seconds between chat messages, 0 disables (default 30)
+              --hop-interval <s>       seconds between world hops, 0 disables (default 20)
+              --seed <seed>            seed of the random actions (default random)
+              --output <dir>           directory of the result files (default loadtest-results)""";
+
+    public static LoadTestConfig parse(String[] args) {
+        String host = "127.0.0.1";
+        int port = 25568;
+        int bots = 100;
+        int rampUp = 50;
+        int durationSecs = 60;
+        List<String> worlds = List.of();
+        int moveMillis = 250;
+        int chatSecs = 30;
+        int hopSecs = 20;
+        long seed = System.nanoTime();
+        Path outputDir = Path.of("loadtest-results");
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of option " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--host" -> host = value;
+                case "--port" -> port = parseInt(option, value, 1, 65535);
+                case "--bots" -> bots = parseInt(option, value, 1, Integer.MAX_VALUE);
+                case "--ramp-up" -> rampUp = parseInt(option, value, 1, Integer.MAX_VALUE);
+                case "--duration" -> durationSecs = parseInt(option, value, 1, Integer.MAX_VALUE);
+                case "--worlds" -> worlds = parseList(value);
+                case "--move-interval" -> moveMillis = parseInt(option, value, 50, Integer.MAX_VALUE);
+                case "--chat-interval" -> chatSecs = parseInt(option, value, 0, Integer.MAX_VALUE);
+                case "--hop-interval" -> hopSecs = parseInt(option, value, 0, Integer.MAX_VALUE);
+                case "--seed" -> seed = parseLong(option, value);
+                case "--output" -> outputDir = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        return new LoadTestConfig(host, port, bots, rampUp, durationSecs, worlds, moveMillis, chatSecs, hopSecs, seed, outputDir);
+    }
+
+    private static int parseInt(String option, String value, int min, int max) {
+        long parsed = parseLong(option, value);
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException("Value of option " + option + " has to be between " + min + " and " + max);
+        }
+        return (int) parsed;
+    }
+
+    private static long parseLong(String option, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for option " + option + ": " + value);
+        }
+    }
+
+    private static List<String> parseList(String value) {
+        List<String> list = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            if (!entry.isBlank()) {
+                list.add(entry.trim());
+            }
+        }
+        return List.copyOf(list);
+    }
+}
@@ -0,0 +1,94 @@
+package eu.koboo.minestom.loadtest;
+
+import eu.koboo.minestom.stats.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of all bots of a run.
+ * The bots can't see the tick monitor of the server, so the tick rate is estimated from the world age
+ * of the time updates, which the server sends every second.
+ */
+final class LoadTestStats {
+
+    final LatencyHistogram joinLatency = new LatencyHistogram();
+    final LatencyHistogram hopLatency = new LatencyHistogram();
+
+    final LongAdder connected = new LongAdder();
+    final LongAdder joined = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder disconnected = new LongAdder();
+    final LongAdder moves = new LongAdder();
+    final LongAdder chats = new LongAdder();
+    final LongAdder hops = new LongAdder();
+
+    final LongAdder packetsIn = new LongAdder();
+    final LongAdder bytesIn = new LongAdder();
+    final LongAdder packetsOut = new LongAdder();
+    final LongAdder bytesOut = new LongAdder();
+
+    // Ticks of the server and the wall clock time they took, summed over all bots
+    final LongAdder serverTicks = new LongAdder();
+    final LongAdder serverTickNanos = new LongAdder();
+
+    final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    void received(int bytes) {
+        packetsIn.increment();
+        bytesIn.add(bytes);
+    }
+
+    void sent(int bytes) {
+        packetsOut.increment();
+        bytesOut.add(bytes);
+    }
+
+    /**
+     * @param ticks  world age difference between two time updates
+     * @param nanos  wall clock time between receiving the two time updates
+     */
+    void serverTicks(long ticks, long nanos) {
+        // A changed world resets the age, it's no tick measurement
+        if (ticks <= 0 || nanos <= 0) {
+            return;
+        }
+        serverTicks.add(ticks);
+        serverTickNanos.add(nanos);
+    }
+
+    void failed(String reason) {
+        failed.increment();
+        failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(System.nanoTime(), connected.sum(), joined.sum(), failed.sum(), disconnected.sum(),
+                moves.sum(), chats.sum(), hops.sum(),
+                packetsIn.sum(), bytesIn.sum(), packetsOut.sum(), bytesOut.sum(),
+                serverTicks.sum(), serverTickNanos.sum());
+    }
+
+    /**
+     * Counters at one point in time, the difference of two snapshots gives the rates of the interval.
+     */
+    record Snapshot(long nanoTime, long connected, long joined, long failed, long disconnected,
+                    long moves, long chats, long hops,
+                    long packetsIn, long bytesIn, long packetsOut, long bytesOut,
+                    long serverTicks, long serverTickNanos) {
+
+        double perSecond(long current, long previous, Snapshot since) {
+            long nanos = nanoTime - since.nanoTime;
+            return nanos <= 0 ? 0 : (current - previous) * 1_000_000_000.0 / nanos;
+        }
+
+        /**
+         * @return average milliseconds per server tick since the other snapshot, 50 while the server keeps up
+         */
+        double millisPerTick(Snapshot since) {
+            long ticks = serverTicks - since.serverTicks;
+            return ticks <= 0 ? 0 : (serverTickNanos - since.serverTickNanos) / 1_000_000.0 / ticks;
+        }
+    }
+}
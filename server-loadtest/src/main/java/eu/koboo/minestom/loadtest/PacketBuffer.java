@@ -0,0 +1,142 @@
+package eu.koboo.minestom.loadtest;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Growable buffer to write packets, and the readers for the fields of received packets.
+ * Uses the data types of the Minecraft protocol, like VarInts and length prefixed strings.
+ */
+final class PacketBuffer {
+
+    private byte[] bytes;
+    private int size;
+
+    PacketBuffer() {
+        this.bytes = new byte[64];
+    }
+
+    static PacketBuffer packet(int packetId) {
+        return new PacketBuffer().writeVarInt(packetId);
+    }
+
+    PacketBuffer writeByte(int value) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    PacketBuffer writeBoolean(boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    PacketBuffer writeShort(int value) {
+        return writeByte(value >>> 8).writeByte(value);
+    }
+
+    PacketBuffer writeInt(int value) {
+        return writeShort(value >>> 16).writeShort(value);
+    }
+
+    PacketBuffer writeLong(long value) {
+        return writeInt((int) (value >>> 32)).writeInt((int) value);
+    }
+
+    PacketBuffer writeFloat(float value) {
+        return writeInt(Float.floatToIntBits(value));
+    }
+
+    PacketBuffer writeDouble(double value) {
+        return writeLong(Double.doubleToLongBits(value));
+    }
+
+    PacketBuffer writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        return writeByte(value);
+    }
+
+    PacketBuffer writeString(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(encoded.length);
+        return writeBytes(encoded);
+    }
+
+    PacketBuffer writeUuid(UUID value) {
+        return writeLong(value.getMostSignificantBits()).writeLong(value.getLeastSignificantBits());
+    }
+
+    PacketBuffer writeBytes(byte[] value) {
+        return writeBytes(value, 0, value.length);
+    }
+
+    PacketBuffer writeBytes(byte[] value, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(value, offset, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    static int readVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    static String readString(ByteBuffer in) throws IOException {
+        byte[] encoded = new byte[readVarInt(in)];
+        in.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+}
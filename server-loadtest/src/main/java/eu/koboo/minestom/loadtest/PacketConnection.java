@@ -0,0 +1,151 @@
+package eu.koboo.minestom.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Framed connection of a bot to the server, with the compression of the Minecraft protocol.
+ * Received packets are only inflated as far as needed, most packets like chunks are skipped after their id.
+ */
+final class PacketConnection implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final OutputStream output;
+    private final LoadTestStats stats;
+    private final Inflater inflater = new Inflater();
+    private final Deflater deflater = new Deflater();
+    private final byte[] idBuffer = new byte[5];
+    private final byte[] deflateBuffer = new byte[8192];
+
+    // Only accessed by the reading thread, except the threshold, which is set before the bot sends anything else
+    private volatile int compressionThreshold = -1;
+    private byte[] frame = new byte[1024];
+    private int frameLength;
+    private int dataOffset;
+    private int dataLength;
+
+    PacketConnection(String host, int port, LoadTestStats stats) throws IOException {
+        this.stats = stats;
+        this.socket = new Socket();
+        this.socket.setTcpNoDelay(true);
+        this.socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 16384));
+        this.output = new BufferedOutputStream(socket.getOutputStream(), 1024);
+    }
+
+    void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Read the next packet, its payload can be read with {@link #payload()} afterwards.
+     * @return the id of the packet
+     */
+    int read() throws IOException {
+        frameLength = PacketBuffer.readVarInt(input);
+        if (frame.length < frameLength) {
+            frame = new byte[Math.max(frameLength, frame.length * 2)];
+        }
+        input.readFully(frame, 0, frameLength);
+        stats.received(frameLength);
+
+        ByteBuffer buffer = ByteBuffer.wrap(frame, 0, frameLength);
+        dataLength = compressionThreshold >= 0 ? PacketBuffer.readVarInt(buffer) : 0;
+        dataOffset = buffer.position();
+        if (dataLength == 0) {
+            return PacketBuffer.readVarInt(buffer);
+        }
+        try {
+            inflater.reset();
+            inflater.setInput(frame, dataOffset, frameLength - dataOffset);
+            int inflated = inflater.inflate(idBuffer, 0, Math.min(idBuffer.length, dataLength));
+            return PacketBuffer.readVarInt(ByteBuffer.wrap(idBuffer, 0, inflated));
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid compressed packet", e);
+        }
+    }
+
+    /**
+     * @return the fields of the last read packet, after its id
+     */
+    ByteBuffer payload() throws IOException {
+        ByteBuffer buffer;
+        if (dataLength == 0) {
+            buffer = ByteBuffer.wrap(frame, dataOffset, frameLength - dataOffset);
+        } else {
+            byte[] data = new byte[dataLength];
+            try {
+                inflater.reset();
+                inflater.setInput(frame, dataOffset, frameLength - dataOffset);
+                int inflated = 0;
+                while (inflated < dataLength && !inflater.finished()) {
+                    int count = inflater.inflate(data, inflated, dataLength - inflated);
+                    if (count == 0 && inflater.needsInput()) {
+                        throw new IOException("Truncated compressed packet");
+                    }
+                    inflated += count;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid compressed packet", e);
+            }
+            buffer = ByteBuffer.wrap(data);
+        }
+        PacketBuffer.readVarInt(buffer);
+        return buffer;
+    }
+
+    /**
+     * Send a packet, which starts with its id. Called by the reading thread and the action scheduler of the bot.
+     */
+    synchronized void send(PacketBuffer packet) throws IOException {
+        int threshold = compressionThreshold;
+        if (threshold < 0) {
+            PacketBuffer.writeVarInt(output, packet.size());
+            output.write(packet.array(), 0, packet.size());
+        } else if (packet.size() < threshold) {
+            PacketBuffer.writeVarInt(output, packet.size() + 1);
+            output.write(0);
+            output.write(packet.array(), 0, packet.size());
+        } else {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(packet.size());
+            deflater.reset();
+            deflater.setInput(packet.array(), 0, packet.size());
+            deflater.finish();
+            while (!deflater.finished()) {
+                compressed.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+            }
+            PacketBuffer dataLength = new PacketBuffer().writeVarInt(packet.size());
+            PacketBuffer.writeVarInt(output, dataLength.size() + compressed.size());
+            output.write(dataLength.array(), 0, dataLength.size());
+            compressed.writeTo(output);
+        }
+        output.flush();
+        stats.sent(packet.size());
+    }
+
+    /**
+     * Close the socket, a blocking read of the bot fails afterwards.
+     * The inflater and deflater are freed by their cleaner, as the bot could still be using them.
+     */
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
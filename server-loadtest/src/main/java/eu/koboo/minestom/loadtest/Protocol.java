@@ -0,0 +1,57 @@
+package eu.koboo.minestom.loadtest;
+
+/**
+ * Packet ids of the protocol the bots speak, Minecraft 1.20.4.
+ * Only the packets, which the bots send or react to, are listed.
+ */
+final class Protocol {
+
+    static final int VERSION = 765;
+
+    // Handshake
+    static final int HANDSHAKE = 0x00;
+    static final int NEXT_STATE_LOGIN = 2;
+
+    // Login, clientbound
+    static final int LOGIN_DISCONNECT = 0x00;
+    static final int LOGIN_ENCRYPTION_REQUEST = 0x01;
+    static final int LOGIN_SUCCESS = 0x02;
+    static final int LOGIN_SET_COMPRESSION = 0x03;
+    static final int LOGIN_PLUGIN_REQUEST = 0x04;
+    // Login, serverbound
+    static final int LOGIN_START = 0x00;
+    static final int LOGIN_PLUGIN_RESPONSE = 0x02;
+    static final int LOGIN_ACKNOWLEDGED = 0x03;
+
+    // Configuration, clientbound
+    static final int CONFIG_DISCONNECT = 0x01;
+    static final int CONFIG_FINISH = 0x02;
+    static final int CONFIG_KEEP_ALIVE = 0x03;
+    static final int CONFIG_PING = 0x04;
+    // Configuration, serverbound
+    static final int CONFIG_CLIENT_INFORMATION = 0x00;
+    static final int CONFIG_FINISH_ACKNOWLEDGED = 0x02;
+    static final int CONFIG_KEEP_ALIVE_RESPONSE = 0x03;
+    static final int CONFIG_PONG = 0x04;
+
+    // Play, clientbound
+    static final int PLAY_CHUNK_BATCH_FINISHED = 0x0C;
+    static final int PLAY_DISCONNECT = 0x1B;
+    static final int PLAY_KEEP_ALIVE = 0x24;
+    static final int PLAY_PING = 0x33;
+    static final int PLAY_SYNCHRONIZE_POSITION = 0x3E;
+    static final int PLAY_UPDATE_TIME = 0x62;
+    static final int PLAY_START_CONFIGURATION = 0x67;
+    // Play, serverbound
+    static final int PLAY_CONFIRM_TELEPORT = 0x00;
+    static final int PLAY_CHAT_COMMAND = 0x04;
+    static final int PLAY_CHAT_MESSAGE = 0x05;
+    static final int PLAY_CHUNK_BATCH_RECEIVED = 0x07;
+    static final int PLAY_CONFIGURATION_ACKNOWLEDGED = 0x0B;
+    static final int PLAY_KEEP_ALIVE_RESPONSE = 0x15;
+    static final int PLAY_POSITION_ROTATION = 0x18;
+    static final int PLAY_PONG = 0x24;
+
+    private Protocol() {
+    }
+}
@@ -0,0 +1,124 @@
+package eu.koboo.minestom.stats;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with log-linear buckets, similar to HdrHistogram.
+ * Every power of two is split into {@link #SUB_BUCKETS} buckets, so a recorded value is off by at most 1/16.
+ * Values are in nanoseconds, from one microsecond up to about two hours.
+ * <p>
+ * Shared by the server and the load test, so both report the same percentiles.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below are counted in the first bucket
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 42;
+    private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    LongAdder count = new LongAdder();
+    LongAdder sum = new LongAdder();
+    LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile  between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return upper bound of the bucket, which contains the quantile, or 0 if nothing was recorded
+     */
+    public long getQuantileNanos(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Pass the upper bound and the cumulative count of every non-empty bucket to the consumer, in ascending order.
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount == 0) {
+                continue;
+            }
+            cumulative += bucketCount;
+            consumer.accept(upperBound(i), cumulative);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private static int bucketOf(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (exponent < MIN_EXPONENT) {
+            return 0;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+        int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT;
+        int subBucket = bucket % SUB_BUCKETS;
+        long lower = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(long upperBoundNanos, long cumulativeCount);
+    }
+}